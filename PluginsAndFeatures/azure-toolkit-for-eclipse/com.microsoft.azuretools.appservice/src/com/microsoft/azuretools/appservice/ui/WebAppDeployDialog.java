@@ -107,6 +107,7 @@ import com.microsoft.azuretools.telemetrywrapper.Operation;
 import com.microsoft.azuretools.telemetrywrapper.TelemetryManager;
 import com.microsoft.azuretools.appservice.Activator;
 import com.microsoft.azuretools.appservice.util.CommonUtils;
+import com.microsoft.azuretools.appservice.util.WebAppDeltaDeployer;
 
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -116,6 +117,7 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
 
     private static ILog LOG = Activator.getDefault().getLog();
     private static final String REFRESHING = "Refreshing...";
+    private static final String DELTA_DEPLOYMENT_FOLDER = "deployments";
     private static int connection_read_timeout_ms = 10000;
 
     private Table table;
@@ -804,7 +806,8 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
     private void export(String projectName, String destinationPath) throws Exception {
 
         System.out.println("Building project '" + projectName + "'...");
-        project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+        // only the resources changed since the last build need to be rebuilt
+        project.build(IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
 
         System.out.println("Exporting to WAR...");
         IDataModel dataModel = DataModelFactory.createDataModel(new WebComponentExportDataModelProvider());
@@ -893,8 +896,18 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
                     }
                     monitor.setTaskName(message);
                     AzureDeploymentProgressNotification.notifyProgress(this, deploymentName, sitePath, 30, message);
-                    AzureWebAppMvpModel.getInstance().deployArtifactsToWebApp(deployTarget, new File(artifactPath),
-                            isDeployToRoot, new UpdateProgressIndicator(monitor));
+                    final UpdateProgressIndicator progressIndicator = new UpdateProgressIndicator(monitor);
+                    final WebAppDeltaDeployer deltaDeployer = artifactPath.toLowerCase().endsWith(".war")
+                            ? new WebAppDeltaDeployer(deployTarget, new File(artifactPath), isDeployToRoot,
+                                    Activator.getDefault().getStateLocation().append(DELTA_DEPLOYMENT_FOLDER).toFile())
+                            : null;
+                    if (deltaDeployer == null || !deltaDeployer.deploy(progressIndicator)) {
+                        AzureWebAppMvpModel.getInstance().deployArtifactsToWebApp(deployTarget, new File(artifactPath),
+                                isDeployToRoot, progressIndicator);
+                        if (deltaDeployer != null) {
+                            deltaDeployer.recordDeployment();
+                        }
+                    }
 
                     if (monitor.isCanceled()) {
                         AzureDeploymentProgressNotification.notifyProgress(this, deploymentName, null, -1,
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.appservice.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+
+/**
+ * Minimal client of the Kudu VFS and zip APIs of an app service, authenticated by the publishing credentials.
+ */
+public class KuduClient {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 30 * 1000;
+    private static final int READ_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private final String baseUrl;
+    private final String authorization;
+
+    /**
+     * @param baseUrl the scm site url, like https://foo.scm.azurewebsites.net
+     */
+    public KuduClient(String baseUrl, String username, String password) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the scm site url of an app service host name, like foo.scm.azurewebsites.net for foo.azurewebsites.net.
+     */
+    public static String getScmUrl(String hostName) {
+        final String host = hostName.toLowerCase().replace("http://", "").replace("https://", "");
+        final int index = host.indexOf('.');
+        return "https://" + (index < 0 ? host : host.substring(0, index) + ".scm" + host.substring(index));
+    }
+
+    /**
+     * @param path the path relative to the home folder, like site/wwwroot/index.html
+     * @return the content of the file, or null if it doesn't exist
+     */
+    public byte[] getFile(String path) throws IOException {
+        final HttpURLConnection connection = open("GET", "/api/vfs/" + path);
+        try {
+            final int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            check(connection, code);
+            try (InputStream in = connection.getInputStream()) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Delete a file, a file which doesn't exist is ignored.
+     */
+    public void deleteFile(String path) throws IOException {
+        final HttpURLConnection connection = open("DELETE", "/api/vfs/" + path);
+        // overwrite whatever the version of the file is
+        connection.setRequestProperty("If-Match", "*");
+        try {
+            final int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_NOT_FOUND) {
+                check(connection, code);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Extract a zip file into a folder, overwriting the existing files but keeping the others.
+     *
+     * @param folder the folder relative to the home folder, like site/wwwroot/webapps/ROOT
+     */
+    public void putZip(String folder, File zip) throws IOException {
+        final HttpURLConnection connection = open("PUT", "/api/zip/" + folder + (folder.endsWith("/") ? "" : "/"));
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(zip.length());
+        connection.setRequestProperty("Content-Type", "application/zip");
+        try {
+            try (OutputStream out = connection.getOutputStream()) {
+                Files.copy(zip.toPath(), out);
+            }
+            check(connection, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestProperty("Authorization", authorization);
+        return connection;
+    }
+
+    private static void check(HttpURLConnection connection, int code) throws IOException {
+        if (code < 200 || code >= 300) {
+            throw new IOException(String.format("%s %s failed: %d %s", connection.getRequestMethod(),
+                    connection.getURL().getPath(), code, connection.getResponseMessage()));
+        }
+    }
+}
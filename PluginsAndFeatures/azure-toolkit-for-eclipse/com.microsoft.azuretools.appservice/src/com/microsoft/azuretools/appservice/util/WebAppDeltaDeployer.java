@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.appservice.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import com.microsoft.azure.toolkit.lib.appservice.entity.AppServiceBaseEntity;
+import com.microsoft.azure.toolkit.lib.appservice.model.OperatingSystem;
+import com.microsoft.azure.toolkit.lib.appservice.model.PublishingProfile;
+import com.microsoft.azure.toolkit.lib.appservice.model.Runtime;
+import com.microsoft.azure.toolkit.lib.appservice.service.IWebAppBase;
+import com.microsoft.azuretools.appservice.Activator;
+import com.microsoft.azuretools.utils.IProgressIndicator;
+
+/**
+ * Deploy only the changed entries of a WAR to a web app, rather than the whole WAR.
+ *
+ * The CRC and size of every entry of the last deployed WAR are kept in a local manifest, together with a deployment id
+ * which is also written into the deployed app. A delta deployment is only done when the remote deployment id matches
+ * the local one, i.e. the app hasn't been deployed from elsewhere since. Only Windows Tomcat apps are supported, as
+ * they run the WAR exploded under site/wwwroot/webapps, where the entries can be updated one by one.
+ */
+public class WebAppDeltaDeployer {
+
+    private static final String MARKER = "META-INF/azure-toolkit-deployment.properties";
+    private static final String DEPLOYMENT_ID = "deployment.id";
+    private static final String ENTRY_PREFIX = "entry.";
+    private static final String WEBAPPS_FOLDER = "site/wwwroot/webapps/";
+    private static final String ROOT_CONTEXT = "ROOT";
+    // web.xml, classes and libraries are only loaded when the app starts
+    private static final String RELOAD_PREFIX = "WEB-INF/";
+    // a full deployment is cheaper if most of the WAR changed
+    private static final double MAX_CHANGED_RATIO = 0.5;
+
+    private final IWebAppBase<? extends AppServiceBaseEntity> target;
+    private final File war;
+    private final String context;
+    private final File manifestFile;
+    private KuduClient kudu;
+
+    public WebAppDeltaDeployer(IWebAppBase<? extends AppServiceBaseEntity> target, File war, boolean isDeployToRoot,
+            File manifestFolder) {
+        this.target = target;
+        this.war = war;
+        this.context = isDeployToRoot ? ROOT_CONTEXT : getContext(war);
+        this.manifestFile = new File(manifestFolder,
+                String.format("%s-%s.properties", target.id().replaceAll("[^A-Za-z0-9._-]", "_"), context));
+    }
+
+    public static boolean isSupported(IWebAppBase<? extends AppServiceBaseEntity> target) {
+        final Runtime runtime = target.getRuntime();
+        return runtime != null && runtime.getOperatingSystem() == OperatingSystem.WINDOWS
+                && runtime.getWebContainer() != null
+                && runtime.getWebContainer().getValue().toLowerCase().startsWith("tomcat");
+    }
+
+    /**
+     * Deploy the changed entries of the WAR since the last deployment.
+     *
+     * @return true if the app is up to date, false if a full deployment is required
+     */
+    public boolean deploy(IProgressIndicator progressIndicator) {
+        if (!isSupported(target) || !manifestFile.isFile()) {
+            return false;
+        }
+        try {
+            final Properties last = load(manifestFile);
+            final String lastId = last.getProperty(DEPLOYMENT_ID);
+            progressIndicator.setText("Checking the last deployment...");
+            final byte[] remoteMarker = getKudu().getFile(getFolder() + MARKER);
+            if (lastId == null || remoteMarker == null
+                    || !Objects.equals(lastId, load(remoteMarker).getProperty(DEPLOYMENT_ID))) {
+                return false;
+            }
+
+            final Map<String, String> entries = readEntries(war);
+            final List<String> changed = new ArrayList<>();
+            final List<String> removed = new ArrayList<>();
+            entries.forEach((name, signature) -> {
+                if (!signature.equals(last.getProperty(ENTRY_PREFIX + name))) {
+                    changed.add(name);
+                }
+            });
+            last.stringPropertyNames().stream().filter(key -> key.startsWith(ENTRY_PREFIX))
+                    .map(key -> key.substring(ENTRY_PREFIX.length())).filter(name -> !entries.containsKey(name))
+                    .forEach(removed::add);
+            if (changed.size() + removed.size() > entries.size() * MAX_CHANGED_RATIO) {
+                return false;
+            }
+            if (changed.isEmpty() && removed.isEmpty()) {
+                progressIndicator.setText("No changes to deploy.");
+                return true;
+            }
+
+            final String deploymentId = UUID.randomUUID().toString();
+            progressIndicator.setText(String.format("Uploading %d changed files...", changed.size()));
+            final Path delta = Files.createTempFile("delta", ".zip");
+            try {
+                writeDelta(war, changed, deploymentId, delta.toFile());
+                getKudu().putZip(getFolder(), delta.toFile());
+            } finally {
+                Files.deleteIfExists(delta);
+            }
+            if (!removed.isEmpty()) {
+                progressIndicator.setText(String.format("Deleting %d removed files...", removed.size()));
+                for (final String name : removed) {
+                    getKudu().deleteFile(getFolder() + name);
+                }
+            }
+            save(deploymentId, entries);
+
+            if (changed.stream().anyMatch(name -> name.startsWith(RELOAD_PREFIX))
+                    || removed.stream().anyMatch(name -> name.startsWith(RELOAD_PREFIX))) {
+                progressIndicator.setText("Restarting web app...");
+                target.restart();
+            }
+            return true;
+        } catch (Exception e) {
+            // the remote app may be partially updated, which the next full deployment will overwrite
+            Activator.getDefault().log("Delta deployment failed, fall back to full deployment", e);
+            manifestFile.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Record the WAR which is just fully deployed, so that the next deployment can be a delta one.
+     */
+    public void recordDeployment() {
+        manifestFile.delete();
+        if (!isSupported(target)) {
+            return;
+        }
+        try {
+            // make sure the WAR is exploded where the delta deployment will update it
+            if (getKudu().getFile(getFolder() + RELOAD_PREFIX) == null) {
+                return;
+            }
+            final String deploymentId = UUID.randomUUID().toString();
+            final Path marker = Files.createTempFile("marker", ".zip");
+            try {
+                writeDelta(war, new ArrayList<>(), deploymentId, marker.toFile());
+                getKudu().putZip(getFolder(), marker.toFile());
+            } finally {
+                Files.deleteIfExists(marker);
+            }
+            save(deploymentId, readEntries(war));
+        } catch (Exception e) {
+            Activator.getDefault().log("Failed to record the deployment, the next deployment will be a full one", e);
+            manifestFile.delete();
+        }
+    }
+
+    private String getFolder() {
+        return WEBAPPS_FOLDER + context + "/";
+    }
+
+    private KuduClient getKudu() {
+        if (kudu == null) {
+            final PublishingProfile profile = target.getPublishingProfile();
+            kudu = new KuduClient(KuduClient.getScmUrl(target.hostName()), profile.getGitUsername(),
+                    profile.getGitPassword());
+        }
+        return kudu;
+    }
+
+    private static String getContext(File war) {
+        final String name = war.getName();
+        final int index = name.lastIndexOf('.');
+        return (index > 0 ? name.substring(0, index) : name).replaceAll("#", "");
+    }
+
+    // the CRC and size of every file entry, both are recorded in the central directory so no entry is inflated
+    private static Map<String, String> readEntries(File war) throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(war)) {
+            final Enumeration<? extends ZipEntry> enumeration = zip.entries();
+            while (enumeration.hasMoreElements()) {
+                final ZipEntry entry = enumeration.nextElement();
+                if (!entry.isDirectory() && !MARKER.equals(entry.getName())) {
+                    entries.put(entry.getName(), Long.toHexString(entry.getCrc()) + ":" + entry.getSize());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void writeDelta(File war, List<String> changed, String deploymentId, File delta)
+            throws IOException {
+        try (ZipFile zip = new ZipFile(war);
+                ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(delta.toPath()))) {
+            for (final String name : changed) {
+                out.putNextEntry(new ZipEntry(name));
+                try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+                    copy(in, out);
+                }
+                out.closeEntry();
+            }
+            final Properties marker = new Properties();
+            marker.setProperty(DEPLOYMENT_ID, deploymentId);
+            out.putNextEntry(new ZipEntry(MARKER));
+            marker.store(out, null);
+            out.closeEntry();
+        }
+    }
+
+    private void save(String deploymentId, Map<String, String> entries) throws IOException {
+        final Properties manifest = new Properties();
+        manifest.setProperty(DEPLOYMENT_ID, deploymentId);
+        entries.forEach((name, signature) -> manifest.setProperty(ENTRY_PREFIX + name, signature));
+        Files.createDirectories(manifestFile.getParentFile().toPath());
+        final Path temp = manifestFile.toPath().resolveSibling(manifestFile.getName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            manifest.store(out, war.getName());
+        }
+        Files.move(temp, manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Properties load(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            final Properties properties = new Properties();
+            properties.load(in);
+            return properties;
+        }
+    }
+
+    private static Properties load(byte[] content) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(content));
+        return properties;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -278,8 +278,9 @@ public class PushImageDialog extends AzureTitleAreaDialogWrapper {
             ConsoleLogger.info(String.format("Building image ...  [%s]", acrInfo.getImageTagWithServerUrl()));
             DockerClient docker = DefaultDockerClient.fromEnv().build();
             DockerUtil.ping(docker);
-            DockerUtil.buildImage(docker, acrInfo.getImageTagWithServerUrl(), targetDockerfile.getParent(),
-                    targetDockerfile.getFileName().toString(), new DockerProgressHandler());
+            DockerUtil.buildImage(docker, acrInfo.getImageTagWithServerUrl(), targetDockerfile,
+                    targetFilePath == null ? null : Paths.get(targetFilePath), model.isLayeredImage(),
+                    new DockerProgressHandler());
 
             // push to ACR
             ConsoleLogger.info(String.format("Pushing to ACR ... [%s] ", acrInfo.getServerUrl()));
@@ -19,8 +19,10 @@ import java.util.Optional;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.azurecommons.util.Utils;
 import com.microsoft.azuretools.container.Constant;
+import com.microsoft.azuretools.core.mvp.model.container.DockerBuildContext;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerCertificates;
@@ -33,6 +35,7 @@ import com.spotify.docker.client.messages.ContainerConfig;
 import com.spotify.docker.client.messages.ContainerCreation;
 import com.spotify.docker.client.messages.HostConfig;
 import com.spotify.docker.client.messages.PortBinding;
+import com.spotify.docker.client.messages.ProgressMessage;
 import com.spotify.docker.client.messages.RegistryAuth;
 
 public class DockerUtil {
@@ -81,6 +84,27 @@ public class DockerUtil {
         return imageId == null ? null : imageNameWithTag;
     }
 
+    /**
+     * buildImage with a minimal build context, which only contains the Dockerfile and the files it copies.
+     * In the layered mode, a Spring Boot jar or war artifact is split into dependency and application layers.
+     */
+    public static String buildImage(@NotNull DockerClient docker, @NotNull String imageNameWithTag,
+            @NotNull Path dockerFile, @Nullable Path artifact, boolean layered, ProgressHandler progressHandler)
+                    throws DockerException, InterruptedException, IOException {
+        final long prepareStart = System.currentTimeMillis();
+        try (DockerBuildContext context = DockerBuildContext.prepare(dockerFile, artifact, layered)) {
+            reportProgress(progressHandler, String.format("%s, prepared in %d ms", context.describe(),
+                    System.currentTimeMillis() - prepareStart));
+
+            final long buildStart = System.currentTimeMillis();
+            String imageId = docker.build(context.getDirectory(), imageNameWithTag, context.getDockerfileName(),
+                    progressHandler);
+            reportProgress(progressHandler, String.format("Image built in %d ms",
+                    System.currentTimeMillis() - buildStart));
+            return imageId == null ? null : imageNameWithTag;
+        }
+    }
+
     /**
      * Push image to a private registry.
      */
@@ -90,7 +114,9 @@ public class DockerUtil {
         final RegistryAuth registryAuth = RegistryAuth.builder().username(registryUsername).password(registryPassword)
                 .build();
         if (targetImageName.startsWith(registryUrl)) {
+            final long pushStart = System.currentTimeMillis();
             dockerClient.push(targetImageName, handler, registryAuth);
+            reportProgress(handler, String.format("Image pushed in %d ms", System.currentTimeMillis() - pushStart));
         } else {
             throw new DockerException("serverUrl and imageName mismatch.");
         }
@@ -174,6 +200,12 @@ public class DockerUtil {
         return "";
     }
 
+    private static void reportProgress(ProgressHandler handler, String message) throws DockerException {
+        if (handler != null) {
+            handler.progress(ProgressMessage.builder().stream(message).build());
+        }
+    }
+
     public static void ping(DockerClient docker) throws AzureExecutionException {
         try {
             docker.ping();
@@ -10,6 +10,7 @@ import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.ui.Messages;
 import com.microsoft.azure.toolkit.ide.appservice.AppServiceActionsContributor;
 import com.microsoft.azure.toolkit.ide.appservice.file.AppServiceFileActionsContributor;
+import com.microsoft.azure.toolkit.ide.appservice.file.AppServiceFileNode;
 import com.microsoft.azure.toolkit.ide.appservice.function.FunctionAppActionsContributor;
 import com.microsoft.azure.toolkit.ide.common.IActionsContributor;
 import com.microsoft.azure.toolkit.ide.common.action.ResourceCommonActionsContributor;
@@ -37,6 +38,7 @@ import com.microsoft.azure.toolkit.lib.common.action.ActionView;
 import com.microsoft.azure.toolkit.lib.common.action.AzureActionManager;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.entity.IAzureBaseResource;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.RequiredArgsConstructor;
@@ -69,6 +71,15 @@ public class AppServiceIntelliJActionsContributor implements IActionsContributor
                         .orElse(null))
                 .enabled(s -> s instanceof AppServiceFile);
         am.registerAction(AppServiceFileActionsContributor.APP_SERVICE_FILE_DOWNLOAD, new Action<>(downloadFileHandler, downloadFileView));
+
+        final BiConsumer<AppServiceFile, AnActionEvent> syncLogsHandler = (file, e) -> AzureTaskManager
+                .getInstance().runLater(() -> new AppServiceFileAction().syncAppServiceLogs(file, e.getProject()));
+        final ActionView.Builder syncLogsView = new ActionView.Builder("Sync Logs to Local Folder", null)
+                .title(s -> Optional.ofNullable(s)
+                        .map(r -> AzureOperationBundle.title("appservice.sync_logs.dir", ((AppServiceFile) r).getName()))
+                        .orElse(null))
+                .enabled(s -> s instanceof AppServiceFile && isLogFiles(((AppServiceFile) s).getPath()));
+        am.registerAction(AppServiceFileActionsContributor.APP_SERVICE_LOGS_SYNC, new Action<>(syncLogsHandler, syncLogsView));
     }
 
     @Override
@@ -147,6 +158,11 @@ public class AppServiceIntelliJActionsContributor implements IActionsContributor
         return INITIALIZE_ORDER;
     }
 
+    private static boolean isLogFiles(String path) {
+        return StringUtils.equalsIgnoreCase(path, AppServiceFileNode.LOG_FILES) ||
+                StringUtils.startsWithIgnoreCase(path, AppServiceFileNode.LOG_FILES + "/");
+    }
+
     @RequiredArgsConstructor
     static class TriggerRequest {
         private final String input;
@@ -10,6 +10,8 @@ import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
 import com.intellij.openapi.fileChooser.FileChooserFactory;
 import com.intellij.openapi.fileChooser.FileSaverDescriptor;
 import com.intellij.openapi.fileChooser.FileSaverDialog;
@@ -25,12 +27,14 @@ import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileWrapper;
 import com.intellij.testFramework.LightVirtualFile;
 import com.intellij.util.Consumer;
 import com.intellij.util.messages.MessageBusConnection;
 import com.intellij.util.ui.UIUtil;
+import com.microsoft.azure.toolkit.ide.appservice.file.AppServiceLogSynchronizer;
 import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.common.action.Action;
@@ -42,6 +46,7 @@ import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.SneakyThrows;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -68,6 +73,7 @@ public class AppServiceFileAction {
     private static final Key<String> APP_SERVICE_FILE_ID = new Key<>("APP_SERVICE_FILE_ID");
     private static final String ERROR_DOWNLOADING = "Failed to download file[%s] to [%s].";
     private static final String SUCCESS_DOWNLOADING = "File[%s] is successfully downloaded to [%s].";
+    private static final String SUCCESS_SYNCING = "Logs[%s] are synced to [%s]: %d downloaded, %d appended, %d unchanged, %s transferred.";
     private static final String NOTIFICATION_GROUP_ID = "Azure Plugin";
     private static final String FILE_HAS_BEEN_SAVED = "File %s has been saved to Azure";
 
@@ -210,6 +216,23 @@ public class AppServiceFileAction {
         AzureTaskManager.getInstance().runInModal(task);
     }
 
+    public void syncAppServiceLogs(@NotNull AppServiceFile directory, @Nullable Project project) {
+        final VirtualFile folder = FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFolderDescriptor(), project, null);
+        if (Objects.isNull(folder)) {
+            return;
+        }
+        final File dest = VfsUtilCore.virtualToIoFile(folder);
+        final AzureString title = AzureOperationBundle.title("appservice.sync_logs.dir", directory.getName());
+        AzureTaskManager.getInstance().runInBackground(new AzureTask<>(project, title, false, () -> {
+            ProgressManager.getInstance().getProgressIndicator().setIndeterminate(true);
+            final AppServiceLogSynchronizer.Result result = new AppServiceLogSynchronizer(directory.getApp()).sync(directory, dest.toPath());
+            final String message = String.format(SUCCESS_SYNCING, directory.getName(), dest.getAbsolutePath(),
+                    result.getDownloaded(), result.getAppended(), result.getSkipped(), FileUtils.byteCountToDisplaySize(result.getBytes()));
+            AzureMessager.getMessager().info(message, "Logs synced");
+            folder.refresh(true, true);
+        }));
+    }
+
     private synchronized VirtualFile getOrCreateVirtualFile(final AppServiceFile file, FileEditorManager manager) {
         synchronized (file) {
             return Arrays.stream(manager.getOpenFiles())
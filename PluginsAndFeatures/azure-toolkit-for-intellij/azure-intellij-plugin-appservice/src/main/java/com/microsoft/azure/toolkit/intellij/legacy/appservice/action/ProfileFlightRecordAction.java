@@ -10,10 +10,12 @@ import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.util.PlatformUtils;
+import com.microsoft.azure.toolkit.intellij.legacy.appservice.jfr.FlightRecordingToolWindowManager;
 import com.microsoft.azure.toolkit.intellij.legacy.appservice.jfr.RunFlightRecorderDialog;
 import com.microsoft.azure.toolkit.lib.appservice.model.OperatingSystem;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
@@ -21,6 +23,7 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecorderConfiguration;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecorderManager;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecorderStarterBase;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.jfr.FlightRecordingAnalysis;
 import com.microsoft.azuretools.telemetry.TelemetryConstants;
 import com.microsoft.azuretools.telemetrywrapper.EventUtil;
 import org.apache.commons.io.FileUtils;
@@ -129,15 +132,20 @@ public class ProfileFlightRecordAction {
             progressIndicator.checkCanceled();
             progressIndicator.setText(message("webapp.flightRecord.hint.profileCompletedOnAzure"));
             progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfr"));
-            final byte[] content = starter.downloadJFRFile(file.getName());
-            if (content != null) {
-                FileUtils.writeByteArrayToFile(file, content);
-                progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfrDone"));
-                AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
-            } else {
-                notifyUserWithErrorMessage(message("webapp.flightRecord.error.jfrDownload.title"), message("webapp.flightRecord.error.jfrDownload.message"));
-            }
-
+            progressIndicator.setIndeterminate(false);
+            starter.downloadJFRFile(file.getName(), file, (downloaded, total) -> {
+                if (total > 0) {
+                    progressIndicator.setFraction((double) downloaded / total);
+                }
+                progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfrProgress",
+                        FileUtils.byteCountToDisplaySize(downloaded), total > 0 ? FileUtils.byteCountToDisplaySize(total) : "?"));
+            });
+            progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfrDone"));
+            AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
+            analyzeFlightRecording(progressIndicator, file);
+        } catch (final AzureToolkitRuntimeException e) {
+            notifyUserWithErrorMessage(message("webapp.flightRecord.error.jfrDownload.title"),
+                    message("webapp.flightRecord.error.jfrDownload.message") + " " + e.getMessage());
         } catch (final IOException e) {
             notifyUserWithErrorMessage(message("webapp.flightRecord.error.profileFlightRecorderFailed.title"),
                     message("webapp.flightRecord.error.profileFlightRecorderFailed.message") + e.getMessage());
@@ -146,6 +154,22 @@ public class ProfileFlightRecordAction {
         }
     }
 
+    private void analyzeFlightRecording(ProgressIndicator progressIndicator, File file) {
+        if (Objects.isNull(project)) {
+            return;
+        }
+        progressIndicator.setIndeterminate(true);
+        progressIndicator.setText(message("webapp.flightRecord.hint.analyzingJfr"));
+        try {
+            final FlightRecordingAnalysis analysis = FlightRecordingAnalysis.analyze(file.toPath());
+            FlightRecordingToolWindowManager.getInstance().showAnalysis(project, file.getName(),
+                    message("webapp.flightRecord.hint.analysisHeader", appService.name(), file.getAbsolutePath()), analysis.toReport());
+        } catch (final IOException | RuntimeException e) {
+            // the recording is still available to external viewers
+            logger.warning(message("webapp.flightRecord.error.jfrAnalysis.message", file.getAbsolutePath(), e.getMessage()));
+        }
+    }
+
     private void notifyUserWithErrorMessage(String title, String errorMessage) {
         AzureMessager.getMessager().error(errorMessage, title);
     }
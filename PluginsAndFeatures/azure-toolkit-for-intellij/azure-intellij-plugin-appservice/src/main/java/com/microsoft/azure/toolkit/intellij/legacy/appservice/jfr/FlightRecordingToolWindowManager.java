@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.appservice.jfr;
+
+import com.intellij.execution.filters.TextConsoleBuilderFactory;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+
+import java.util.Objects;
+
+/**
+ * Shows the analysis of flight recordings in the "Azure Flight Recording" tool window, one tab per recording.
+ */
+public class FlightRecordingToolWindowManager {
+
+    private static final String FLIGHT_RECORDING_TOOL_WINDOW = "Azure Flight Recording";
+
+    public static FlightRecordingToolWindowManager getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public void showAnalysis(Project project, String recordingName, String header, String report) {
+        AzureTaskManager.getInstance().runLater(() -> {
+            final ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(FLIGHT_RECORDING_TOOL_WINDOW);
+            if (Objects.isNull(toolWindow)) {
+                return;
+            }
+            toolWindow.show(null);
+            final Content existing = toolWindow.getContentManager().findContent(recordingName);
+            if (existing != null) {
+                toolWindow.getContentManager().removeContent(existing, true);
+            }
+            final ConsoleView consoleView = TextConsoleBuilderFactory.getInstance().createBuilder(project).getConsole();
+            consoleView.print(header + System.lineSeparator() + System.lineSeparator(), ConsoleViewContentType.SYSTEM_OUTPUT);
+            consoleView.print(report, ConsoleViewContentType.NORMAL_OUTPUT);
+            final Content content = ContentFactory.SERVICE.getInstance().createContent(consoleView.getComponent(), recordingName, false);
+            content.setDisposer(consoleView);
+            toolWindow.getContentManager().addContent(content);
+            toolWindow.getContentManager().setSelectedContent(content);
+        });
+    }
+
+    private static final class SingletonHolder {
+        private static final FlightRecordingToolWindowManager INSTANCE = new FlightRecordingToolWindowManager();
+
+        private SingletonHolder() {
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.core;
+
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.toolkit.ide.appservice.util.JsonUtils;
+import com.microsoft.azure.toolkit.lib.common.logging.Log;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * The manifest of a persistent function staging folder, which records the source path, size, modification time and
+ * hash of every file copied into the folder, and the functions whose function.json files were generated.
+ *
+ * The manifest is saved next to the staging folder rather than inside it, so it's never deployed with the app.
+ */
+public class FunctionStagingManifest {
+    private static final int VERSION = 1;
+    private static final String MANIFEST_SUFFIX = ".manifest.json";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private int version = VERSION;
+    private Map<String, FileRecord> files = new HashMap<>();
+    @Getter
+    @Setter
+    private List<String> functions = new ArrayList<>();
+    @Getter
+    @Setter
+    private String functionsFingerprint;
+    private transient Path manifestFile;
+
+    @Nonnull
+    public static FunctionStagingManifest load(@Nonnull Path stagingFolder) {
+        final Path manifestFile = stagingFolder.resolveSibling(stagingFolder.getFileName() + MANIFEST_SUFFIX);
+        FunctionStagingManifest manifest = null;
+        if (Files.isRegularFile(manifestFile)) {
+            try {
+                manifest = JsonUtils.fromJsonString(new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8),
+                        FunctionStagingManifest.class);
+            } catch (final IOException | JsonParseException e) {
+                Log.info(String.format("Ignore invalid staging manifest %s: %s", manifestFile, e.getMessage()));
+            }
+        }
+        if (manifest == null || manifest.version != VERSION || manifest.files == null || manifest.functions == null) {
+            manifest = new FunctionStagingManifest();
+        }
+        manifest.manifestFile = manifestFile;
+        return manifest;
+    }
+
+    public void save() throws IOException {
+        final Path temp = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        Files.write(temp, JsonUtils.toJsonString(this).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(manifestFile);
+    }
+
+    /**
+     * Sync the source files into the target folder. A source file is skipped if its path, size and
+     * modification time are unchanged, or if only its modification time changed but its content hash is unchanged.
+     * Changed files are copied, or hard linked if allowed and possible. If several sources share a file name, the last
+     * one wins.
+     *
+     * @param folder      the target folder relative to the staging folder, like "lib", or "" for the staging folder itself
+     * @param deleteStale whether to delete the files of the target folder which are not in the sources
+     * @param hardLink    whether to hard link the sources, only for sources which are never rewritten in place, like
+     *                    the jars of a local maven repository
+     */
+    @Nonnull
+    public SyncResult syncFiles(@Nonnull Path stagingFolder, @Nonnull String folder, @Nonnull Collection<File> sources,
+                                boolean deleteStale, boolean hardLink) throws IOException {
+        final Path targetFolder = StringUtils.isEmpty(folder) ? stagingFolder : stagingFolder.resolve(folder);
+        Files.createDirectories(targetFolder);
+        final Map<String, File> sourcesByName = new LinkedHashMap<>();
+        sources.forEach(source -> sourcesByName.put(source.getName(), source));
+
+        final SyncResult result = new SyncResult();
+        if (deleteStale) {
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(targetFolder, Files::isRegularFile)) {
+                for (final Path existing : stream) {
+                    if (!sourcesByName.containsKey(existing.getFileName().toString())) {
+                        Files.delete(existing);
+                        files.remove(getKey(folder, existing.getFileName().toString()));
+                        result.deleted++;
+                    }
+                }
+            }
+        }
+
+        for (final Map.Entry<String, File> entry : sourcesByName.entrySet()) {
+            final String key = getKey(folder, entry.getKey());
+            final Path source = entry.getValue().toPath().toAbsolutePath();
+            final Path target = targetFolder.resolve(entry.getKey());
+            final BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            final long size = attributes.size();
+            final long mtime = attributes.lastModifiedTime().toMillis();
+            final FileRecord record = files.get(key);
+            final boolean targetValid = Files.isRegularFile(target) && Files.size(target) == size;
+            if (targetValid && record != null && record.matches(source.toString(), size, mtime)) {
+                result.unchanged++;
+                continue;
+            }
+
+            final String hash = hash(source);
+            if (!(targetValid && record != null && StringUtils.equals(record.hash, hash))) {
+                if (place(source, target, hardLink)) {
+                    result.linked++;
+                } else {
+                    result.copied++;
+                }
+            } else {
+                result.unchanged++;
+            }
+            files.put(key, new FileRecord(source.toString(), size, mtime, hash));
+        }
+        return result;
+    }
+
+    @Nonnull
+    private static String getKey(@Nonnull String folder, @Nonnull String fileName) {
+        return StringUtils.isEmpty(folder) ? fileName : folder + "/" + fileName;
+    }
+
+    /**
+     * @return true if the target is hard linked to the source, false if copied
+     */
+    private static boolean place(@Nonnull Path source, @Nonnull Path target, boolean hardLink) throws IOException {
+        // never write through an existing link, it may share the content with a source file
+        Files.deleteIfExists(target);
+        if (hardLink) {
+            try {
+                Files.createLink(target, source);
+                return true;
+            } catch (final IOException | UnsupportedOperationException | SecurityException e) {
+                // e.g. the source is on another file system, fall back to copy
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        return false;
+    }
+
+    // CRC32C is hardware accelerated and only guards against false changes of same sized files, so it's preferred over
+    // a cryptographic hash which would dominate the time of the first staging
+    @Nonnull
+    private static String hash(@Nonnull Path file) throws IOException {
+        final CRC32C crc = new CRC32C();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static class FileRecord {
+        private String source;
+        private long size;
+        private long mtime;
+        private String hash;
+
+        FileRecord(String source, long size, long mtime, String hash) {
+            this.source = source;
+            this.size = size;
+            this.mtime = mtime;
+            this.hash = hash;
+        }
+
+        boolean matches(@Nullable String source, long size, long mtime) {
+            return Objects.equals(this.source, source) && this.size == size && this.mtime == mtime;
+        }
+    }
+
+    @Getter
+    public static class SyncResult {
+        private int unchanged;
+        private int copied;
+        private int linked;
+        private int deleted;
+
+        @Override
+        public String toString() {
+            return String.format("%d unchanged, %d copied, %d linked, %d deleted", unchanged, copied, linked, deleted);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.intellij.codeInsight.AnnotationUtil;
 import com.intellij.codeInsight.MetaAnnotationUtil;
 import com.intellij.lang.jvm.JvmAnnotation;
 import com.intellij.lang.jvm.JvmParameter;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
@@ -18,13 +19,16 @@ import com.intellij.openapi.roots.CompilerModuleExtension;
 import com.intellij.openapi.roots.OrderEnumerator;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.libraries.Library;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaCodeReferenceElement;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifierListOwner;
+import com.intellij.psi.PsiParameter;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.AnnotatedElementsSearch;
 import com.intellij.util.containers.ContainerUtil;
@@ -42,12 +46,14 @@ import com.microsoft.azure.toolkit.lib.legacy.function.bindings.Binding;
 import com.microsoft.azure.toolkit.lib.legacy.function.bindings.BindingEnum;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 import com.microsoft.intellij.secure.IntelliJSecureStore;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.idea.maven.project.MavenProject;
 import org.jetbrains.idea.maven.project.MavenProjectsManager;
 
@@ -55,15 +61,22 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
@@ -84,6 +97,11 @@ public class FunctionUtils {
     private static final Map<BindingEnum, List<String>> REQUIRED_ATTRIBUTE_MAP = new HashMap<>();
     private static final List<String> CUSTOM_BINDING_RESERVED_PROPERTIES = Arrays.asList("type", "name", "direction");
     private static final String AZURE_FUNCTIONS_APP_SETTINGS = "Azure Functions App Settings";
+    private static final String LIB_FOLDER = "lib";
+    // persistent staging folders being used by a run or deployment
+    private static final Set<Path> STAGING_FOLDERS_IN_USE = ConcurrentHashMap.newKeySet();
+    // the fingerprint of the annotated classes and the configurations generated from them, by staging folder
+    private static final Map<Path, Pair<String, Map<String, FunctionConfiguration>>> CONFIGURATIONS_CACHE = new ConcurrentHashMap<>();
 
     static {
         //initialize required attributes, which will be saved to function.json even if it equals to its default value
@@ -118,6 +136,44 @@ public class FunctionUtils {
         }
     }
 
+    /**
+     * Get the persistent staging folder of the module, which is updated incrementally by
+     * {@link #prepareStagingFolder(Path, Path, Project, Module, PsiMethod[])} instead of being rebuilt every time. A temp
+     * staging folder is returned if the persistent one is being used by another run or deployment.
+     *
+     * @param purpose separates the staging folders of local run and deployment, like "run" or "deploy"
+     */
+    public static File acquireStagingFolder(@Nullable Module module, String purpose) {
+        if (module == null) {
+            return getTempStagingFolder();
+        }
+        final Path folder = getPersistentStagingRoot().resolve(Paths.get(module.getProject().getLocationHash(),
+                FileUtil.sanitizeFileName(module.getName()), purpose));
+        if (!STAGING_FOLDERS_IN_USE.add(folder)) {
+            return getTempStagingFolder();
+        }
+        return folder.toFile();
+    }
+
+    /**
+     * Release a staging folder got from {@link #acquireStagingFolder(Module, String)}, the folder is kept if it's
+     * persistent, and deleted otherwise.
+     */
+    public static void releaseStagingFolder(@Nullable File stagingFolder) {
+        if (stagingFolder == null) {
+            return;
+        }
+        final Path folder = stagingFolder.toPath();
+        STAGING_FOLDERS_IN_USE.remove(folder);
+        if (!folder.startsWith(getPersistentStagingRoot())) {
+            cleanUpStagingFolder(stagingFolder);
+        }
+    }
+
+    private static Path getPersistentStagingRoot() {
+        return Paths.get(PathManager.getSystemPath(), AZURE_FUNCTIONS);
+    }
+
     @AzureOperation(
         name = "function.clean_staging_folder.folder",
         params = {"stagingFolder.getName()"},
@@ -232,10 +288,9 @@ public class FunctionUtils {
     )
     public static Map<String, FunctionConfiguration> prepareStagingFolder(Path stagingFolder, Path hostJson, Project project, Module module, PsiMethod[] methods)
             throws AzureExecutionException, IOException {
-        final Map<String, FunctionConfiguration> configMap = generateConfigurations(methods);
-        if (stagingFolder.toFile().isDirectory()) {
-            FileUtils.cleanDirectory(stagingFolder.toFile());
-        }
+        // files which are unchanged since the last staging are kept, see FunctionStagingManifest
+        final FunctionStagingManifest manifest = FunctionStagingManifest.load(stagingFolder);
+        Files.createDirectories(stagingFolder);
 
         final Path jarFile;
         // test if it is gradle project
@@ -247,20 +302,15 @@ public class FunctionUtils {
                 final String error = String.format("Failed generate jar file for project(%s)", gradleProject.getName());
                 throw new AzureToolkitRuntimeException(error);
             }
-            FileUtils.copyFileToDirectory(gradleProject.getArtifactFile(), stagingFolder.toFile());
+            // the artifact is rewritten in place by gradle, so it's copied rather than linked
+            manifest.syncFiles(stagingFolder, StringUtils.EMPTY, Collections.singletonList(gradleProject.getArtifactFile()), false, false);
         } else {
             jarFile = JarUtils.buildJarFileToStagingPath(stagingFolder.toString(), module);
         }
+        deleteStaleJars(stagingFolder, jarFile.getFileName().toString());
 
         final String scriptFilePath = "../" + jarFile.getFileName().toString();
-        configMap.values().forEach(config -> config.setScriptFile(scriptFilePath));
-        for (final Map.Entry<String, FunctionConfiguration> config : configMap.entrySet()) {
-            if (StringUtils.isNotBlank(config.getKey())) {
-                final File functionJsonFile = Paths.get(stagingFolder.toString(), config.getKey(), FUNCTION_JSON)
-                                                   .toFile();
-                writeFunctionJsonFile(functionJsonFile, config.getValue());
-            }
-        }
+        final Map<String, FunctionConfiguration> configMap = prepareFunctionConfigurations(stagingFolder, manifest, methods, scriptFilePath);
 
         final File hostJsonFile = new File(stagingFolder.toFile(), "host.json");
         copyFilesWithDefaultContent(hostJson, hostJsonFile, DEFAULT_HOST_JSON);
@@ -290,10 +340,9 @@ public class FunctionUtils {
             });
         }
 
-        final File libFolder = new File(stagingFolder.toFile(), "lib");
-        for (final File file : jarFiles) {
-            FileUtils.copyFileToDirectory(file, libFolder);
-        }
+        final FunctionStagingManifest.SyncResult result = manifest.syncFiles(stagingFolder, LIB_FOLDER, jarFiles, true, true);
+        Log.info(String.format("Staged dependencies of module %s to %s: %s", module.getName(), stagingFolder, result));
+        manifest.save();
         return configMap;
     }
 
@@ -352,6 +401,112 @@ public class FunctionUtils {
         JsonUtils.writeJsonToFile(file, json);
     }
 
+    /**
+     * Generate the function.json files, unless the classes declaring the functions are unchanged since the files were
+     * generated in the staging folder.
+     */
+    private static Map<String, FunctionConfiguration> prepareFunctionConfigurations(Path stagingFolder, FunctionStagingManifest manifest,
+                                                                                    PsiMethod[] methods, String scriptFilePath)
+            throws AzureExecutionException, IOException {
+        final String fingerprint = getFunctionsFingerprint(methods, scriptFilePath);
+        final Pair<String, Map<String, FunctionConfiguration>> cached = CONFIGURATIONS_CACHE.get(stagingFolder);
+        if (cached != null && StringUtils.equals(cached.getKey(), fingerprint) && StringUtils.equals(manifest.getFunctionsFingerprint(), fingerprint) &&
+                manifest.getFunctions().stream().allMatch(name -> Files.isRegularFile(Paths.get(stagingFolder.toString(), name, FUNCTION_JSON)))) {
+            return cached.getValue();
+        }
+
+        final Map<String, FunctionConfiguration> configMap = generateConfigurations(methods);
+        configMap.values().forEach(config -> config.setScriptFile(scriptFilePath));
+        for (final String staleFunction : manifest.getFunctions()) {
+            if (StringUtils.isNotBlank(staleFunction) && !configMap.containsKey(staleFunction)) {
+                FileUtils.deleteDirectory(stagingFolder.resolve(staleFunction).toFile());
+            }
+        }
+        final List<String> functions = new ArrayList<>();
+        for (final Map.Entry<String, FunctionConfiguration> config : configMap.entrySet()) {
+            if (StringUtils.isNotBlank(config.getKey())) {
+                final File functionJsonFile = Paths.get(stagingFolder.toString(), config.getKey(), FUNCTION_JSON)
+                                                   .toFile();
+                writeFunctionJsonFile(functionJsonFile, config.getValue());
+                functions.add(config.getKey());
+            }
+        }
+        manifest.setFunctions(functions);
+        manifest.setFunctionsFingerprint(fingerprint);
+        if (STAGING_FOLDERS_IN_USE.contains(stagingFolder)) {
+            CONFIGURATIONS_CACHE.put(stagingFolder, Pair.of(fingerprint, configMap));
+        }
+        return configMap;
+    }
+
+    // hash of the files declaring the functions and the resolved values of their annotations, the values may refer to
+    // constants declared in other files or libraries
+    private static String getFunctionsFingerprint(PsiMethod[] methods, String scriptFilePath) throws AzureExecutionException {
+        final Map<String, String> texts = new TreeMap<>();
+        final Map<String, String> annotations = new TreeMap<>();
+        for (final PsiMethod method : methods) {
+            final PsiFile file = method.getContainingFile();
+            if (file != null) {
+                final VirtualFile virtualFile = file.getVirtualFile();
+                texts.putIfAbsent(virtualFile == null ? file.getName() : virtualFile.getPath(), file.getText());
+            }
+            final StringBuilder values = new StringBuilder();
+            appendAnnotationValues(method.getProject(), method.getAnnotations(), values);
+            for (final PsiParameter parameter : method.getParameterList().getParameters()) {
+                values.append('\0').append(parameter.getName());
+                appendAnnotationValues(method.getProject(), parameter.getAnnotations(), values);
+            }
+            final PsiClass containingClass = method.getContainingClass();
+            annotations.put((containingClass == null ? "" : containingClass.getQualifiedName()) + "." + method.getName() +
+                                    method.getParameterList().getParametersCount(), values.toString());
+        }
+        final StringBuilder content = new StringBuilder(scriptFilePath);
+        texts.forEach((path, text) -> content.append('\0').append(path).append('\0').append(text));
+        annotations.forEach((name, values) -> content.append('\0').append(name).append('\0').append(values));
+        return DigestUtils.sha256Hex(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendAnnotationValues(Project project, PsiAnnotation[] annotations, StringBuilder values)
+            throws AzureExecutionException {
+        for (final PsiAnnotation annotation : annotations) {
+            values.append('\0').append(annotation.getQualifiedName());
+            appendValue(AnnotationHelper.evaluateAnnotationProperties(project, annotation, null), values);
+        }
+    }
+
+    // the properties are kept in hash maps, so sort them for a stable fingerprint
+    private static void appendValue(Object value, StringBuilder values) {
+        if (value instanceof Map) {
+            values.append('{');
+            new TreeMap<Object, Object>((Map<?, ?>) value).forEach((name, property) -> {
+                values.append(name).append('=');
+                appendValue(property, values);
+                values.append(',');
+            });
+            values.append('}');
+        } else if (value instanceof Object[]) {
+            values.append('[');
+            for (final Object element : (Object[]) value) {
+                appendValue(element, values);
+                values.append(',');
+            }
+            values.append(']');
+        } else {
+            values.append(value);
+        }
+    }
+
+    // remove the jars of the function project built with other names, e.g. before the version changed
+    private static void deleteStaleJars(Path stagingFolder, String jarFileName) throws IOException {
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(stagingFolder, "*.jar")) {
+            for (final Path jar : stream) {
+                if (!Objects.equals(jar.getFileName().toString(), jarFileName)) {
+                    Files.deleteIfExists(jar);
+                }
+            }
+        }
+    }
+
     private static String stripExtraCharacters(String fileName) {
         // TODO-dp this is not robust enough (eliminated !/ at the end of the jar)
         return StringUtils.endsWith(fileName, "!/") ?
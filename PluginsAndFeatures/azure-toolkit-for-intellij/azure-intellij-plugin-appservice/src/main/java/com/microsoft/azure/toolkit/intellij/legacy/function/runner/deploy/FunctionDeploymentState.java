@@ -93,7 +93,7 @@ public class FunctionDeploymentState extends AzureRunProfileState<FunctionApp> {
                     .functionApp(functionDeployConfiguration.getFunctionId());
             updateApplicationSettings(functionApp);
         }
-        stagingFolder = FunctionUtils.getTempStagingFolder();
+        stagingFolder = FunctionUtils.acquireStagingFolder(functionDeployConfiguration.getModule(), "deploy");
         prepareStagingFolder(stagingFolder, processHandler, operation);
         // deploy function to Azure
         FunctionAppService.getInstance().deployFunctionApp(functionApp, stagingFolder);
@@ -171,13 +171,13 @@ public class FunctionDeploymentState extends AzureRunProfileState<FunctionApp> {
     protected void onSuccess(FunctionApp result, @NotNull RunProcessHandler processHandler) {
         processHandler.setText(message("appService.deploy.hint.succeed"));
         processHandler.notifyComplete();
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionUtils.releaseStagingFolder(stagingFolder);
     }
 
     @Override
     protected void onFail(@NotNull Throwable error, @NotNull RunProcessHandler processHandler) {
         super.onFail(error, processHandler);
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionUtils.releaseStagingFolder(stagingFolder);
     }
 
     @Override
@@ -179,6 +179,22 @@ public class WebAppConfiguration extends AzureRunConfigurationBase<IntelliJWebAp
         webAppSettingModel.setDeployToRoot(toRoot);
     }
 
+    public boolean isDeployWithoutDowntime() {
+        return webAppSettingModel.isDeployWithoutDowntime();
+    }
+
+    public void setDeployWithoutDowntime(boolean deployWithoutDowntime) {
+        webAppSettingModel.setDeployWithoutDowntime(deployWithoutDowntime);
+    }
+
+    public String getHealthCheckPath() {
+        return webAppSettingModel.getHealthCheckPath();
+    }
+
+    public void setHealthCheckPath(String healthCheckPath) {
+        webAppSettingModel.setHealthCheckPath(healthCheckPath);
+    }
+
     public boolean isDeployToSlot() {
         return webAppSettingModel.isDeployToSlot();
     }
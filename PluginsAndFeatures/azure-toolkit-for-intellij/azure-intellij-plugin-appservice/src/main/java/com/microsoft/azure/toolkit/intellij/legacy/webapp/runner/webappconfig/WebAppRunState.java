@@ -70,7 +70,12 @@ public class WebAppRunState extends AzureRunProfileState<IAppService> {
         }
         final IWebAppBase deployTarget = getOrCreateDeployTargetFromAppSettingModel(processHandler);
         updateApplicationSettings(deployTarget, processHandler);
-        AzureWebAppMvpModel.getInstance().deployArtifactsToWebApp(deployTarget, artifact, webAppSettingModel.isDeployToRoot(), processHandler);
+        if (webAppSettingModel.isDeployWithoutDowntime()) {
+            AzureWebAppMvpModel.getInstance().deployArtifactsToWebAppWithoutDowntime(deployTarget, artifact, webAppSettingModel.isDeployToRoot(),
+                    webAppSettingModel.getHealthCheckPath(), processHandler);
+        } else {
+            AzureWebAppMvpModel.getInstance().deployArtifactsToWebApp(deployTarget, artifact, webAppSettingModel.isDeployToRoot(), processHandler);
+        }
         return deployTarget;
     }
 
@@ -81,6 +81,10 @@ public class WebAppDeployConfigurationPanel extends JPanel implements AzureFormP
     private JLabel lblArtifact;
     private JLabel lblWebApp;
     private WebAppComboBox comboBoxWebApp;
+    private JPanel pnlWithoutDowntime;
+    private JCheckBox chkWithoutDowntime;
+    private JLabel lblHealthCheckPath;
+    private JTextField txtHealthCheckPath;
     private final HideableDecorator slotDecorator;
 
     private final Project project;
@@ -98,6 +102,7 @@ public class WebAppDeployConfigurationPanel extends JPanel implements AzureFormP
         rbtExistingSlot.addItemListener(e -> toggleSlotType(true));
         rbtNewSlot.addItemListener(e -> toggleSlotType(false));
         chkDeployToSlot.addItemListener(e -> toggleSlotPanel(chkDeployToSlot.isSelected()));
+        chkWithoutDowntime.addItemListener(e -> toggleHealthCheckPath(chkWithoutDowntime.isSelected()));
 
         final Icon informationIcon = AllIcons.General.ContextHelp;
         btnSlotHover.setIcon(informationIcon);
@@ -127,6 +132,7 @@ public class WebAppDeployConfigurationPanel extends JPanel implements AzureFormP
 
         lblArtifact.setLabelFor(comboBoxArtifact);
         lblWebApp.setLabelFor(comboBoxWebApp);
+        lblHealthCheckPath.setLabelFor(txtHealthCheckPath);
 
         final DateFormat df = new SimpleDateFormat("yyMMddHHmmss");
         txtNewSlotName.setText(String.format(DEFAULT_SLOT_NAME, df.format(new Date())));
@@ -166,6 +172,11 @@ public class WebAppDeployConfigurationPanel extends JPanel implements AzureFormP
         cbxSlotConfigurationSource.setEnabled(isDeployToSlot);
     }
 
+    private void toggleHealthCheckPath(boolean withoutDowntime) {
+        lblHealthCheckPath.setEnabled(withoutDowntime);
+        txtHealthCheckPath.setEnabled(withoutDowntime);
+    }
+
     private void toggleSlotType(final boolean isExistingSlot) {
         pnlExistingSlot.setVisible(isExistingSlot);
         pnlExistingSlot.setEnabled(isExistingSlot);
@@ -255,6 +266,9 @@ public class WebAppDeployConfigurationPanel extends JPanel implements AzureFormP
         // configuration
         chkToRoot.setSelected(data.isDeployToRoot());
         chkOpenBrowser.setSelected(data.isOpenBrowserAfterDeployment());
+        chkWithoutDowntime.setSelected(data.isDeployWithoutDowntime());
+        txtHealthCheckPath.setText(data.getHealthCheckPath());
+        toggleHealthCheckPath(data.isDeployWithoutDowntime());
         slotDecorator.setOn(data.isSlotPanelVisible());
     }
 
@@ -277,6 +291,8 @@ public class WebAppDeployConfigurationPanel extends JPanel implements AzureFormP
                 .artifactConfig(artifactConfig)
                 .openBrowserAfterDeployment(chkOpenBrowser.isSelected())
                 .deployToRoot(chkToRoot.isSelected())
+                .deployWithoutDowntime(chkWithoutDowntime.isSelected())
+                .healthCheckPath(StringUtils.trimToNull(txtHealthCheckPath.getText()))
                 .slotPanelVisible(slotDecorator.isExpanded())
                 .build();
     }
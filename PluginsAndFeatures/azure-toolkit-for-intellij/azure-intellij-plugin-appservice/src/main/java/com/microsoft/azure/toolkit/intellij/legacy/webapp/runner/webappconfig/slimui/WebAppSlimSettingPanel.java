@@ -135,6 +135,8 @@ public class WebAppSlimSettingPanel extends AzureSettingPanel<WebAppConfiguratio
                 .webAppConfig(webAppConfig)
                 .artifactConfig(artifactConfig)
                 .deployToRoot(configuration.isDeployToRoot())
+                .deployWithoutDowntime(configuration.isDeployWithoutDowntime())
+                .healthCheckPath(configuration.getHealthCheckPath())
                 .slotPanelVisible(configuration.isSlotPanelVisible())
                 .openBrowserAfterDeployment(configuration.isOpenBrowserAfterDeployment()).build();
         pnlDeployment.setValue(runConfigurationModel);
@@ -191,6 +193,8 @@ public class WebAppSlimSettingPanel extends AzureSettingPanel<WebAppConfiguratio
             }
         });
         configuration.setDeployToRoot(runConfigurationModel.isDeployToRoot());
+        configuration.setDeployWithoutDowntime(runConfigurationModel.isDeployWithoutDowntime());
+        configuration.setHealthCheckPath(runConfigurationModel.getHealthCheckPath());
         configuration.setSlotPanelVisible(runConfigurationModel.isSlotPanelVisible());
         configuration.setOpenBrowserAfterDeployment(runConfigurationModel.isOpenBrowserAfterDeployment());
     }
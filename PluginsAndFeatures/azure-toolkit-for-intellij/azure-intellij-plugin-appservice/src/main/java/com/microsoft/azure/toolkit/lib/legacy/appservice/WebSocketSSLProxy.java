@@ -11,17 +11,41 @@ import lombok.Setter;
 
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.Arrays;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
 
+/**
+ * Local TCP proxy of the App Service tunnel. Every local client is bridged to its own WebSocket, all clients are
+ * served by one selector thread.
+ *
+ * Reading from a client is paused while too many of its frames are queued in the WebSocket, and the WebSocket reading
+ * thread of a client is blocked while too much data is waiting to be written to the client.
+ */
 public class WebSocketSSLProxy {
     private static final Logger logger = Logger.getLogger(WebSocketSSLProxy.class.getName());
     private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MAX_PENDING_FRAMES = 128;
+    private static final long MAX_PENDING_CLIENT_BYTES = 1024 * 1024;
+    private static final long BLOCKING_WAIT_MILLIS = 100;
 
     @Setter
     @Getter
@@ -34,9 +58,11 @@ public class WebSocketSSLProxy {
     private String webSocketServerUri;
     private String id;
     private String password;
-    private ServerSocket serverSocket;
+    private volatile Selector selector;
+    private ServerSocketChannel serverChannel;
     private Thread thread;
-    private WebSocket webSocket;
+    private final Set<Tunnel> tunnels = ConcurrentHashMap.newKeySet();
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
 
     public WebSocketSSLProxy(String webSocketServerUri, String id, String password) {
         this.webSocketServerUri = webSocketServerUri;
@@ -44,85 +70,311 @@ public class WebSocketSSLProxy {
         this.password = password;
     }
 
-    public void start() throws IOException {
+    public synchronized void start() throws IOException {
         close();
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
         // InetAddress.getByName(null) points to the loopback address (127.0.0.1)
-        serverSocket = new ServerSocket(0, 1, InetAddress.getByName(null));
-        thread = new Thread(() -> {
-            try {
-                for (;;) {
-                    Socket clientSocket = serverSocket.accept();
-                    createWebSocketToSocket(clientSocket);
-                    pipeSocketDataToWebSocket(clientSocket);
-                }
-            } catch (IOException | WebSocketException e) {
-                handleConnectionBroken(e);
-            }
+        serverChannel.bind(new InetSocketAddress(InetAddress.getByName(null), 0));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 
-        });
+        final Selector loopSelector = selector;
+        final ServerSocketChannel loopServerChannel = serverChannel;
+        thread = new Thread(() -> runSelectorLoop(loopSelector, loopServerChannel));
         thread.setName("WebsocketSSLProxy-" + thread.getId());
+        thread.setDaemon(true);
         thread.start();
     }
 
-    public void close() {
-        if (this.webSocket != null) {
-            this.webSocket.disconnect();
-            this.webSocket = null;
+    public synchronized void close() {
+        new ArrayList<>(tunnels).forEach(Tunnel::close);
+        if (this.serverChannel != null) {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            serverChannel = null;
         }
-        if (this.serverSocket != null) {
+
+        if (this.selector != null) {
             try {
-                serverSocket.close();
+                selector.close();
             } catch (IOException e) {
                 // ignore
             }
-            serverSocket = null;
+            selector = null;
         }
 
         if (thread != null) {
             this.thread.interrupt();
             this.thread = null;
         }
+        selectorTasks.clear();
     }
 
     public int getLocalPort() {
-        if (Objects.isNull(serverSocket)) {
+        final ServerSocketChannel channel = serverChannel;
+        if (Objects.isNull(channel)) {
             return 0;
         }
-        return serverSocket.getLocalPort();
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * @return the count of local clients being proxied
+     */
+    public int getClientCount() {
+        return tunnels.size();
+    }
+
+    private void runSelectorLoop(Selector loopSelector, ServerSocketChannel loopServerChannel) {
+        // All clients are read by this thread, so one direct buffer is reused for every read
+        final ByteBuffer readBuffer = ByteBuffer.allocateDirect(bufferSize);
+        try {
+            while (!Thread.currentThread().isInterrupted() && loopSelector.isOpen()) {
+                loopSelector.select();
+                runSelectorTasks();
+                final Iterator<SelectionKey> keys = loopSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(loopSelector, loopServerChannel);
+                        continue;
+                    }
+                    final Tunnel tunnel = (Tunnel) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            tunnel.readFromClient(readBuffer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            tunnel.writeToClient();
+                        }
+                    } catch (IOException e) {
+                        handleTunnelBroken(tunnel, e);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            handleConnectionBroken(loopSelector, e);
+        }
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            task.run();
+        }
     }
 
-    private void handleConnectionBroken(Exception e) {
-        if (Objects.nonNull(serverSocket)) {
-            logger.warning(message("common.webSocket.error.proxyingWebSocketFailed", e.getMessage()));
+    private void runOnSelector(Runnable task) {
+        final Selector current = selector;
+        if (current != null) {
+            selectorTasks.add(task);
+            current.wakeup();
         }
+    }
+
+    private void accept(Selector loopSelector, ServerSocketChannel loopServerChannel) throws IOException {
+        final SocketChannel client = loopServerChannel.accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        client.socket().setTcpNoDelay(true);
+        final Tunnel tunnel = new Tunnel(client);
+        tunnel.key = client.register(loopSelector, 0, tunnel);
+        tunnels.add(tunnel);
+        try {
+            tunnel.connect();
+        } catch (IOException e) {
+            handleTunnelBroken(tunnel, e);
+        }
+    }
+
+    private synchronized void handleConnectionBroken(Selector loopSelector, Exception e) {
+        if (loopSelector != selector) {
+            // The proxy has been closed or restarted
+            return;
+        }
+        logger.warning(message("common.webSocket.error.proxyingWebSocketFailed", e.getMessage()));
         close();
     }
 
-    private void pipeSocketDataToWebSocket(Socket socket) throws IOException {
-        byte[] buffer = new byte[bufferSize];
-        while (true) {
-            int bytesRead = socket.getInputStream().read(buffer);
+    private void handleTunnelBroken(Tunnel tunnel, Exception e) {
+        logger.warning(message("common.webSocket.error.proxyingWebSocketFailed", e.getMessage()));
+        tunnel.close();
+    }
+
+    /**
+     * The bridge between a local client and its WebSocket.
+     */
+    private class Tunnel extends WebSocketAdapter {
+        private final SocketChannel client;
+        private SelectionKey key;
+        private volatile WebSocket webSocket;
+        private volatile boolean connected = false;
+        private volatile boolean disconnecting = false;
+        private volatile boolean closed = false;
+        // frames passed to the WebSocket but not sent yet
+        private final AtomicInteger pendingFrames = new AtomicInteger();
+        // data received from the WebSocket but not written to the client yet
+        private final Queue<ByteBuffer> pendingClientData = new ConcurrentLinkedQueue<>();
+        private final AtomicLong pendingClientBytes = new AtomicLong();
+        private final Object clientWriteLock = new Object();
+
+        Tunnel(SocketChannel client) {
+            this.client = client;
+        }
+
+        void connect() throws IOException {
+            this.webSocket = new WebSocketFactory().setConnectionTimeout(connectTimeout).createSocket(webSocketServerUri)
+                                                   .setUserInfo(id, password)
+                                                   .addListener(this)
+                                                   .addExtension(WebSocketExtension.PERMESSAGE_DEFLATE);
+            this.webSocket.connectAsynchronously();
+        }
+
+        // Runs on the selector thread
+        void readFromClient(ByteBuffer buffer) throws IOException {
+            buffer.clear();
+            final int bytesRead = client.read(buffer);
             if (bytesRead == -1) {
-                break;
+                close();
+                return;
+            }
+            if (bytesRead == 0) {
+                return;
             }
 
-            webSocket.sendBinary(Arrays.copyOfRange(buffer, 0, bytesRead));
+            buffer.flip();
+            // The WebSocket keeps the payload until the frame is sent, so it's copied out of the shared buffer
+            final byte[] payload = new byte[bytesRead];
+            buffer.get(payload);
+            pendingFrames.incrementAndGet();
+            webSocket.sendBinary(payload);
+            updateInterest();
+        }
+
+        // Runs on the selector thread
+        void writeToClient() throws IOException {
+            ByteBuffer data;
+            while ((data = pendingClientData.peek()) != null) {
+                final int written = client.write(data);
+                pendingClientBytes.addAndGet(-written);
+                if (data.hasRemaining()) {
+                    break;
+                }
+                pendingClientData.poll();
+            }
+
+            synchronized (clientWriteLock) {
+                clientWriteLock.notifyAll();
+            }
+            if (pendingClientData.isEmpty() && disconnecting) {
+                close();
+                return;
+            }
+            updateInterest();
+        }
+
+        // Runs on the selector thread
+        void updateInterest() {
+            if (closed || !key.isValid()) {
+                return;
+            }
+            int ops = 0;
+            if (connected && !disconnecting && pendingFrames.get() < MAX_PENDING_FRAMES) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!pendingClientData.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
         }
-    }
 
-    private void createWebSocketToSocket(Socket client) throws IOException, WebSocketException {
-        this.webSocket = new WebSocketFactory().setConnectionTimeout(connectTimeout).createSocket(webSocketServerUri)
-                                               .setUserInfo(this.id, this.password)
-                                               .addListener(new WebSocketAdapter() {
-                                                   @Override
-                                                   public void onBinaryMessage(WebSocket websocket, byte[] bytes) {
-                                                       try {
-                                                           client.getOutputStream().write(bytes);
-                                                       } catch (IOException e) {
-                                                           handleConnectionBroken(e);
-                                                       }
-                                                   }
-                                               }).addExtension(WebSocketExtension.PERMESSAGE_DEFLATE).connect();
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            tunnels.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                client.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            if (webSocket != null) {
+                webSocket.disconnect();
+            }
+            synchronized (clientWriteLock) {
+                clientWriteLock.notifyAll();
+            }
+        }
 
+        @Override
+        public void onConnected(WebSocket websocket, Map<String, List<String>> headers) {
+            connected = true;
+            runOnSelector(this::updateInterest);
+        }
+
+        @Override
+        public void onConnectError(WebSocket websocket, WebSocketException exception) {
+            logger.warning(message("common.webSocket.error.proxyingWebSocketFailed", exception.getMessage()));
+            runOnSelector(this::close);
+        }
+
+        @Override
+        public void onDisconnected(WebSocket websocket, WebSocketFrame serverCloseFrame,
+                                   WebSocketFrame clientCloseFrame, boolean closedByServer) {
+            // Flush the received data to the client before closing it
+            disconnecting = true;
+            runOnSelector(() -> {
+                if (pendingClientData.isEmpty()) {
+                    close();
+                } else {
+                    updateInterest();
+                }
+            });
+        }
+
+        @Override
+        public void onBinaryMessage(WebSocket websocket, byte[] bytes) throws InterruptedException {
+            pendingClientData.add(ByteBuffer.wrap(bytes));
+            pendingClientBytes.addAndGet(bytes.length);
+            runOnSelector(this::updateInterest);
+
+            // Block the WebSocket reading thread until the client catches up
+            synchronized (clientWriteLock) {
+                while (!closed && pendingClientBytes.get() > MAX_PENDING_CLIENT_BYTES) {
+                    clientWriteLock.wait(BLOCKING_WAIT_MILLIS);
+                }
+            }
+        }
+
+        @Override
+        public void onFrameSent(WebSocket websocket, WebSocketFrame frame) {
+            onFrameDone(frame);
+        }
+
+        @Override
+        public void onFrameUnsent(WebSocket websocket, WebSocketFrame frame) {
+            onFrameDone(frame);
+        }
+
+        private void onFrameDone(WebSocketFrame frame) {
+            if (frame.isBinaryFrame() && pendingFrames.getAndDecrement() == MAX_PENDING_FRAMES) {
+                // Resume reading from the client
+                runOnSelector(this::updateInterest);
+            }
+        }
     }
 }
@@ -5,17 +5,30 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
 
-import com.azure.core.util.FluxUtil;
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
 import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
 
 public abstract class FlightRecorderStarterBase {
+    private static final Logger logger = Logger.getLogger(FlightRecorderStarterBase.class.getName());
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
+
     protected IAppService appService;
 
     public FlightRecorderStarterBase(@NotNull IAppService appService) {
@@ -26,6 +39,13 @@ public abstract class FlightRecorderStarterBase {
 
     abstract String getFinalJfrPath(String fileName);
 
+    /**
+     * @return the path of the recording used by the Kudu VFS API
+     */
+    protected String getDownloadPath(String fileName) {
+        return getFinalJfrPath(fileName);
+    }
+
     protected String constructJcmdCommand(int pid, int timeInSeconds, String fileName) {
         return String.format("jcmd %d JFR.start name=TimedRecording settings=profile duration=%ds filename=%s", pid,
                              timeInSeconds, getFinalJfrPath(fileName));
@@ -33,8 +53,62 @@ public abstract class FlightRecorderStarterBase {
 
     public abstract CommandOutput startFlightRecorder(int pid, int timeInSeconds, String fileName) throws IOException;
 
-    public byte[] downloadJFRFile(String fileName) {
-        return FluxUtil.collectBytesInByteBufferStream(appService.getFileContent(getFinalJfrPath(fileName))).blockOptional()
-                .orElseThrow(() -> new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name())));
+    /**
+     * Stream the recording to the target file. When the download is interrupted, it's retried and the bytes which have
+     * been written to the target file are skipped, so they are neither written nor reported again.
+     *
+     * @param onProgress accepts the downloaded bytes and the total bytes (-1 if unknown)
+     */
+    public void downloadJFRFile(@NotNull String fileName, @NotNull File target, @Nullable BiConsumer<Long, Long> onProgress) {
+        final String path = getDownloadPath(fileName);
+        final AppServiceFile remoteFile = appService.getFileByPath(path);
+        final long total = Objects.isNull(remoteFile) ? -1 : remoteFile.getSize();
+        RuntimeException lastError = null;
+        try (final FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int attempt = 1; attempt <= MAX_DOWNLOAD_ATTEMPTS; attempt++) {
+                final long resumeFrom = channel.size();
+                channel.position(resumeFrom);
+                try {
+                    final AtomicLong received = new AtomicLong();
+                    appService.getFileContent(path)
+                            .doOnNext(buffer -> writeFrom(channel, buffer, received, resumeFrom, total, onProgress))
+                            .blockLast();
+                    if (total < 0 || channel.size() >= total) {
+                        return;
+                    }
+                    lastError = new AzureToolkitRuntimeException(String.format("Incomplete JFR file %s, %d of %d bytes received",
+                            fileName, channel.size(), total));
+                } catch (final RuntimeException e) {
+                    lastError = e;
+                }
+                logger.warning(String.format("Failed to download JFR file %s (attempt %d): %s", fileName, attempt, lastError.getMessage()));
+            }
+        } catch (final IOException e) {
+            lastError = new UncheckedIOException(e);
+        }
+        throw new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name()), lastError);
+    }
+
+    private static void writeFrom(FileChannel channel, ByteBuffer buffer, AtomicLong received, long resumeFrom, long total,
+                                  @Nullable BiConsumer<Long, Long> onProgress) {
+        final long start = received.getAndAdd(buffer.remaining());
+        if (start + buffer.remaining() <= resumeFrom) {
+            // persisted by the previous attempt
+            return;
+        }
+        if (start < resumeFrom) {
+            buffer.position(buffer.position() + (int) (resumeFrom - start));
+        }
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (Objects.nonNull(onProgress)) {
+                onProgress.accept(channel.position(), total);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
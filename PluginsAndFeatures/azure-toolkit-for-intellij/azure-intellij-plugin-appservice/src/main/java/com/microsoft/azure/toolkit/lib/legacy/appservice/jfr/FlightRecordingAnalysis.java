@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of a flight recording: hot methods of the execution samples, allocation pressure by class, GC pause
+ * percentiles and lock contention by monitor class. The recording is read event by event, so it's never loaded into
+ * memory as a whole.
+ */
+@Getter
+public class FlightRecordingAnalysis {
+    public static final int DEFAULT_TOP_COUNT = 10;
+
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_IN_NEW_TLAB = "jdk.ObjectAllocationInNewTLAB";
+    private static final String ALLOCATION_OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String GC_PAUSE = "jdk.GCPhasePause";
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final String UNKNOWN = "<unknown>";
+
+    private final int topCount;
+    private long executionSamples;
+    private List<Entry> hotMethods;
+    private long allocatedBytes;
+    private List<Entry> allocationsByClass;
+    private long gcPauses;
+    private Duration gcPauseTotal = Duration.ZERO;
+    private Duration gcPauseMax = Duration.ZERO;
+    private Duration gcPauseP50 = Duration.ZERO;
+    private Duration gcPauseP90 = Duration.ZERO;
+    private Duration gcPauseP99 = Duration.ZERO;
+    private long contendedLocks;
+    private List<Entry> lockContentionByClass;
+
+    private FlightRecordingAnalysis(int topCount) {
+        this.topCount = topCount;
+    }
+
+    @NotNull
+    public static FlightRecordingAnalysis analyze(@NotNull Path recording) throws IOException {
+        return analyze(recording, DEFAULT_TOP_COUNT);
+    }
+
+    @NotNull
+    public static FlightRecordingAnalysis analyze(@NotNull Path recording, int topCount) throws IOException {
+        final Map<String, Entry> samples = new HashMap<>();
+        final Map<String, Entry> tlabAllocations = new HashMap<>();
+        final Map<String, Entry> sampledAllocations = new HashMap<>();
+        final Map<String, Entry> locks = new HashMap<>();
+        final LongList pauses = new LongList();
+        final FlightRecordingAnalysis result = new FlightRecordingAnalysis(topCount);
+        try (final RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                final RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case EXECUTION_SAMPLE:
+                        result.executionSamples++;
+                        add(samples, getTopMethod(event.getStackTrace()), 1);
+                        break;
+                    case ALLOCATION_IN_NEW_TLAB:
+                        add(tlabAllocations, getClassName(event, "objectClass"), event.getLong("tlabSize"));
+                        break;
+                    case ALLOCATION_OUTSIDE_TLAB:
+                        add(tlabAllocations, getClassName(event, "objectClass"), event.getLong("allocationSize"));
+                        break;
+                    case ALLOCATION_SAMPLE:
+                        // throttled samples of JDK 16+, each one weighs the allocations since the previous sample
+                        add(sampledAllocations, getClassName(event, "objectClass"), event.getLong("weight"));
+                        break;
+                    case GC_PAUSE:
+                        pauses.add(event.getDuration().toNanos());
+                        break;
+                    case MONITOR_ENTER:
+                        result.contendedLocks++;
+                        add(locks, getClassName(event, "monitorClass"), event.getDuration().toNanos());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        // TLAB events are exact, prefer them over the samples if both are recorded
+        final Map<String, Entry> allocations = tlabAllocations.isEmpty() ? sampledAllocations : tlabAllocations;
+        result.hotMethods = top(samples, topCount);
+        result.allocatedBytes = allocations.values().stream().mapToLong(e -> e.value).sum();
+        result.allocationsByClass = top(allocations, topCount);
+        result.lockContentionByClass = top(locks, topCount);
+        result.summarizePauses(pauses.toSortedArray());
+        return result;
+    }
+
+    private void summarizePauses(long[] sorted) {
+        this.gcPauses = sorted.length;
+        if (sorted.length == 0) {
+            return;
+        }
+        this.gcPauseTotal = Duration.ofNanos(Arrays.stream(sorted).sum());
+        this.gcPauseMax = Duration.ofNanos(sorted[sorted.length - 1]);
+        this.gcPauseP50 = Duration.ofNanos(percentile(sorted, 50));
+        this.gcPauseP90 = Duration.ofNanos(percentile(sorted, 90));
+        this.gcPauseP99 = Duration.ofNanos(percentile(sorted, 99));
+    }
+
+    // nearest-rank percentile
+    static long percentile(long[] sorted, int percent) {
+        final int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    @NotNull
+    public String toReport() {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("Hot methods (%d execution samples)%n", executionSamples));
+        hotMethods.forEach(e -> report.append(String.format("  %6.2f%%  %8d  %s%n", percentage(e.value, executionSamples), e.value, e.name)));
+
+        report.append(String.format("%nAllocation pressure (%s allocated)%n", formatBytes(allocatedBytes)));
+        allocationsByClass.forEach(e -> report.append(String.format("  %6.2f%%  %10s  %s%n",
+                percentage(e.value, allocatedBytes), formatBytes(e.value), e.name)));
+
+        report.append(String.format("%nGC pauses (%d pauses, %s in total)%n", gcPauses, formatDuration(gcPauseTotal)));
+        if (gcPauses > 0) {
+            report.append(String.format("  p50 %s, p90 %s, p99 %s, max %s%n", formatDuration(gcPauseP50),
+                    formatDuration(gcPauseP90), formatDuration(gcPauseP99), formatDuration(gcPauseMax)));
+        }
+
+        report.append(String.format("%nLock contention (%d contended monitor enters)%n", contendedLocks));
+        lockContentionByClass.forEach(e -> report.append(String.format("  %8d  %10s  %s%n", e.count,
+                formatDuration(Duration.ofNanos(e.value)), e.name)));
+        return report.toString();
+    }
+
+    private static void add(Map<String, Entry> entries, String name, long value) {
+        final Entry entry = entries.computeIfAbsent(name, Entry::new);
+        entry.count++;
+        entry.value += value;
+    }
+
+    private static List<Entry> top(Map<String, Entry> entries, int count) {
+        return entries.values().stream()
+                .sorted(Comparator.comparingLong((Entry e) -> e.value).reversed())
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    @NotNull
+    private static String getTopMethod(@Nullable RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return UNKNOWN;
+        }
+        final RecordedFrame frame = stackTrace.getFrames().get(0);
+        final RecordedMethod method = frame.getMethod();
+        if (method == null) {
+            return UNKNOWN;
+        }
+        final String type = method.getType() == null ? UNKNOWN : method.getType().getName();
+        return String.format("%s.%s", type, method.getName());
+    }
+
+    @NotNull
+    private static String getClassName(RecordedEvent event, String field) {
+        final RecordedClass clazz = event.hasField(field) ? event.getClass(field) : null;
+        return clazz == null ? UNKNOWN : clazz.getName();
+    }
+
+    private static double percentage(long value, long total) {
+        return total == 0 ? 0 : value * 100.0 / total;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        final int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format("%.1f %siB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+
+    private static String formatDuration(Duration duration) {
+        return String.format("%.3f ms", duration.toNanos() / 1_000_000.0);
+    }
+
+    @Getter
+    public static class Entry {
+        private final String name;
+        private long count;
+        // samples, bytes or nanoseconds
+        private long value;
+
+        Entry(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            final long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -22,7 +22,6 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.common.utils.TailingDebouncer;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
@@ -42,7 +41,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.BiPredicate;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -50,6 +50,7 @@ import java.util.function.Supplier;
 public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormInputComponent<T> {
     public static final String EMPTY_ITEM = StringUtils.EMPTY;
     private static final int DEBOUNCE_DELAY = 500;
+    private static final int ASYNC_FILTER_THRESHOLD = 2000;
     private final TailingDebouncer refresher;
     private AzureComboBoxEditor loadingSpinner;
     private AzureComboBoxEditor inputEditor;
@@ -209,6 +210,16 @@ public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormI
         });
     }
 
+    /**
+     * Replace the items with a new model in one batch, keeping the selected item, so no item event is fired.
+     */
+    private void swapItems(final List<? extends T> items) {
+        final Object selected = this.getModel().getSelectedItem();
+        final DefaultComboBoxModel<T> model = new DefaultComboBoxModel<>(new Vector<>(items));
+        model.setSelectedItem(selected);
+        this.setModel(model);
+    }
+
     public void clear() {
         this.value = null;
         this.valueNotSet = true;
@@ -366,17 +377,16 @@ public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormI
     }
 
     class AzureComboBoxPopupMenuListener extends PopupMenuListenerAdapter {
-        List<T> itemList;
+        AzureComboBoxFilter<T> itemFilter;
         ComboFilterListener comboFilterListener;
 
         @Override
         public void popupMenuWillBecomeVisible(final PopupMenuEvent e) {
             getEditorComponent().setEditable(true);
             getEditorComponent().setText(StringUtils.EMPTY);
-            itemList = AzureComboBox.this.getItems();
             // todo: support customized combo box filter
-            comboFilterListener = new ComboFilterListener(itemList,
-                    (item, input) -> StringUtils.containsIgnoreCase(getItemText(item), input));
+            itemFilter = new AzureComboBoxFilter<>(AzureComboBox.this.getItems(), AzureComboBox.this::getItemText);
+            comboFilterListener = new ComboFilterListener(itemFilter);
             getEditorComponent().getDocument().addDocumentListener(comboFilterListener);
         }
 
@@ -385,10 +395,11 @@ public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormI
             getEditorComponent().setEditable(false);
             if (comboFilterListener != null) {
                 getEditorComponent().getDocument().removeDocumentListener(comboFilterListener);
+                comboFilterListener.cancel();
             }
             final Object selectedItem = AzureComboBox.this.getSelectedItem();
-            if (!CollectionUtils.isEqualCollection(itemList, getItems())) {
-                AzureComboBox.this.setItems(itemList);
+            if (itemFilter != null && comboFilterListener.isFiltered()) {
+                AzureComboBox.this.swapItems(itemFilter.getItems());
             }
             if (!Objects.equals(selectedItem, AzureComboBox.this.getValue())) {
                 AzureComboBox.this.setSelectedItem(selectedItem);
@@ -403,26 +414,50 @@ public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormI
 
     class ComboFilterListener extends DocumentAdapter {
 
-        private final List<? extends T> list;
-        private final BiPredicate<? super T, ? super String> filter;
+        private final AzureComboBoxFilter<T> filter;
+        // the sequence of the latest query, results of the earlier queries are dropped
+        private final AtomicLong sequence = new AtomicLong();
+        private boolean filtered = false;
 
-        public ComboFilterListener(List<? extends T> list, BiPredicate<? super T, ? super String> filter) {
+        public ComboFilterListener(AzureComboBoxFilter<T> filter) {
             super();
-            this.list = list;
             this.filter = filter;
         }
 
         @Override
         protected void textChanged(@Nonnull final DocumentEvent documentEvent) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    final String text = documentEvent.getDocument().getText(0, documentEvent.getDocument().getLength());
-                    list.stream().filter(item -> filter.test(item, text) && !getItems().contains(item)).forEach(AzureComboBox.this::addItem);
-                    getItems().stream().filter(item -> !filter.test(item, text)).forEach(AzureComboBox.this::removeItem);
-                } catch (BadLocationException e) {
-                    // swallow exception and show all items
-                }
-            });
+            final String text;
+            try {
+                text = documentEvent.getDocument().getText(0, documentEvent.getDocument().getLength());
+            } catch (BadLocationException e) {
+                // swallow exception and show all items
+                return;
+            }
+            final long current = sequence.incrementAndGet();
+            if (filter.size() < ASYNC_FILTER_THRESHOLD) {
+                SwingUtilities.invokeLater(() -> this.show(current, filter.filter(text)));
+            } else {
+                AzureTaskManager.getInstance().runOnPooledThread(() -> {
+                    final List<T> result = filter.filter(text);
+                    SwingUtilities.invokeLater(() -> this.show(current, result));
+                });
+            }
+        }
+
+        private void show(final long querySequence, final List<T> result) {
+            if (querySequence != sequence.get()) {
+                return;
+            }
+            this.filtered = true;
+            AzureComboBox.this.swapItems(result);
+        }
+
+        boolean isFiltered() {
+            return filtered;
+        }
+
+        void cancel() {
+            sequence.incrementAndGet();
         }
     }
 
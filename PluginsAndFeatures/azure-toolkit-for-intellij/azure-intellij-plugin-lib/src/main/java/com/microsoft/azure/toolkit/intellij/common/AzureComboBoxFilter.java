@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Case insensitive "contains" filter of combo box items. The lower case texts of the items are computed once, and
+ * when the query is extended while typing, only the items matched by the previous query are scanned again.
+ */
+class AzureComboBoxFilter<T> {
+    private final List<T> items;
+    private final String[] texts;
+    private String lastQuery = StringUtils.EMPTY;
+    private int[] lastMatches;
+
+    AzureComboBoxFilter(@Nonnull List<? extends T> items, @Nonnull Function<? super T, String> textGetter) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.texts = new String[this.items.size()];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = StringUtils.defaultString(textGetter.apply(this.items.get(i))).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Nonnull
+    List<T> getItems() {
+        return items;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    @Nonnull
+    synchronized List<T> filter(@Nonnull String query) {
+        final String normalized = query.toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            this.lastQuery = normalized;
+            this.lastMatches = null;
+            return items;
+        }
+
+        final int[] candidates = this.lastMatches != null && normalized.contains(this.lastQuery) ? this.lastMatches : null;
+        final int candidateCount = candidates == null ? texts.length : candidates.length;
+        final int[] matches = new int[candidateCount];
+        int count = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            final int index = candidates == null ? i : candidates[i];
+            if (texts[index].contains(normalized)) {
+                matches[count++] = index;
+            }
+        }
+
+        this.lastQuery = normalized;
+        this.lastMatches = count == matches.length ? matches : Arrays.copyOf(matches, count);
+
+        final List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(items.get(this.lastMatches[i]));
+        }
+        return result;
+    }
+}
@@ -14,7 +14,6 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
-import redis.clients.jedis.exceptions.JedisException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -24,6 +23,7 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -41,6 +41,10 @@ public class RedisCacheExplorer extends BaseEditor {
 
     private String currentCursor;
     private String lastChosenKey;
+    private volatile int database;
+    private final Map<String, RedisKeyspace.KeyInfo> keyInfos = new HashMap<>();
+    // the key, type and cursor of the value page shown, the cursor is null if all the value is shown
+    private ValuePage currentValuePage;
 
     private static final String[] LIST_TITLE = new String[]{" Index", " Item"};
     private static final String[] SET_TITLE = new String[]{" Member"};
@@ -54,12 +58,15 @@ public class RedisCacheExplorer extends BaseEditor {
     private static final int DEFAULT_KEY_COUNT = 50;
     private static final int DEFAULT_REDIS_DB_NUMBER = 16;
     private static final int MAX_DATABASE_NUMBER = 64;
-    private static final long DEFAULT_RANGE_START = 0;
     private static final int DEFAULT_VAL_COUNT = 500;
+    private static final int ANALYSIS_SAMPLE_SIZE = 10000;
+    private static final int ANALYSIS_PAGE_SIZE = 1000;
+    private static final int ANALYSIS_TOP_COUNT = 20;
 
     private static final String DEFAULT_SCAN_PATTERN = "*";
     private static final String ACTION_GET = "GET";
     private static final String ACTION_SCAN = "SCAN";
+    private static final String ACTION_ANALYZE = "ANALYZE";
 
     private JPanel pnlMain;
     private JComboBox<String> cbDatabase;
@@ -77,6 +84,7 @@ public class RedisCacheExplorer extends BaseEditor {
     private JPanel pnlStringValue;
     private JSplitPane splitPane;
     private JPanel pnlProgressBar;
+    private JButton btnLoadMore;
 
     public RedisCacheExplorer(RedisCache redis, @Nonnull final VirtualFile virtualFile) {
         super(virtualFile);
@@ -88,6 +96,7 @@ public class RedisCacheExplorer extends BaseEditor {
 
         cbActionType.addItem(ACTION_SCAN);
         cbActionType.addItem(ACTION_GET);
+        cbActionType.addItem(ACTION_ANALYZE);
 
         splitPane.setResizeWeight(SPLIT_PANE_WEIGHT);
         splitPane.setDividerSize(SPLIT_PANE_DIVIDER_SIZE);
@@ -99,6 +108,14 @@ public class RedisCacheExplorer extends BaseEditor {
             .getDefaultRenderer();
         cellRenderer.setHorizontalAlignment(JLabel.LEFT);
         pnlInnerValue.setBackground(lstKey.getBackground());
+        lstKey.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                final RedisKeyspace.KeyInfo info = keyInfos.get(value);
+                final String text = Objects.isNull(info) ? String.valueOf(value) : String.format("%s  (%s)", value, info.getDescription());
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
 
         progressBar.setIndeterminate(true);
 
@@ -108,6 +125,7 @@ public class RedisCacheExplorer extends BaseEditor {
             }
             RedisCacheExplorer.this.setWidgetEnableStatus(false);
             txtKeyPattern.setText(DEFAULT_SCAN_PATTERN);
+            database = Math.max(cbDatabase.getSelectedIndex(), 0);
             RedisCacheExplorer.this.onDataBaseSelect();
         });
 
@@ -118,9 +136,24 @@ public class RedisCacheExplorer extends BaseEditor {
             }
             RedisCacheExplorer.this.setWidgetEnableStatus(false);
             lastChosenKey = selectedKey;
+            final RedisKeyspace.KeyInfo info = keyInfos.get(selectedKey);
+            manager.runOnPooledThread(() -> {
+                // the type is known if the key is scanned
+                final ValuePage page = doWithRedis(jedis -> getValueByKey(jedis, selectedKey,
+                    Objects.isNull(info) ? jedis.type(selectedKey).toUpperCase() : info.getType(), SCAN_POINTER_START));
+                manager.runLater(() -> RedisCacheExplorer.this.showContent(page));
+            });
+        });
+
+        btnLoadMore.addActionListener(event -> {
+            final ValuePage shown = currentValuePage;
+            if (Objects.isNull(shown) || Objects.isNull(shown.cursor)) {
+                return;
+            }
+            RedisCacheExplorer.this.setWidgetEnableStatus(false);
             manager.runOnPooledThread(() -> {
-                final Pair<String, ArrayList<String[]>> data = doWithRedis(jedis -> getValueByKey(jedis, selectedKey));
-                manager.runLater(() -> RedisCacheExplorer.this.showContent(data));
+                final ValuePage page = doWithRedis(jedis -> getValueByKey(jedis, shown.key, shown.type, shown.cursor));
+                manager.runLater(() -> RedisCacheExplorer.this.showContent(page));
             });
         });
 
@@ -129,8 +162,7 @@ public class RedisCacheExplorer extends BaseEditor {
         btnScanMore.addActionListener(event -> {
             RedisCacheExplorer.this.setWidgetEnableStatus(false);
             manager.runOnPooledThread(() -> {
-                final ScanResult<String> r = doWithRedis(jedis -> jedis.scan(currentCursor, new ScanParams()
-                    .match(txtKeyPattern.getText()).count(DEFAULT_KEY_COUNT)));
+                final Pair<ScanResult<String>, Map<String, RedisKeyspace.KeyInfo>> r = doWithRedis(jedis -> scanKeys(jedis, currentCursor, txtKeyPattern.getText()));
                 manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
             });
         });
@@ -147,17 +179,26 @@ public class RedisCacheExplorer extends BaseEditor {
         });
 
         manager.runOnPooledThread(() -> {
-            final int num = doWithRedis(RedisCacheExplorer::getDbNumber);
+            final int num = doWithRedis(jedis -> RedisKeyspace.getDatabaseCount(jedis, MAX_DATABASE_NUMBER, DEFAULT_REDIS_DB_NUMBER));
             AzureTaskManager.getInstance().runLater(() -> this.renderDbCombo(num));
         });
     }
 
     private <T> T doWithRedis(Function<Jedis, T> func) {
         try (final Jedis jedis = this.redis.getJedisPool().getResource()) {
+            // a pooled connection may not be the one the database was selected on
+            if (jedis.getDB() != database) {
+                jedis.select(database);
+            }
             return func.apply(jedis);
         }
     }
 
+    private static Pair<ScanResult<String>, Map<String, RedisKeyspace.KeyInfo>> scanKeys(Jedis jedis, String cursor, String pattern) {
+        final ScanResult<String> result = jedis.scan(cursor, new ScanParams().match(pattern).count(DEFAULT_KEY_COUNT));
+        return Pair.of(result, RedisKeyspace.describe(jedis, result.getResult(), true));
+    }
+
     @Nonnull
     @Override
     public JComponent getComponent() {
@@ -182,7 +223,10 @@ public class RedisCacheExplorer extends BaseEditor {
         }
     }
 
-    public void showScanResult(ScanResult<String> result) {
+    public void showScanResult(Pair<ScanResult<String>, Map<String, RedisKeyspace.KeyInfo>> scanned) {
+        final ScanResult<String> result = scanned.getKey();
+        keyInfos.clear();
+        keyInfos.putAll(scanned.getValue());
         lstKey.removeAll();
         final DefaultListModel<String> listModel = new DefaultListModel<>();
         final List<String> keys = result.getResult();
@@ -196,14 +240,18 @@ public class RedisCacheExplorer extends BaseEditor {
         clearValueArea();
     }
 
-    public void showContent(Pair<String, ArrayList<String[]>> val) {
-        if (Objects.isNull(val)) {
+    public void showContent(@Nullable ValuePage page) {
+        if (Objects.isNull(page)) {
+            setWidgetEnableStatus(true);
             return;
         }
-        final String type = val.getKey();
-        final ArrayList<String[]> value = val.getValue();
+        final String type = page.type;
+        final List<String[]> value = page.rows;
+        final boolean append = Objects.nonNull(currentValuePage) && Objects.equals(currentValuePage.key, page.key) &&
+            !SCAN_POINTER_START.equals(page.start);
+        currentValuePage = page;
         lblTypeValue.setText(type);
-        lblKeyValue.setText(lstKey.getSelectedValue());
+        lblKeyValue.setText(page.key);
         if (Objects.equals(type, "STRING")) {
             if (value.size() > 0 && value.get(0).length > 0) {
                 txtStringValue.setText(value.get(0)[0]);
@@ -225,17 +273,31 @@ public class RedisCacheExplorer extends BaseEditor {
                     columnNames = HASH_TITLE;
                     break;
                 default:
+                    setWidgetEnableStatus(true);
                     return;
             }
-            String[][] data = new String[value.size()][columnNames.length];
-            data = value.toArray(data);
-            final ReadOnlyTableModel tableModel = new ReadOnlyTableModel(data, columnNames);
+            if (append && tblInnerValue.getModel() instanceof ReadOnlyTableModel) {
+                final ReadOnlyTableModel tableModel = (ReadOnlyTableModel) tblInnerValue.getModel();
+                value.forEach(tableModel::addRow);
+            } else {
+                String[][] data = new String[value.size()][columnNames.length];
+                data = value.toArray(data);
+                tblInnerValue.setModel(new ReadOnlyTableModel(data, columnNames));
+            }
             setValueCompositeVisible(true);
-            tblInnerValue.setModel(tableModel);
         }
         setWidgetEnableStatus(true);
     }
 
+    public void showAnalysis(RedisKeyspace.Analysis analysis) {
+        currentValuePage = null;
+        lblTypeValue.setText(ACTION_ANALYZE);
+        lblKeyValue.setText(txtKeyPattern.getText());
+        txtStringValue.setText(analysis.toReport());
+        setValueCompositeVisible(false);
+        setWidgetEnableStatus(true);
+    }
+
     public void updateKeyList() {
         final DefaultListModel<String> listModel = (DefaultListModel<String>) lstKey.getModel();
         listModel.removeAllElements();
@@ -254,10 +316,7 @@ public class RedisCacheExplorer extends BaseEditor {
     private void onDataBaseSelect() {
         final AzureTaskManager manager = AzureTaskManager.getInstance();
         manager.runOnPooledThread(() -> {
-            final ScanResult<String> r = doWithRedis(jedis -> {
-                jedis.select(cbDatabase.getSelectedIndex());
-                return jedis.scan(SCAN_POINTER_START, new ScanParams().match(DEFAULT_SCAN_PATTERN).count(DEFAULT_KEY_COUNT));
-            });
+            final Pair<ScanResult<String>, Map<String, RedisKeyspace.KeyInfo>> r = doWithRedis(jedis -> scanKeys(jedis, SCAN_POINTER_START, DEFAULT_SCAN_PATTERN));
             manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
         });
     }
@@ -271,9 +330,13 @@ public class RedisCacheExplorer extends BaseEditor {
         cbActionType.setEnabled(enabled);
         final String actionType = (String) cbActionType.getSelectedItem();
         btnScanMore.setEnabled(enabled && Objects.equals(actionType, ACTION_SCAN));
+        btnLoadMore.setVisible(Objects.nonNull(currentValuePage) && Objects.nonNull(currentValuePage.cursor));
+        btnLoadMore.setEnabled(enabled);
     }
 
     private void clearValueArea() {
+        currentValuePage = null;
+        btnLoadMore.setVisible(false);
         lblKeyValue.setText("");
         lblTypeValue.setText("");
         pnlInnerValue.setVisible(false);
@@ -293,18 +356,26 @@ public class RedisCacheExplorer extends BaseEditor {
         if (Objects.equals(actionType, ACTION_GET)) {
             final AzureTaskManager manager = AzureTaskManager.getInstance();
             manager.runOnPooledThread(() -> {
-                final Pair<String, ArrayList<String[]>> result = doWithRedis(jedis ->
-                    jedis.exists(key) ? getValueByKey(jedis, key) : Pair.of("", new ArrayList<>()));
-                this.updateKeyList();
-                this.showContent(result);
+                final ValuePage result = doWithRedis(jedis -> getValueByKey(jedis, key, jedis.type(key).toUpperCase(), SCAN_POINTER_START));
+                manager.runLater(() -> {
+                    this.updateKeyList();
+                    this.showContent(result);
+                });
             });
         } else if (Objects.equals(actionType, ACTION_SCAN)) {
             final AzureTaskManager manager = AzureTaskManager.getInstance();
             manager.runOnPooledThread(() -> {
-                final ScanResult<String> r = doWithRedis(jedis -> jedis.scan(SCAN_POINTER_START, new ScanParams().match(key).count(DEFAULT_KEY_COUNT)));
+                final Pair<ScanResult<String>, Map<String, RedisKeyspace.KeyInfo>> r = doWithRedis(jedis -> scanKeys(jedis, SCAN_POINTER_START, key));
                 manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
             });
             currentCursor = SCAN_POINTER_START;
+        } else if (Objects.equals(actionType, ACTION_ANALYZE)) {
+            final AzureTaskManager manager = AzureTaskManager.getInstance();
+            manager.runOnPooledThread(() -> {
+                final RedisKeyspace.Analysis analysis = doWithRedis(jedis ->
+                    RedisKeyspace.analyze(jedis, key, ANALYSIS_SAMPLE_SIZE, ANALYSIS_PAGE_SIZE, ANALYSIS_TOP_COUNT));
+                manager.runLater(() -> RedisCacheExplorer.this.showAnalysis(analysis));
+            });
         }
         lastChosenKey = "";
     }
@@ -320,76 +391,74 @@ public class RedisCacheExplorer extends BaseEditor {
         }
     }
 
-    private static int getDbNumber(Jedis jedis) {
-        try {
-            final List<String> dbs = jedis.configGet("databases");
-            if (dbs.size() > 0) {
-                return Integer.parseInt(dbs.get(1));
-            }
-            return DEFAULT_REDIS_DB_NUMBER;
-        } catch (final JedisException e) {
-            // Use binary search to determine the number of database the Redis has.
-            int start = 0, end = MAX_DATABASE_NUMBER, mid;
-            while (start < end) {
-                mid = start + (end - start) / 2;
-                if (canConnect(jedis, mid)) {
-                    start = mid + 1;
-                } else {
-                    end = mid;
-                }
-            }
-            return start;
-        }
-    }
-
-    private static boolean canConnect(Jedis jedis, int index) {
-        try {
-            jedis.select(index);
-            return true;
-        } catch (final JedisException ex) {
-            return false;
+    /**
+     * A window of the value of a key. Hashes and sets are paged by {@code HSCAN}/{@code SSCAN} cursors, lists and
+     * sorted sets by index.
+     */
+    private static class ValuePage {
+        private final String key;
+        private final String type;
+        private final String start;
+        private final List<String[]> rows;
+        // the cursor or index of the next window, null if there's no more
+        @Nullable
+        private final String cursor;
+
+        ValuePage(String key, String type, String start, List<String[]> rows, @Nullable String cursor) {
+            this.key = key;
+            this.type = type;
+            this.start = start;
+            this.rows = rows;
+            this.cursor = cursor;
         }
     }
 
     @Nullable
-    private static Pair<String, ArrayList<String[]>> getValueByKey(Jedis jedis, String key) {
-        final String type = jedis.type(key).toUpperCase();
-        final ArrayList<String[]> columnData = new ArrayList<>();
+    private static ValuePage getValueByKey(Jedis jedis, String key, String type, String start) {
+        final List<String[]> columnData = new ArrayList<>();
         switch (type) {
             case "STRING":
                 final String stringVal = jedis.get(key);
                 columnData.add(new String[]{stringVal});
-                return Pair.of("STRING", columnData);
+                return new ValuePage(key, type, start, columnData, null);
             case "LIST":
-                final long listLength = jedis.llen(key);
-                final List<String> listVal = jedis.lrange(key, DEFAULT_RANGE_START,
-                    listLength < DEFAULT_VAL_COUNT ? listLength : DEFAULT_VAL_COUNT);
+                final long listStart = Long.parseLong(start);
+                final List<String> listVal = jedis.lrange(key, listStart, listStart + DEFAULT_VAL_COUNT - 1);
                 for (int i = 0; i < listVal.size(); i++) {
-                    columnData.add(new String[]{String.valueOf(i + 1), listVal.get(i)});
+                    columnData.add(new String[]{String.valueOf(listStart + i + 1), listVal.get(i)});
                 }
-                return Pair.of("LIST", columnData);
+                return new ValuePage(key, type, start, columnData, nextIndex(listStart, listVal.size()));
             case "SET":
-                final ScanResult<String> setVal = jedis.sscan(key, SCAN_POINTER_START, new ScanParams().count(DEFAULT_VAL_COUNT));
+                final ScanResult<String> setVal = jedis.sscan(key, start, new ScanParams().count(DEFAULT_VAL_COUNT));
                 for (final String row : setVal.getResult()) {
                     columnData.add(new String[]{row});
                 }
-                return Pair.of("SET", columnData);
+                return new ValuePage(key, type, start, columnData, nextCursor(setVal));
             case "ZSET":
-                final long zsetLength = jedis.zcard(key);
-                final Set<Tuple> zsetVal = jedis.zrangeWithScores(key, DEFAULT_RANGE_START,
-                    zsetLength < DEFAULT_VAL_COUNT ? zsetLength : DEFAULT_VAL_COUNT);
+                final long zsetStart = Long.parseLong(start);
+                final Set<Tuple> zsetVal = jedis.zrangeWithScores(key, zsetStart, zsetStart + DEFAULT_VAL_COUNT - 1);
                 for (final Tuple tuple : zsetVal) {
                     columnData.add(new String[]{String.valueOf(tuple.getScore()), tuple.getElement()});
                 }
-                return Pair.of("ZSET", columnData);
+                return new ValuePage(key, type, start, columnData, nextIndex(zsetStart, zsetVal.size()));
             case "HASH":
-                final ScanResult<Map.Entry<String, String>> hashVal = jedis.hscan(key, SCAN_POINTER_START, new ScanParams().count(DEFAULT_VAL_COUNT));
+                final ScanResult<Map.Entry<String, String>> hashVal = jedis.hscan(key, start, new ScanParams().count(DEFAULT_VAL_COUNT));
                 for (final Map.Entry<String, String> hash : hashVal.getResult()) {
                     columnData.add(new String[]{hash.getKey(), hash.getValue()});
                 }
-                return Pair.of("HASH", columnData);
+                return new ValuePage(key, type, start, columnData, nextCursor(hashVal));
             default:
                 return null;
         }
     }
+
+    @Nullable
+    private static String nextIndex(long start, int count) {
+        return count < DEFAULT_VAL_COUNT ? null : String.valueOf(start + count);
+    }
+
+    @Nullable
+    private static String nextCursor(ScanResult<?> result) {
+        return result.isCompleteIteration() ? null : result.getCursor();
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.redis.explorer;
+
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+/**
+ * Key metadata of a Redis database. The type, TTL and memory usage of a page of keys are got in one pipelined round
+ * trip, rather than a round trip per key and command.
+ */
+public class RedisKeyspace {
+    public static final long NO_EXPIRE = -1;
+    public static final long UNKNOWN_SIZE = -1;
+
+    private static final ProtocolCommand MEMORY = () -> SafeEncoder.encode("MEMORY");
+    private static final String USAGE = "USAGE";
+    private static final String NONE = "none";
+    private static final String PREFIX_SEPARATOR = ":";
+    private static final String NO_PREFIX = "<no prefix>";
+    // upper bounds (exclusive) of the TTL histogram buckets, in milliseconds
+    private static final long[] TTL_BUCKETS = {
+        TimeUnit.MINUTES.toMillis(1), TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(7)
+    };
+    private static final String[] TTL_BUCKET_NAMES = {"< 1 minute", "< 1 hour", "< 1 day", "< 7 days", ">= 7 days", "no expiry"};
+
+    /**
+     * Get the type, TTL and memory usage of the keys in one pipeline. Keys deleted since they were scanned are left out.
+     * The memory usage is {@link #UNKNOWN_SIZE} if the server doesn't support {@code MEMORY USAGE}.
+     */
+    @Nonnull
+    public static Map<String, KeyInfo> describe(@Nonnull Jedis jedis, @Nonnull List<String> keys, boolean withMemoryUsage) {
+        final Map<String, KeyInfo> result = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+        final List<Response<String>> types = new ArrayList<>(keys.size());
+        final List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        final List<Response<Object>> sizes = new ArrayList<>(keys.size());
+        final Pipeline pipeline = jedis.pipelined();
+        for (final String key : keys) {
+            types.add(pipeline.type(key));
+            ttls.add(pipeline.pttl(key));
+            if (withMemoryUsage) {
+                sizes.add(pipeline.sendCommand(MEMORY, USAGE, key));
+            }
+        }
+        pipeline.sync();
+        for (int i = 0; i < keys.size(); i++) {
+            final String type = types.get(i).get();
+            if (StringUtils.isEmpty(type) || NONE.equalsIgnoreCase(type)) {
+                continue;
+            }
+            final long ttl = ttls.get(i).get();
+            final long size = withMemoryUsage ? getSize(sizes.get(i)) : UNKNOWN_SIZE;
+            result.put(keys.get(i), new KeyInfo(keys.get(i), type.toUpperCase(), ttl < 0 ? NO_EXPIRE : ttl, size));
+        }
+        return result;
+    }
+
+    private static long getSize(@Nonnull Response<Object> response) {
+        try {
+            final Object size = response.get();
+            return size instanceof Long ? (Long) size : UNKNOWN_SIZE;
+        } catch (final JedisDataException e) {
+            // MEMORY USAGE is only supported since Redis 4.0
+            return UNKNOWN_SIZE;
+        }
+    }
+
+    /**
+     * Analyze the keys matching the pattern, scanning at most {@code sampleSize} keys of the current database.
+     */
+    @Nonnull
+    public static Analysis analyze(@Nonnull Jedis jedis, @Nonnull String pattern, int sampleSize, int pageSize, int topCount) {
+        final Analysis analysis = new Analysis(topCount);
+        final ScanParams params = new ScanParams().match(pattern).count(pageSize);
+        String cursor = SCAN_POINTER_START;
+        do {
+            final ScanResult<String> page = jedis.scan(cursor, params);
+            List<String> keys = page.getResult();
+            if (analysis.sampled + keys.size() > sampleSize) {
+                keys = keys.subList(0, sampleSize - analysis.sampled);
+            }
+            describe(jedis, keys, true).values().forEach(analysis::add);
+            analysis.sampled += keys.size();
+            cursor = page.getCursor();
+        } while (!SCAN_POINTER_START.equals(cursor) && analysis.sampled < sampleSize);
+        analysis.complete = SCAN_POINTER_START.equals(cursor);
+        return analysis;
+    }
+
+    @Getter
+    public static class KeyInfo {
+        private final String key;
+        private final String type;
+        // milliseconds, or NO_EXPIRE
+        private final long ttl;
+        // bytes, or UNKNOWN_SIZE
+        private final long size;
+
+        KeyInfo(String key, String type, long ttl, long size) {
+            this.key = key;
+            this.type = type;
+            this.ttl = ttl;
+            this.size = size;
+        }
+
+        @Nonnull
+        public String getDescription() {
+            final StringBuilder description = new StringBuilder(type);
+            if (size != UNKNOWN_SIZE) {
+                description.append(", ").append(formatBytes(size));
+            }
+            if (ttl != NO_EXPIRE) {
+                description.append(", TTL ").append(formatMillis(ttl));
+            }
+            return description.toString();
+        }
+    }
+
+    @Getter
+    public static class Analysis {
+        private final int topCount;
+        private int sampled;
+        // whether all the keys matching the pattern are sampled
+        private boolean complete;
+        private long totalSize;
+        private final PriorityQueue<KeyInfo> biggestKeys = new PriorityQueue<>(Comparator.comparingLong(KeyInfo::getSize));
+        private final Map<String, long[]> byType = new LinkedHashMap<>();
+        private final Map<String, long[]> byPrefix = new LinkedHashMap<>();
+        private final long[] ttlHistogram = new long[TTL_BUCKET_NAMES.length];
+
+        Analysis(int topCount) {
+            this.topCount = topCount;
+        }
+
+        void add(@Nonnull KeyInfo info) {
+            final long size = Math.max(info.size, 0);
+            totalSize += size;
+            if (info.size != UNKNOWN_SIZE) {
+                biggestKeys.add(info);
+                if (biggestKeys.size() > topCount) {
+                    biggestKeys.poll();
+                }
+            }
+            count(byType, info.type, size);
+            count(byPrefix, getPrefix(info.key), size);
+            ttlHistogram[getTtlBucket(info.ttl)]++;
+        }
+
+        // count and bytes of a group
+        private static void count(@Nonnull Map<String, long[]> groups, @Nonnull String name, long size) {
+            final long[] group = groups.computeIfAbsent(name, k -> new long[2]);
+            group[0]++;
+            group[1] += size;
+        }
+
+        @Nonnull
+        public List<KeyInfo> getBiggestKeys() {
+            return biggestKeys.stream().sorted(Comparator.comparingLong(KeyInfo::getSize).reversed()).collect(Collectors.toList());
+        }
+
+        @Nonnull
+        public String toReport() {
+            final StringBuilder report = new StringBuilder();
+            report.append(String.format("%d keys sampled%s, %s in total%n", sampled, complete ? "" : " (partial)", formatBytes(totalSize)));
+
+            report.append(String.format("%nBiggest keys%n"));
+            getBiggestKeys().forEach(k -> report.append(String.format("  %10s  %-6s  %s%n", formatBytes(k.size), k.type, k.key)));
+
+            report.append(String.format("%nBy type%n"));
+            appendGroups(report, byType, Integer.MAX_VALUE);
+
+            report.append(String.format("%nBy prefix%n"));
+            appendGroups(report, byPrefix, topCount);
+
+            report.append(String.format("%nTTL%n"));
+            for (int i = 0; i < TTL_BUCKET_NAMES.length; i++) {
+                report.append(String.format("  %8d  %s%n", ttlHistogram[i], TTL_BUCKET_NAMES[i]));
+            }
+            return report.toString();
+        }
+
+        private void appendGroups(@Nonnull StringBuilder report, @Nonnull Map<String, long[]> groups, int limit) {
+            groups.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1])
+                    .thenComparingLong(e -> e.getValue()[0]).reversed())
+                .limit(limit)
+                .forEach(e -> report.append(String.format("  %8d keys  %10s  %s%n", e.getValue()[0], formatBytes(e.getValue()[1]), e.getKey())));
+        }
+    }
+
+    @Nonnull
+    static String getPrefix(@Nonnull String key) {
+        final int index = key.indexOf(PREFIX_SEPARATOR);
+        return index > 0 ? key.substring(0, index) : NO_PREFIX;
+    }
+
+    static int getTtlBucket(long ttl) {
+        if (ttl == NO_EXPIRE) {
+            return TTL_BUCKET_NAMES.length - 1;
+        }
+        for (int i = 0; i < TTL_BUCKETS.length; i++) {
+            if (ttl < TTL_BUCKETS[i]) {
+                return i;
+            }
+        }
+        return TTL_BUCKETS.length;
+    }
+
+    @Nonnull
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        final int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format("%.1f %siB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+
+    @Nonnull
+    private static String formatMillis(long millis) {
+        if (millis < TimeUnit.MINUTES.toMillis(1)) {
+            return String.format("%ds", TimeUnit.MILLISECONDS.toSeconds(millis));
+        } else if (millis < TimeUnit.HOURS.toMillis(1)) {
+            return String.format("%dm", TimeUnit.MILLISECONDS.toMinutes(millis));
+        } else if (millis < TimeUnit.DAYS.toMillis(1)) {
+            return String.format("%dh", TimeUnit.MILLISECONDS.toHours(millis));
+        }
+        return String.format("%dd", TimeUnit.MILLISECONDS.toDays(millis));
+    }
+
+    /**
+     * Get the count of databases. {@code CONFIG} is disabled by Azure Cache for Redis, in which case every database
+     * up to {@code max} is probed with {@code SELECT} in one pipeline.
+     */
+    public static int getDatabaseCount(@Nonnull Jedis jedis, int max, int defaultCount) {
+        try {
+            final List<String> config = jedis.configGet("databases");
+            // CONFIG GET returns the name and the value
+            return config.size() > 1 && StringUtils.isNumeric(config.get(1)) ? Integer.parseInt(config.get(1)) : defaultCount;
+        } catch (final JedisException e) {
+            final Pipeline pipeline = jedis.pipelined();
+            final List<Response<String>> responses = new ArrayList<>(max);
+            for (int i = 0; i < max; i++) {
+                responses.add(pipeline.select(i));
+            }
+            // the client records the last selected database even if it failed, so select the default one at last
+            pipeline.select(0);
+            pipeline.sync();
+            int count = 0;
+            try {
+                while (count < max) {
+                    responses.get(count).get();
+                    count++;
+                }
+            } catch (final JedisDataException ex) {
+                // the first database which doesn't exist
+            }
+            return count;
+        }
+    }
+}
@@ -11,7 +11,10 @@ import com.microsoft.azure.hdinsight.common.AbfsUri;
 import com.microsoft.azure.hdinsight.common.AzureStorageUri;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.errorresponse.ForbiddenHttpErrorStatus;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api.GetRemoteFilesResponse;
 import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
+import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2ListingCache;
 import com.microsoft.azure.hdinsight.spark.common.ADLSGen2Deploy;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
@@ -23,6 +26,7 @@ import java.util.List;
 
 public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
     public static final String myProtocol = "abfs";
+    private static final int LIST_PAGE_SIZE = ADLSGen2FSOperation.DEFAULT_LIST_MAX_RESULTS;
 
     @Nullable
     private HttpObservable http;
@@ -44,34 +48,72 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
 
     @NotNull
     public VirtualFile[] listFiles(AdlsGen2VirtualFile vf) {
-        List<AdlsGen2VirtualFile> childrenList = new ArrayList<>();
+        List<VirtualFile> childrenList = new ArrayList<>();
         if (vf.isDirectory()) {
             // sample fileSystemRootPath: https://accountName.dfs.core.windows.net/fileSystem/
-            String fileSystemRootPath = rootPathUri.resolve("/").getUrl().toString();
+            String fileSystemRootPath = getFileSystemRootPath();
             // sample directoryParam: sub/path/to
             String directoryParam = vf.getAbfsUri().getDirectoryParam();
-            childrenList = this.op.list(fileSystemRootPath, directoryParam)
-                    // sample remoteFile.getName(): sub/path/to/SparkSubmission
-                    .map(remoteFile -> new AdlsGen2VirtualFile(
-                            (AbfsUri) AbfsUri.parse(fileSystemRootPath)
-                                    .resolveAsRoot(AzureStorageUri.encodeAndNormalizePath(remoteFile.getName())),
-                            remoteFile.isDirectory(),
-                            this))
-                    .doOnNext(file -> file.setParent(vf))
-                    .onErrorResumeNext(err -> {
-                                String errorMessage = "Failed to list folders and files with error " + err.getMessage() + ". ";
-                                if (err instanceof ForbiddenHttpErrorStatus) {
-                                    errorMessage += ADLSGen2Deploy.getForbiddenErrorHints(vf.toString());
-                                }
-                                return Observable.error(new IOException(errorMessage));
-                            }
-                    )
-                    .toList().toBlocking().lastOrDefault(new ArrayList<>());
+            List<RemoteFile> remoteFiles = ADLSGen2ListingCache.getInstance().get(fileSystemRootPath, directoryParam);
+            if (remoteFiles == null) {
+                remoteFiles = listRemoteFiles(vf, fileSystemRootPath, directoryParam)
+                        .concatMap(page -> Observable.from(page))
+                        .toList()
+                        .toBlocking()
+                        .lastOrDefault(new ArrayList<>());
+                ADLSGen2ListingCache.getInstance().put(fileSystemRootPath, directoryParam, remoteFiles);
+            }
+
+            childrenList = toVirtualFiles(vf, fileSystemRootPath, remoteFiles);
         }
 
         return childrenList.toArray(new VirtualFile[0]);
     }
 
+    public void invalidateListing(AdlsGen2VirtualFile vf) {
+        ADLSGen2ListingCache.getInstance().invalidate(getFileSystemRootPath(), vf.getAbfsUri().getDirectoryParam());
+    }
+
+    @NotNull
+    private String getFileSystemRootPath() {
+        return rootPathUri.resolve("/").getUrl().toString();
+    }
+
+    @NotNull
+    private Observable<List<RemoteFile>> listRemoteFiles(AdlsGen2VirtualFile vf,
+                                                         String fileSystemRootPath,
+                                                         String directoryParam) {
+        return this.op.listPages(fileSystemRootPath, directoryParam, LIST_PAGE_SIZE)
+                .map(GetRemoteFilesResponse::getRemoteFiles)
+                .onErrorResumeNext(err -> {
+                            String errorMessage = "Failed to list folders and files with error " + err.getMessage() + ". ";
+                            if (err instanceof ForbiddenHttpErrorStatus) {
+                                errorMessage += ADLSGen2Deploy.getForbiddenErrorHints(vf.toString());
+                            }
+                            return Observable.error(new IOException(errorMessage));
+                        }
+                );
+    }
+
+    @NotNull
+    private List<VirtualFile> toVirtualFiles(AdlsGen2VirtualFile parent,
+                                             String fileSystemRootPath,
+                                             List<RemoteFile> remoteFiles) {
+        List<VirtualFile> files = new ArrayList<>(remoteFiles.size());
+        for (RemoteFile remoteFile : remoteFiles) {
+            // sample remoteFile.getName(): sub/path/to/SparkSubmission
+            AdlsGen2VirtualFile file = new AdlsGen2VirtualFile(
+                    (AbfsUri) AbfsUri.parse(fileSystemRootPath)
+                            .resolveAsRoot(AzureStorageUri.encodeAndNormalizePath(remoteFile.getName())),
+                    remoteFile.isDirectory(),
+                    this);
+            file.setParent(parent);
+            files.add(file);
+        }
+
+        return files;
+    }
+
     @Nullable
     @Override
     public VirtualFile findFileByPath(@NotNull String path) {
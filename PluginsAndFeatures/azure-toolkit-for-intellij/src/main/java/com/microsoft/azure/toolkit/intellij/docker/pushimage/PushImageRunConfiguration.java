@@ -174,6 +174,14 @@ public class PushImageRunConfiguration extends AzureRunConfigurationBase<PushIma
         dataModel.setDockerFilePath(dockerFilePath);
     }
 
+    public boolean isLayeredImage() {
+        return dataModel.isLayeredImage();
+    }
+
+    public void setLayeredImage(boolean layeredImage) {
+        dataModel.setLayeredImage(layeredImage);
+    }
+
     public PrivateRegistryImageSetting getPrivateRegistryImageSetting() {
         return dataModel.getPrivateRegistryImageSetting();
     }
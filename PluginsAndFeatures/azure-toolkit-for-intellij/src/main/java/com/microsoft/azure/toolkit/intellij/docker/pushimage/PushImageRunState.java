@@ -71,8 +71,9 @@ public class PushImageRunState extends AzureRunProfileState<String> {
         DockerUtil.ping(docker);
         String image = DockerUtil.buildImage(docker,
                 acrInfo.getImageTagWithServerUrl(),
-                targetDockerfile.getParent(),
-                targetDockerfile.getFileName().toString(),
+                targetDockerfile,
+                targetFilePath == null ? null : Paths.get(targetFilePath),
+                dataModel.isLayeredImage(),
                 new DockerProgressHandler(processHandler)
         );
 
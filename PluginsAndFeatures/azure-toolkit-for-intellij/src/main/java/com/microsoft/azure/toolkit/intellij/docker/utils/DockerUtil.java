@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.intellij.docker.utils;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azuretools.core.mvp.model.container.DockerBuildContext;
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerCertificates;
 import com.spotify.docker.client.DockerClient;
@@ -16,6 +17,7 @@ import com.spotify.docker.client.exceptions.DockerCertificateException;
 import com.spotify.docker.client.exceptions.DockerException;
 import com.spotify.docker.client.messages.*;
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -99,6 +101,32 @@ public class DockerUtil {
         return imageId == null ? null : imageNameWithTag;
     }
 
+    /**
+     * build image with a minimal build context, which only contains the Dockerfile and the files it copies.
+     * In the layered mode, a Spring Boot jar or war artifact is split into dependency and application layers.
+     */
+    @AzureOperation(
+        name = "docker.build_image.image|dir|host",
+        params = {"imageNameWithTag", "dockerFile.getParent()", "docker.getHost()"},
+        type = AzureOperation.Type.TASK
+    )
+    public static String buildImage(DockerClient docker, String imageNameWithTag, Path dockerFile,
+                                    @Nullable Path artifact, boolean layered, ProgressHandler progressHandler)
+            throws DockerException, InterruptedException, IOException {
+        final long prepareStart = System.currentTimeMillis();
+        try (DockerBuildContext context = DockerBuildContext.prepare(dockerFile, artifact, layered)) {
+            reportProgress(progressHandler, String.format("%s, prepared in %d ms", context.describe(),
+                    System.currentTimeMillis() - prepareStart));
+
+            final long buildStart = System.currentTimeMillis();
+            String imageId = docker.build(context.getDirectory(), imageNameWithTag, context.getDockerfileName(),
+                    progressHandler);
+            reportProgress(progressHandler, String.format("Image built in %d ms",
+                    System.currentTimeMillis() - buildStart));
+            return imageId == null ? null : imageNameWithTag;
+        }
+    }
+
     /**
      * Push image to a private registry.
      */
@@ -114,7 +142,9 @@ public class DockerUtil {
         final RegistryAuth registryAuth = RegistryAuth.builder().username(registryUsername).password(registryPassword)
                 .build();
         if (targetImageName.startsWith(registryUrl)) {
+            final long pushStart = System.currentTimeMillis();
             dockerClient.push(targetImageName, handler, registryAuth);
+            reportProgress(handler, String.format("Image pushed in %d ms", System.currentTimeMillis() - pushStart));
         } else {
             throw new DockerException("serverUrl and imageName mismatch.");
         }
@@ -178,6 +208,12 @@ public class DockerUtil {
         return "";
     }
 
+    private static void reportProgress(@Nullable ProgressHandler handler, String message) throws DockerException {
+        if (handler != null) {
+            handler.progress(ProgressMessage.builder().stream(message).build());
+        }
+    }
+
     @AzureOperation(
         name = "docker.ping_host.host",
         params = {"docker.getHost()"},
@@ -304,4 +304,12 @@ public class WebAppOnLinuxDeployConfiguration extends AzureRunConfigurationBase<
     public void setDockerFilePath(String dockerFilePath) {
         deployModel.setDockerFilePath(dockerFilePath);
     }
+
+    public boolean isLayeredImage() {
+        return deployModel.isLayeredImage();
+    }
+
+    public void setLayeredImage(boolean layeredImage) {
+        deployModel.setLayeredImage(layeredImage);
+    }
 }
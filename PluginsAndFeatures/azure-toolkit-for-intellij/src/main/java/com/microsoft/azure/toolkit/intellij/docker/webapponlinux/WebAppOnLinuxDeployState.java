@@ -77,8 +77,9 @@ public class WebAppOnLinuxDeployState extends AzureRunProfileState<IAppService>
         DockerUtil.ping(docker);
         DockerUtil.buildImage(docker,
                 acrInfo.getImageTagWithServerUrl(),
-                targetDockerfile.getParent(),
-                targetDockerfile.getFileName().toString(),
+                targetDockerfile,
+                targetFilePath == null ? null : Paths.get(targetFilePath),
+                deployModel.isLayeredImage(),
                 new DockerProgressHandler(processHandler)
         );
 
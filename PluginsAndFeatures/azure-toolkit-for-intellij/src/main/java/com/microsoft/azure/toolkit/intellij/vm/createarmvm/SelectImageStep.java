@@ -14,9 +14,6 @@ import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.compute.KnownLinuxVirtualMachineImage;
 import com.microsoft.azure.management.compute.KnownWindowsVirtualMachineImage;
 import com.microsoft.azure.management.compute.VirtualMachineImage;
-import com.microsoft.azure.management.compute.VirtualMachineOffer;
-import com.microsoft.azure.management.compute.VirtualMachinePublisher;
-import com.microsoft.azure.management.compute.VirtualMachineSku;
 import com.microsoft.azure.toolkit.intellij.common.component.RegionComboBox;
 import com.microsoft.azure.toolkit.intellij.vm.VMWizardModel;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
@@ -31,6 +28,7 @@ import com.microsoft.intellij.ui.components.AzureWizardStep;
 import com.microsoft.intellij.util.PluginUtil;
 import com.microsoft.intellij.util.RxJavaUtils;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.VirtualMachineImageCatalog;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 import rx.Subscription;
@@ -87,12 +85,15 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
 
     private VMWizardModel model;
     private Azure azure;
+    private VirtualMachineImageCatalog.ImageSource imageSource;
+    private final VirtualMachineImageCatalog imageCatalog = VirtualMachineImageCatalog.getInstance();
     private Project project;
 
     private Subscription fillPublisherSubscription;
     private Subscription fillOfferSubscription;
     private Subscription fillSkuSubscription;
     private Subscription fillImagesSubscription;
+    private Subscription resolveImageSubscription;
 
     public SelectImageStep(final VMWizardModel model, Project project) {
         super("Select a Virtual Machine Image", null, null);
@@ -105,6 +106,7 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
         try {
             AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
             azure = azureManager.getAzure(model.getSubscription().getId());
+            imageSource = VirtualMachineImageCatalog.fromAzure(azure);
         } catch (Exception ex) {
             DefaultLoader.getUIHelper().logError("An error occurred when trying to authenticate\n\n" + ex.getMessage(), ex);
         }
@@ -115,15 +117,6 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
                 regionChanged();
             }
         });
-        publisherComboBox.setRenderer(new ListCellRendererWrapper<Object>() {
-            @Override
-            public void customize(JList list, Object o, int i, boolean b, boolean b1) {
-                if (o instanceof VirtualMachinePublisher) {
-                    setText(((VirtualMachinePublisher) o).name());
-                }
-            }
-        });
-
         publisherComboBox.addItemListener(new ItemListener() {
             @Override
             public void itemStateChanged(ItemEvent e) {
@@ -133,15 +126,6 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
             }
         });
 
-        offerComboBox.setRenderer(new ListCellRendererWrapper<Object>() {
-            @Override
-            public void customize(JList list, Object o, int i, boolean b, boolean b1) {
-                if (o instanceof VirtualMachineOffer) {
-                    setText(((VirtualMachineOffer) o).name());
-                }
-            }
-        });
-
         offerComboBox.addItemListener(new ItemListener() {
             @Override
             public void itemStateChanged(ItemEvent e) {
@@ -151,15 +135,6 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
             }
         });
 
-        skuComboBox.setRenderer(new ListCellRendererWrapper<Object>() {
-            @Override
-            public void customize(JList list, Object o, int i, boolean b, boolean b1) {
-                if (o instanceof VirtualMachineSku) {
-                    setText(((VirtualMachineSku) o).name());
-                }
-            }
-        });
-
         skuComboBox.addItemListener(new ItemListener() {
             @Override
             public void itemStateChanged(ItemEvent e) {
@@ -172,13 +147,7 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
         imageLabelList.setCellRenderer(new DefaultListCellRenderer() {
             @Override
             public Component getListCellRendererComponent(JList list, Object o, int i, boolean b, boolean b1) {
-                String cellValue = o.toString();
-
-                if (o instanceof VirtualMachineImage) {
-                    VirtualMachineImage virtualMachineImage = (VirtualMachineImage) o;
-                    cellValue = virtualMachineImage.version();
-                }
-
+                final String cellValue = o.toString();
                 this.setToolTipText(cellValue);
                 return super.getListCellRendererComponent(list, cellValue, i, b, b1);
             }
@@ -187,11 +156,8 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
         imageLabelList.addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent listSelectionEvent) {
-                VirtualMachineImage virtualMachineImage = (VirtualMachineImage) imageLabelList.getSelectedValue();
-                model.setVirtualMachineImage(virtualMachineImage);
-
-                if (virtualMachineImage != null) {
-                    model.getCurrentNavigationState().NEXT.setEnabled(true);
+                if (!listSelectionEvent.getValueIsAdjusting()) {
+                    resolveImage((String) imageLabelList.getSelectedValue());
                 }
             }
         });
@@ -238,7 +204,7 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
         rootPanel.revalidate();
 
         if ((knownImageBtn.isSelected() && knownImageComboBox.getSelectedItem() == null) ||
-                (customImageBtn.isSelected() && imageLabelList.getSelectedValue() == null)) {
+                (customImageBtn.isSelected() && model.getVirtualMachineImage() == null)) {
             disableNext();
         }
         return rootPanel;
@@ -252,7 +218,7 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
     private void enableControls(boolean customImage) {
         model.setKnownMachineImage(knownImageBtn.isSelected());
         knownImageComboBox.setEnabled(!customImage);
-        model.getCurrentNavigationState().NEXT.setEnabled(!customImage || !imageLabelList.isSelectionEmpty());
+        model.getCurrentNavigationState().NEXT.setEnabled(!customImage || model.getVirtualMachineImage() != null);
         imageLabelList.setEnabled(customImage);
         publisherComboBox.setEnabled(customImage);
         offerComboBox.setEnabled(customImage);
@@ -293,12 +259,15 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
                 }
                 clearSelection(publisherComboBox, offerComboBox, skuComboBox, imageLabelList);
                 RxJavaUtils.unsubscribeSubscription(fillPublisherSubscription);
+                // cached publishers are emitted at once, and emitted again if they changed when refreshed
                 fillPublisherSubscription =
-                        Observable.fromCallable(() -> azure.virtualMachineImages().publishers().listByRegion(location.getName()))
+                        imageCatalog.publishers(imageSource, location.getName())
                                 .subscribeOn(Schedulers.io())
                                 .subscribe(publisherList -> DefaultLoader.getIdeHelper().invokeLater(() -> {
-                                    publisherComboBox.setModel(new DefaultComboBoxModel(publisherList.toArray()));
-                                    fillOffers();
+                                    if (setItems(publisherComboBox, publisherList)) {
+                                        fillOffers();
+                                    }
+                                    prefetchVisiblePublishers(location, publisherList);
                                 }), error -> {
                                     final String msg = String.format(ERROR_MESSAGE_LIST_PUBLISHER,
                                             String.format(message("webappExpMsg"), error.getMessage()));
@@ -308,25 +277,38 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
         }
     }
 
+    private void prefetchVisiblePublishers(Region location, List<String> publishers) {
+        final int from = Math.max(publisherComboBox.getSelectedIndex(), 0);
+        final int to = Math.min(from + publisherComboBox.getMaximumRowCount(), publishers.size());
+        if (from < to) {
+            imageCatalog.prefetch(imageSource, location.getName(), publishers.subList(from, to));
+        }
+    }
+
     private void fillOffers() {
         disableNext();
 
-        final VirtualMachinePublisher publisher = (VirtualMachinePublisher) publisherComboBox.getSelectedItem();
-        final AzureString title = AzureOperationBundle.title("vm.list_offers.publisher", publisher.name());
+        final Region location = model.getRegion();
+        final String publisher = (String) publisherComboBox.getSelectedItem();
+        if (location == null || publisher == null) {
+            return;
+        }
+        final AzureString title = AzureOperationBundle.title("vm.list_offers.publisher", publisher);
         AzureTaskManager.getInstance().runInBackground(new AzureTask(project, title, false, () -> {
             final ProgressIndicator progressIndicator = ProgressManager.getInstance().getProgressIndicator();
             progressIndicator.setIndeterminate(true);
             RxJavaUtils.unsubscribeSubscription(fillOfferSubscription);
             clearSelection(offerComboBox, skuComboBox, imageLabelList);
             fillOfferSubscription =
-                Observable.fromCallable(() -> publisher.offers().list())
+                imageCatalog.offers(imageSource, location.getName(), publisher)
                     .subscribeOn(Schedulers.io())
                     .subscribe(offerList -> DefaultLoader.getIdeHelper().invokeLater(() -> {
-                        offerComboBox.setModel(new DefaultComboBoxModel(offerList.toArray()));
-                        fillSkus();
+                        if (setItems(offerComboBox, offerList)) {
+                            fillSkus();
+                        }
                     }),
                         error -> {
-                            final String msg = String.format(ERROR_MESSAGE_FILL_SKUS,
+                            final String msg = String.format(ERROR_MESSAGE_FILL_OFFER,
                                 String.format(message("webappExpMsg"), error.getMessage()));
                             handleError(msg, error);
                         });
@@ -336,20 +318,23 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
     private void fillSkus() {
         disableNext();
 
-        if (offerComboBox.getItemCount() > 0) {
-            final VirtualMachineOffer offer = (VirtualMachineOffer) offerComboBox.getSelectedItem();
-            final AzureString title = AzureOperationBundle.title("vm.list_skus.offer", offer.name());
+        final Region location = model.getRegion();
+        final String publisher = (String) publisherComboBox.getSelectedItem();
+        if (offerComboBox.getItemCount() > 0 && location != null && publisher != null) {
+            final String offer = (String) offerComboBox.getSelectedItem();
+            final AzureString title = AzureOperationBundle.title("vm.list_skus.offer", offer);
             AzureTaskManager.getInstance().runInBackground(new AzureTask(project, title, false, () -> {
                 final ProgressIndicator progressIndicator = ProgressManager.getInstance().getProgressIndicator();
                 progressIndicator.setIndeterminate(true);
                 RxJavaUtils.unsubscribeSubscription(fillSkuSubscription);
                 clearSelection(skuComboBox, imageLabelList);
                 fillSkuSubscription =
-                    Observable.fromCallable(() -> offer.skus().list())
+                    imageCatalog.skus(imageSource, location.getName(), publisher, offer)
                         .subscribeOn(Schedulers.io())
                         .subscribe(skuList -> DefaultLoader.getIdeHelper().invokeLater(() -> {
-                            skuComboBox.setModel(new DefaultComboBoxModel(skuList.toArray()));
-                            fillImages();
+                            if (setItems(skuComboBox, skuList)) {
+                                fillImages();
+                            }
                         }), error -> {
                                 String msg = String.format(ERROR_MESSAGE_FILL_SKUS,
                                     String.format(message("webappExpMsg"), error.getMessage()));
@@ -369,23 +354,78 @@ public class SelectImageStep extends AzureWizardStep<VMWizardModel> implements T
         AzureTaskManager.getInstance().runInBackground(new AzureTask(project, title, false, () -> {
             final ProgressIndicator progressIndicator = ProgressManager.getInstance().getProgressIndicator();
             progressIndicator.setIndeterminate(true);
-            VirtualMachineSku sku = (VirtualMachineSku) skuComboBox.getSelectedItem();
-            if (sku != null) {
+            final Region location = model.getRegion();
+            final String publisher = (String) publisherComboBox.getSelectedItem();
+            final String offer = (String) offerComboBox.getSelectedItem();
+            final String sku = (String) skuComboBox.getSelectedItem();
+            if (location != null && publisher != null && offer != null && sku != null) {
                 RxJavaUtils.unsubscribeSubscription(fillImagesSubscription);
                 clearSelection(imageLabelList);
                 fillImagesSubscription =
-                    Observable.fromCallable(() -> sku.images().list())
+                    imageCatalog.versions(imageSource, location.getName(), publisher, offer, sku)
                               .subscribeOn(Schedulers.io())
-                              .subscribe(imageList -> DefaultLoader.getIdeHelper().invokeLater(() -> imageLabelList.setListData(imageList.toArray())),
-                                         error -> {
-                                             String msg = String.format(ERROR_MESSAGE_LIST_IMAGES,
-                                                                        String.format(message("webappExpMsg"), error.getMessage()));
-                                             handleError(msg, error);
-                                         });
+                              .subscribe(versionList -> DefaultLoader.getIdeHelper().invokeLater(() -> {
+                                  final Object selected = imageLabelList.getSelectedValue();
+                                  imageLabelList.setListData(versionList.toArray());
+                                  if (selected != null) {
+                                      imageLabelList.setSelectedValue(selected, true);
+                                  }
+                              }), error -> {
+                                  String msg = String.format(ERROR_MESSAGE_LIST_IMAGES,
+                                                             String.format(message("webappExpMsg"), error.getMessage()));
+                                  handleError(msg, error);
+                              });
             }
         }));
     }
 
+    // The catalog only has the names of images, the selected image is got from Azure
+    private void resolveImage(String version) {
+        RxJavaUtils.unsubscribeSubscription(resolveImageSubscription);
+        final VirtualMachineImage current = model.getVirtualMachineImage();
+        if (current != null && version != null && version.equals(current.version())) {
+            return;
+        }
+        model.setVirtualMachineImage(null);
+        disableNext();
+        final Region location = model.getRegion();
+        final String publisher = (String) publisherComboBox.getSelectedItem();
+        final String offer = (String) offerComboBox.getSelectedItem();
+        final String sku = (String) skuComboBox.getSelectedItem();
+        if (version == null || location == null || publisher == null || offer == null || sku == null) {
+            return;
+        }
+        resolveImageSubscription =
+            Observable.fromCallable(() -> azure.virtualMachineImages().getImage(location.getName(), publisher, offer, sku, version))
+                      .subscribeOn(Schedulers.io())
+                      .subscribe(image -> DefaultLoader.getIdeHelper().invokeLater(() -> {
+                          if (image != null && version.equals(imageLabelList.getSelectedValue())) {
+                              model.setVirtualMachineImage(image);
+                              model.getCurrentNavigationState().NEXT.setEnabled(true);
+                          }
+                      }), error -> {
+                          String msg = String.format(ERROR_MESSAGE_LIST_IMAGES,
+                                                     String.format(message("webappExpMsg"), error.getMessage()));
+                          handleError(msg, error);
+                      });
+    }
+
+    /**
+     * @return true if the selected item is changed
+     */
+    private static boolean setItems(JComboBox comboBox, List<String> items) {
+        final Object selected = comboBox.getSelectedItem();
+        final DefaultComboBoxModel comboBoxModel = new DefaultComboBoxModel(items.toArray());
+        if (selected != null && items.contains(selected)) {
+            // keep the selection when the refreshed items are emitted
+            comboBoxModel.setSelectedItem(selected);
+            comboBox.setModel(comboBoxModel);
+            return false;
+        }
+        comboBox.setModel(comboBoxModel);
+        return true;
+    }
+
     private void clearSelection(JComponent... components) {
         for (JComponent component : components) {
             if (component instanceof JComboBox) {
@@ -29,11 +29,18 @@ import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput
 import java.io.InputStream
 import java.nio.charset.StandardCharsets.UTF_8
 import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
 
-abstract class SparkLivySessionInputStream(val session: Session) : InputStream(), ILogger {
+abstract class SparkLivySessionInputStream(
+        val session: Session,
+        private val signal: SparkLivySessionStatementSignal = SparkLivySessionStatementSignal()
+) : InputStream(), ILogger {
     private var isClosed: Boolean = false
     private var nextStatementId = 0
     private var statementOutputQueue: ArrayDeque<Byte>? = null
+    private var pollingDelayMillis = Statement.INITIAL_POLLING_DELAY_MILLIS
+    private var seenSubmittedCount = 0L
+    private val messages = ConcurrentLinkedQueue<String>()
 
     override fun read(): Int {
         if (isClosed) {
@@ -47,16 +54,35 @@ abstract class SparkLivySessionInputStream(val session: Session) : InputStream()
         this.isClosed = true
     }
 
+    /**
+     * Print a message not coming from a statement output, like a failure of running a statement.
+     */
+    fun println(message: String) {
+        messages.add(message)
+        signal.wakeUp()
+    }
+
     override fun available(): Int {
         if (this.isClosed || session.isStop) {
             return 0;
         }
 
         if (isOutputEmpty()) {
-            fetchNextStatementOutput()
+            val message = messages.poll()
+            if (message != null) {
+                statementOutputQueue = ArrayDeque("$message\n".toByteArray(UTF_8).toList())
+            } else if (fetchNextStatementOutput()) {
+                // The next statement may be done soon, since the statements are submitted in a pipeline
+                pollingDelayMillis = Statement.INITIAL_POLLING_DELAY_MILLIS
+            } else {
+                val submittedCount = signal.submittedCount
+                if (submittedCount != seenSubmittedCount) {
+                    seenSubmittedCount = submittedCount
+                    pollingDelayMillis = Statement.INITIAL_POLLING_DELAY_MILLIS
+                }
 
-            if (isOutputEmpty()) {
-                Thread.sleep(1000)
+                signal.await(seenSubmittedCount, pollingDelayMillis)
+                pollingDelayMillis = SparkLivySessionStatementSignal.nextDelayMillis(pollingDelayMillis)
             }
         }
 
@@ -65,23 +91,31 @@ abstract class SparkLivySessionInputStream(val session: Session) : InputStream()
 
     abstract fun createStatementBytesQueue(output: StatementOutput): String?
 
-    private fun fetchNextStatementOutput() {
+    /**
+     * @return true if the statement is done, whether it has output for this stream or not
+     */
+    private fun fetchNextStatementOutput(): Boolean {
         val statement = Statement(session, nextStatementId)
 
         try {
-            statementOutputQueue = statement.get()
-                    .map { stm ->
-                        createStatementBytesQueue(stm.output)?.let {
-                            log().debug("Statement $nextStatementId result $it")
-                            ArrayDeque("$it\n".toByteArray(UTF_8).toList())
-                        }
-                    }
+            val stm = statement.get()
                     .toBlocking()
                     .singleOrDefault(null)
 
+            if (stm == null || !stm.isDone) {
+                return false
+            }
+
+            statementOutputQueue = stm.output?.let { createStatementBytesQueue(it) }?.let {
+                log().debug("Statement $nextStatementId result $it")
+                ArrayDeque("$it\n".toByteArray(UTF_8).toList())
+            }
+
             nextStatementId++
+            return true
         } catch (err: Exception) {
             log().debug("Can't get the $nextStatementId output", err)
+            return false
         }
     }
 
@@ -29,7 +29,13 @@ import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.Stat
 import org.apache.commons.io.output.ByteArrayOutputStream
 import java.nio.charset.Charset
 
-class SparkLivySessionOutputStream(val session: Session) : ByteArrayOutputStream(), ILogger {
+class SparkLivySessionOutputStream(
+        val session: Session,
+        private val signal: SparkLivySessionStatementSignal = SparkLivySessionStatementSignal(),
+        // prints the failures of running the statements into the console
+        private val errorOutput: (String) -> Unit = {}
+) : ByteArrayOutputStream(), ILogger {
+    @Synchronized
     override fun flush() {
         // Send the buffered statements into Livy services
         if (!session.isStarted) {
@@ -37,22 +43,47 @@ class SparkLivySessionOutputStream(val session: Session) : ByteArrayOutputStream
         }
 
         val codes = toString(Charset.defaultCharset())
+        reset()
+        if (codes.isEmpty()) {
+            return
+        }
+
         log().debug("Send those codes to Livy: $codes")
 
-        session.runCodes(codes)
-                .doOnEach { reset() }
-                .toBlocking()
+        // Only wait for Livy to accept the statement, its output is read by the session input streams. So the codes
+        // flushed later are submitted while this statement is still running.
+        val statement = try {
+            session.submitCodes(codes)
+                    .toBlocking()
+                    .single()
+        } catch (err: Exception) {
+            throw SparkConsoleExceptions.LivySessionExecuteError(
+                    "Got the code `${codes.split("\n").first()}` execution error:", err.cause ?: err)
+        }
+
+        signal.notifySubmitted()
+
+        statement.awaitDone()
+                .map { Session.getStatementResult(it.output) }
                 .subscribe(
                         { result ->
-                            log().debug("Livy running results: ${ObjectMapper().writeValueAsString(result)}")
+                            if (log().isDebugEnabled) {
+                                log().debug("Livy running results: ${objectMapper.writeValueAsString(result)}")
+                            }
                         },
-                        { err -> when (err.cause) {
-                            is StatementExecutionError -> log().debug(err.message)
-                            else -> throw SparkConsoleExceptions.LivySessionExecuteError(
-                                    "Got the code `${codes.split(
-                                            "\n").first()}` execution error:",
-                                    err.cause ?: err)
+                        { err -> when {
+                            // the error of the code itself is printed by the stderr reader from the statement output
+                            err is StatementExecutionError || err.cause is StatementExecutionError -> log().debug(err.message)
+                            else -> {
+                                val message = "Got the code `${codes.split("\n").first()}` execution error: ${(err.cause ?: err).message}"
+                                log().warn(message, err)
+                                errorOutput(message)
+                            }
                         }}
                 )
     }
-}
\ No newline at end of file
+
+    companion object {
+        private val objectMapper = ObjectMapper()
+    }
+}
@@ -41,9 +41,10 @@ class SparkLivySessionProcess(
 
     override fun killProcessTree(): Boolean = true
 
-    private val stdOutStream: InputStream = SparkLivySessionStdOutStream(session)
-    private val stdErrStream: InputStream = SparkLivySessionStdErrStream(session)
-    private val stdInStream: OutputStream = SparkLivySessionOutputStream(session)
+    private val statementSignal = SparkLivySessionStatementSignal()
+    private val stdOutStream: InputStream = SparkLivySessionStdOutStream(session, statementSignal)
+    private val stdErrStream = SparkLivySessionStdErrStream(session, statementSignal)
+    private val stdInStream: OutputStream = SparkLivySessionOutputStream(session, statementSignal, stdErrStream::println)
 
     override fun waitFor(): Int = 0
 
@@ -65,7 +66,10 @@ class SparkLivySessionProcess(
 
     override fun getInputStream(): InputStream = stdOutStream
 
-    fun start(): Observable<Session> = session.deploy()
+    fun start(): Observable<Session> = (if (session.isStatementRunnable) attachWarmSession() else createSession())
+            .doOnError { destroy() }
+
+    private fun createSession(): Observable<Session> = session.deploy()
             .subscribeOn(rxSchedulers.processBarVisibleAsync(
                     "Deploy Livy interactive console artifacts dependencies..."))
             .observeOn(rxSchedulers.processBarVisibleAsync(
@@ -73,5 +77,16 @@ class SparkLivySessionProcess(
             .flatMap { it.create() }
             .flatMap { it.awaitReady(rxSchedulers.processBarVisibleAsync(
                     "The Spark Livy interactive console session is starting..." )) }
-            .doOnError { destroy() }
+
+    // A warm session from the pool is started with the artifacts uploaded already, it's created again if it died
+    // since the last heartbeat
+    private fun attachWarmSession(): Observable<Session> = session.awaitReady()
+            .subscribeOn(rxSchedulers.processBarVisibleAsync(
+                    "Attach to the warm Spark Livy interactive console session..."))
+            .onErrorResumeNext { err: Throwable ->
+                log().info("The warm Livy session ${session.name} isn't available, create it again", err)
+                session.create()
+                        .flatMap { it.awaitReady(rxSchedulers.processBarVisibleAsync(
+                                "The Spark Livy interactive console session is starting..." )) }
+            }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.console
+
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Wakes up the output readers of a Livy session when a statement is submitted, so they poll the statement output from
+ * the shortest delay again rather than waiting out the delay grown while the console is idle.
+ */
+class SparkLivySessionStatementSignal {
+    private val lock = ReentrantLock()
+    private val changed = lock.newCondition()
+    @Volatile
+    var submittedCount: Long = 0
+        private set
+
+    fun notifySubmitted() = lock.withLock {
+        submittedCount++
+        changed.signalAll()
+    }
+
+    /**
+     * Wake up the readers without a statement submitted, e.g. to print a failure of submitting one.
+     */
+    fun wakeUp() = lock.withLock {
+        changed.signalAll()
+    }
+
+    /**
+     * Wait for the delay, or until a statement is submitted after [seenCount] statements.
+     */
+    fun await(seenCount: Long, delayMillis: Long) = lock.withLock {
+        if (submittedCount == seenCount) {
+            changed.await(delayMillis, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    companion object {
+        fun nextDelayMillis(delayMillis: Long): Long = (delayMillis * 2).coerceIn(
+                Statement.INITIAL_POLLING_DELAY_MILLIS, Statement.MAX_POLLING_DELAY_MILLIS)
+    }
+}
@@ -25,7 +25,8 @@ package com.microsoft.azure.hdinsight.spark.console
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput
 
-class SparkLivySessionStdErrStream(session: Session) : SparkLivySessionInputStream(session) {
+class SparkLivySessionStdErrStream(session: Session, signal: SparkLivySessionStatementSignal)
+    : SparkLivySessionInputStream(session, signal) {
     override fun createStatementBytesQueue(output: StatementOutput): String? = when (output.status.toLowerCase()) {
         "error" -> output.let {
             // TODO: Should we add `ename` into the message? Currently, just align the output with Jupyter
@@ -42,6 +42,7 @@ import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail
 import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster
 import com.microsoft.azure.hdinsight.sdk.cluster.MfaEspCluster
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SessionPool
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession
 import com.microsoft.azure.hdinsight.spark.common.Deployable
 import com.microsoft.azure.hdinsight.spark.common.SparkSubmitModel
@@ -51,6 +52,7 @@ import com.microsoft.azure.hdinsight.spark.run.configuration.LivySparkBatchJobRu
 import com.microsoft.azure.hdinsight.spark.run.configuration.RunProfileStatePrepare
 import org.apache.commons.lang3.exception.ExceptionUtils
 import rx.Observable
+import java.io.File
 import java.net.URI
 import java.util.*
 import java.util.AbstractMap.SimpleImmutableEntry
@@ -113,12 +115,34 @@ open class SparkScalaLivyConsoleRunConfiguration(project: Project,
                 applyRunConfiguration(sparkCluster, this, artifactDeploy)
             }
 
-            return SparkScalaLivyConsoleRunProfileState(consoleBuilder, sparkSession)
+            // Attach to a warm session of the same cluster and parameters if there is, the pool is refilled by
+            // sessions with unique names since Livy rejects the duplicated names of running sessions
+            val warmSession = SessionPool.getInstance().take(getWarmSessionKey(sparkCluster, sparkSession)) {
+                createSession(sparkCluster).apply {
+                    applyRunConfiguration(sparkCluster, this, artifactDeploy)
+                    createParameters.name("$name-${UUID.randomUUID().toString().substringBefore('-')}")
+                }
+            } as? SparkSession
+
+            return SparkScalaLivyConsoleRunProfileState(consoleBuilder, warmSession ?: sparkSession)
         } catch (err: Throwable) {
             throw ExecutionException(err)
         }
     }
 
+    private fun getWarmSessionKey(sparkCluster: IClusterDetail, session: SparkSession): String {
+        // The warm session uploaded the artifacts when it started, so it's only valid for the same artifact files
+        val artifacts = session.artifactsToDeploy.joinToString(";") {
+            val file = File(it)
+            "$it:${file.length()}:${file.lastModified()}"
+        }
+
+        return listOf(sparkCluster.name,
+                      session.baseUrl.toString(),
+                      session.createParameters.build().convertToJson().orElse(""),
+                      artifacts).joinToString("|")
+    }
+
     open fun createSession(sparkCluster: IClusterDetail): SparkSession {
         val url = URI.create((sparkCluster as? LivyCluster)?.livyConnectionUrl
                 ?: throw RuntimeConfigurationError("Can't prepare Spark interactive session since Livy URL is empty"))
@@ -47,14 +47,26 @@ open class AdlsGen2VirtualFile(val abfsUri: AbfsUri, private val myIsDirectory:
         this.parent = parent
     }
 
-    override fun getChildren(): Array<VirtualFile>? = myLazyChildren
+    @Volatile
+    private var myChildren: Array<VirtualFile>? = null
 
-    override fun getUrl(): String {
-        return abfsUri.url.toString()
+    override fun getChildren(): Array<VirtualFile>? {
+        return myChildren ?: synchronized(this) {
+            myChildren ?: (myFileSystem as? ADLSGen2FileSystem)?.listFiles(this)?.also { myChildren = it }
+        }
     }
 
-    private val myLazyChildren: Array<VirtualFile>? by lazy {
-        (myFileSystem as? ADLSGen2FileSystem)?.listFiles(this)
+    override fun refresh(asynchronous: Boolean, recursive: Boolean, postRunnable: Runnable?) {
+        synchronized(this) {
+            (myFileSystem as? ADLSGen2FileSystem)?.invalidateListing(this)
+            myChildren = null
+        }
+
+        postRunnable?.run()
+    }
+
+    override fun getUrl(): String {
+        return abfsUri.url.toString()
     }
 
     override fun toString(): String {
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.management.compute.implementation.VirtualMachineImageResourceInner;
+import com.microsoft.azure.management.compute.implementation.VirtualMachineImagesInner;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Per region catalog of the virtual machine image publishers, offers, skus and versions, kept in memory and saved to
+ * disk, one file per region.
+ *
+ * Cached names are served at once. Expired names are served too, followed by the refreshed names if they changed.
+ * Offers and skus of the publishers shown to the user can be prefetched in parallel with bounded concurrency.
+ */
+public class VirtualMachineImageCatalog {
+    public static final Duration DEFAULT_TTL = Duration.ofDays(1);
+    private static final Logger LOGGER = Logger.getLogger(VirtualMachineImageCatalog.class.getName());
+    private static final String CATALOG_FOLDER = "vm-images";
+    private static final int PREFETCH_CONCURRENCY = 8;
+    // big publishers have hundreds of offers, only the skus of the first offers are prefetched
+    private static final int MAX_PREFETCH_OFFERS = 20;
+    private static final long SAVE_DELAY_MILLIS = 1000;
+    private static final Gson GSON = new Gson();
+
+    private static VirtualMachineImageCatalog instance;
+
+    @Nullable
+    private final Path directory;
+    private final long ttlMillis;
+    private final Map<String, RegionCatalog> regions = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutor;
+    private final ScheduledExecutorService saveExecutor;
+    private final AtomicLong prefetchGeneration = new AtomicLong();
+
+    /**
+     * The names of images in Azure, like the compute VirtualMachineImages API.
+     */
+    public interface ImageSource {
+        List<String> listPublishers(String region);
+
+        List<String> listOffers(String region, String publisher);
+
+        List<String> listSkus(String region, String publisher, String offer);
+
+        List<String> listVersions(String region, String publisher, String offer, String sku);
+    }
+
+    /**
+     * @param directory the folder of the region files, or null to keep the catalog in memory only
+     */
+    public VirtualMachineImageCatalog(@Nullable Path directory, @NotNull Duration ttl) {
+        this.directory = directory;
+        this.ttlMillis = ttl.toMillis();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(PREFETCH_CONCURRENCY, PREFETCH_CONCURRENCY,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreads("vm-image-prefetch"));
+        executor.allowCoreThreadTimeOut(true);
+        this.prefetchExecutor = executor;
+        this.saveExecutor = Executors.newSingleThreadScheduledExecutor(daemonThreads("vm-image-catalog-save"));
+    }
+
+    @NotNull
+    public static synchronized VirtualMachineImageCatalog getInstance() {
+        if (instance == null) {
+            final String baseDir = CommonSettings.getSettingsBaseDir();
+            instance = new VirtualMachineImageCatalog(StringUtils.isEmpty(baseDir) ? null : Paths.get(baseDir, CATALOG_FOLDER), DEFAULT_TTL);
+        }
+        return instance;
+    }
+
+    @NotNull
+    public static ImageSource fromAzure(@NotNull Azure azure) {
+        final VirtualMachineImagesInner images = azure.virtualMachines().manager().inner().virtualMachineImages();
+        return new ImageSource() {
+            @Override
+            public List<String> listPublishers(String region) {
+                return names(images.listPublishers(region));
+            }
+
+            @Override
+            public List<String> listOffers(String region, String publisher) {
+                return names(images.listOffers(region, publisher));
+            }
+
+            @Override
+            public List<String> listSkus(String region, String publisher, String offer) {
+                return names(images.listSkus(region, publisher, offer));
+            }
+
+            @Override
+            public List<String> listVersions(String region, String publisher, String offer, String sku) {
+                return names(images.list(region, publisher, offer, sku));
+            }
+        };
+    }
+
+    @NotNull
+    public Observable<List<String>> publishers(@NotNull ImageSource source, @NotNull String region) {
+        return get(region, "publishers", () -> source.listPublishers(region));
+    }
+
+    @NotNull
+    public Observable<List<String>> offers(@NotNull ImageSource source, @NotNull String region, @NotNull String publisher) {
+        return get(region, key("offers", publisher), () -> source.listOffers(region, publisher));
+    }
+
+    @NotNull
+    public Observable<List<String>> skus(@NotNull ImageSource source, @NotNull String region, @NotNull String publisher,
+                                         @NotNull String offer) {
+        return get(region, key("skus", publisher, offer), () -> source.listSkus(region, publisher, offer));
+    }
+
+    @NotNull
+    public Observable<List<String>> versions(@NotNull ImageSource source, @NotNull String region, @NotNull String publisher,
+                                             @NotNull String offer, @NotNull String sku) {
+        return get(region, key("versions", publisher, offer, sku), () -> source.listVersions(region, publisher, offer, sku));
+    }
+
+    /**
+     * Load the offers of the publishers and the skus of their offers in the background, unless they are cached and not
+     * expired. Pending tasks of the previous prefetch are dropped.
+     */
+    public void prefetch(@NotNull ImageSource source, @NotNull String region, @NotNull List<String> publishers) {
+        final long generation = prefetchGeneration.incrementAndGet();
+        final RegionCatalog catalog = getRegion(region);
+        for (final String publisher : publishers) {
+            prefetchExecutor.execute(() -> {
+                if (generation != prefetchGeneration.get()) {
+                    return;
+                }
+                final List<String> offers = getFresh(region, catalog, key("offers", publisher), () -> source.listOffers(region, publisher));
+                offers.stream().limit(MAX_PREFETCH_OFFERS).forEach(offer -> prefetchExecutor.execute(() -> {
+                    if (generation == prefetchGeneration.get()) {
+                        getFresh(region, catalog, key("skus", publisher, offer), () -> source.listSkus(region, publisher, offer));
+                    }
+                }));
+            });
+        }
+    }
+
+    public void invalidate(@NotNull String region) {
+        regions.remove(region);
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(getRegionFile(region));
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to delete image catalog of " + region, e);
+            }
+        }
+    }
+
+    @NotNull
+    private Observable<List<String>> get(@NotNull String region, @NotNull String key, @NotNull Callable<List<String>> loader) {
+        return Observable.defer(() -> {
+            final RegionCatalog catalog = getRegion(region);
+            final Entry cached = catalog.entries.get(key);
+            if (cached == null) {
+                return Observable.fromCallable(() -> load(region, catalog, key, loader));
+            }
+            if (!isExpired(cached)) {
+                return Observable.just(cached.values);
+            }
+            final Observable<List<String>> refreshed = Observable.fromCallable(() -> load(region, catalog, key, loader))
+                    .filter(values -> !values.equals(cached.values))
+                    .onErrorResumeNext(error -> {
+                        // keep serving the expired names
+                        LOGGER.log(Level.WARNING, "Failed to refresh image catalog of " + region, error);
+                        return Observable.empty();
+                    });
+            return Observable.just(cached.values).concatWith(refreshed);
+        });
+    }
+
+    @NotNull
+    private List<String> getFresh(@NotNull String region, @NotNull RegionCatalog catalog, @NotNull String key,
+                                  @NotNull Callable<List<String>> loader) {
+        final Entry cached = catalog.entries.get(key);
+        if (cached != null && !isExpired(cached)) {
+            return cached.values;
+        }
+        try {
+            return load(region, catalog, key, loader);
+        } catch (final Exception e) {
+            LOGGER.log(Level.FINE, "Failed to prefetch image catalog of " + region, e);
+            return cached == null ? Collections.emptyList() : cached.values;
+        }
+    }
+
+    @NotNull
+    private List<String> load(@NotNull String region, @NotNull RegionCatalog catalog, @NotNull String key,
+                              @NotNull Callable<List<String>> loader) throws Exception {
+        final List<String> values = Collections.unmodifiableList(new ArrayList<>(loader.call()));
+        catalog.entries.put(key, new Entry(System.currentTimeMillis(), values));
+        scheduleSave(region, catalog);
+        return values;
+    }
+
+    private boolean isExpired(@NotNull Entry entry) {
+        return System.currentTimeMillis() - entry.time >= ttlMillis;
+    }
+
+    @NotNull
+    private RegionCatalog getRegion(@NotNull String region) {
+        return regions.computeIfAbsent(region, this::readRegion);
+    }
+
+    @NotNull
+    private RegionCatalog readRegion(@NotNull String region) {
+        if (directory != null) {
+            final Path file = getRegionFile(region);
+            if (Files.isRegularFile(file)) {
+                try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    final RegionCatalog catalog = GSON.fromJson(reader, RegionCatalog.class);
+                    if (catalog != null && catalog.entries != null) {
+                        catalog.entries = new ConcurrentHashMap<>(catalog.entries);
+                        catalog.entries.values().removeIf(entry -> entry == null || entry.values == null);
+                        catalog.entries.replaceAll((key, entry) -> new Entry(entry.time, Collections.unmodifiableList(entry.values)));
+                        return catalog;
+                    }
+                } catch (final IOException | JsonParseException e) {
+                    LOGGER.log(Level.WARNING, "Ignore invalid image catalog " + file, e);
+                }
+            }
+        }
+        return new RegionCatalog();
+    }
+
+    private void scheduleSave(@NotNull String region, @NotNull RegionCatalog catalog) {
+        if (directory != null && catalog.saveScheduled.compareAndSet(0, 1)) {
+            saveExecutor.schedule(() -> save(region, catalog), SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Runs on the save thread only
+    private void save(@NotNull String region, @NotNull RegionCatalog catalog) {
+        catalog.saveScheduled.set(0);
+        final Path file = getRegionFile(region);
+        try {
+            Files.createDirectories(file.getParent());
+            final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (final Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                GSON.toJson(catalog, writer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save image catalog of " + region, e);
+        }
+    }
+
+    /**
+     * Wait for the pending saves, for tests.
+     */
+    void flush() throws Exception {
+        for (final Map.Entry<String, RegionCatalog> region : regions.entrySet()) {
+            if (region.getValue().saveScheduled.get() != 0) {
+                saveExecutor.submit(() -> save(region.getKey(), region.getValue())).get();
+            }
+        }
+    }
+
+    @NotNull
+    private Path getRegionFile(@NotNull String region) {
+        return Objects.requireNonNull(directory).resolve(region.toLowerCase().replaceAll("[^a-z0-9-]", "_") + ".json");
+    }
+
+    @NotNull
+    private static String key(String kind, String... names) {
+        return kind + "/" + String.join("/", names);
+    }
+
+    @NotNull
+    private static List<String> names(@Nullable List<VirtualMachineImageResourceInner> resources) {
+        if (resources == null) {
+            return Collections.emptyList();
+        }
+        return resources.stream().map(VirtualMachineImageResourceInner::name).collect(Collectors.toList());
+    }
+
+    @NotNull
+    private static ThreadFactory daemonThreads(@NotNull String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class RegionCatalog {
+        private Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private final transient AtomicInteger saveScheduled = new AtomicInteger();
+    }
+
+    private static class Entry {
+        private long time;
+        private List<String> values;
+
+        Entry(long time, List<String> values) {
+            this.time = time;
+            this.values = values;
+        }
+    }
+}
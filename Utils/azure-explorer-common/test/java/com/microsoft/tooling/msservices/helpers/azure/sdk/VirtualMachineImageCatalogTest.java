@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VirtualMachineImageCatalogTest {
+    private static final String REGION = "westus2";
+    private static final long LATENCY_MILLIS = 20;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+    private FakeImageSource source;
+
+    @Before
+    public void setUp() {
+        directory = temporaryFolder.getRoot().toPath();
+        source = new FakeImageSource();
+    }
+
+    @Test
+    public void testWarmCatalogIsServedFromDisk() throws Exception {
+        final VirtualMachineImageCatalog cold = new VirtualMachineImageCatalog(directory, Duration.ofHours(1));
+        final long coldMillis = timeToFirstRender(cold);
+        assertEquals(4, source.calls.get());
+        cold.flush();
+        assertTrue(Files.exists(directory.resolve(REGION + ".json")));
+
+        // a new IDE session reads the region file
+        final VirtualMachineImageCatalog warm = new VirtualMachineImageCatalog(directory, Duration.ofHours(1));
+        final long warmMillis = timeToFirstRender(warm);
+        assertEquals(4, source.calls.get());
+        assertTrue(String.format("cold %d ms, warm %d ms", coldMillis, warmMillis), warmMillis < coldMillis);
+    }
+
+    @Test
+    public void testExpiredNamesAreServedBeforeRefreshedNames() throws Exception {
+        final VirtualMachineImageCatalog catalog = new VirtualMachineImageCatalog(null, Duration.ZERO);
+        assertEquals(source.publishers, catalog.publishers(source, REGION).toList().toBlocking().single().get(0));
+
+        source.publishers = Arrays.asList("Canonical", "MicrosoftWindowsServer", "RedHat");
+        final List<List<String>> emitted = catalog.publishers(source, REGION).toList().toBlocking().single();
+        assertEquals(2, emitted.size());
+        assertEquals(2, emitted.get(0).size());
+        assertEquals(source.publishers, emitted.get(1));
+
+        // unchanged names are not emitted twice
+        assertEquals(1, catalog.publishers(source, REGION).toList().toBlocking().single().size());
+    }
+
+    @Test
+    public void testPrefetchLoadsOffersAndSkusWithBoundedConcurrency() throws Exception {
+        final VirtualMachineImageCatalog catalog = new VirtualMachineImageCatalog(null, Duration.ofHours(1));
+        final List<String> publishers = IntStream.range(0, 10).mapToObj(i -> "publisher" + i).collect(Collectors.toList());
+        catalog.prefetch(source, REGION, publishers);
+        // 10 offer lists and 2 sku lists per publisher
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (source.calls.get() < 30 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(30, source.calls.get());
+        assertTrue(source.maxConcurrency.get() <= 8);
+
+        catalog.skus(source, REGION, "publisher9", "offer1").toBlocking().single();
+        assertEquals(30, source.calls.get());
+    }
+
+    private long timeToFirstRender(VirtualMachineImageCatalog catalog) {
+        final long start = System.nanoTime();
+        final String publisher = catalog.publishers(source, REGION).toBlocking().first().get(0);
+        final String offer = catalog.offers(source, REGION, publisher).toBlocking().first().get(0);
+        final String sku = catalog.skus(source, REGION, publisher, offer).toBlocking().first().get(0);
+        catalog.versions(source, REGION, publisher, offer, sku).toBlocking().first();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static class FakeImageSource implements VirtualMachineImageCatalog.ImageSource {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+        private volatile List<String> publishers = Arrays.asList("Canonical", "MicrosoftWindowsServer");
+
+        @Override
+        public List<String> listPublishers(String region) {
+            return call(publishers);
+        }
+
+        @Override
+        public List<String> listOffers(String region, String publisher) {
+            return call(Arrays.asList("offer0", "offer1"));
+        }
+
+        @Override
+        public List<String> listSkus(String region, String publisher, String offer) {
+            return call(Arrays.asList("sku0", "sku1"));
+        }
+
+        @Override
+        public List<String> listVersions(String region, String publisher, String offer, String sku) {
+            return call(Arrays.asList("1.0.0", "1.0.1"));
+        }
+
+        private List<String> call(List<String> result) {
+            calls.incrementAndGet();
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrency.decrementAndGet();
+            }
+            return result;
+        }
+    }
+}
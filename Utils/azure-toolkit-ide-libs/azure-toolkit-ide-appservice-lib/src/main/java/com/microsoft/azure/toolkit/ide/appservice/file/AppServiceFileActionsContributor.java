@@ -25,11 +25,14 @@ public class AppServiceFileActionsContributor implements IActionsContributor {
     public static final Action.Id<AppServiceFile> APP_SERVICE_DIRECTORY_REFRESH = Action.Id.of("action.appservice.directory.refresh");
     public static final Action.Id<AppServiceFile> APP_SERVICE_FILE_VIEW = Action.Id.of("action.appservice.file.view");
     public static final Action.Id<AppServiceFile> APP_SERVICE_FILE_DOWNLOAD = Action.Id.of("action.appservice.file.download");
+    public static final Action.Id<AppServiceFile> APP_SERVICE_LOGS_SYNC = Action.Id.of("action.appservice.logs.sync");
 
     @Override
     public void registerGroups(AzureActionManager am) {
         final ActionGroup directoryActions = new ActionGroup(
-                APP_SERVICE_DIRECTORY_REFRESH
+                APP_SERVICE_DIRECTORY_REFRESH,
+                // only registered by the IDEs able to sync, and left out of the menu by the others
+                APP_SERVICE_LOGS_SYNC
         );
         am.registerGroup(APP_SERVICE_DIRECTORY_ACTIONS, directoryActions);
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.appservice.file;
+
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the sorted directory listings of app services, keyed by app and path. A listing is reused for a short
+ * time, and dropped when the directory is refreshed. The child directories of a listed directory are listed in
+ * background, so the next level expands at once.
+ */
+class AppServiceFileListingCache {
+    private static final int MAX_ENTRIES = 512;
+    private static final int MAX_PREFETCH = 16;
+    private static final long MAX_AGE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final AppServiceFileListingCache instance = new AppServiceFileListingCache();
+
+    private final Map<String, Listing> listings = new LinkedHashMap<String, Listing>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // concurrent loads of the same directory share one request
+    private final Map<String, CompletableFuture<List<AppServiceFile>>> loading = new ConcurrentHashMap<>();
+    // bumped on every invalidation, so a listing requested before it is never cached
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService prefetcher = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(MAX_PREFETCH * 4), runnable -> {
+                final Thread thread = new Thread(runnable, "AppServiceFilePrefetcher");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private AppServiceFileListingCache() {
+        ((ThreadPoolExecutor) prefetcher).allowCoreThreadTimeOut(true);
+    }
+
+    static AppServiceFileListingCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the files in the directory, directories first and then by name
+     */
+    @Nonnull
+    List<AppServiceFile> list(@Nonnull IAppService<?> appService, @Nonnull AppServiceFile directory) {
+        final String key = getKey(appService, directory.getPath());
+        final Listing cached;
+        synchronized (listings) {
+            cached = listings.get(key);
+        }
+        final List<AppServiceFile> files = cached != null && cached.isValid() ? cached.files : load(appService, directory, key);
+        prefetch(appService, files);
+        return files;
+    }
+
+    /**
+     * Drop the listings of the directory and its sub directories, including the ones being loaded.
+     */
+    void invalidate(@Nonnull AppServiceFile directory) {
+        if (directory.getApp() == null) {
+            return;
+        }
+        final String key = getKey(directory.getApp(), directory.getPath());
+        final String prefix = StringUtils.appendIfMissing(key, "/");
+        synchronized (listings) {
+            generation.incrementAndGet();
+            listings.keySet().removeIf(k -> k.equals(key) || k.startsWith(prefix));
+        }
+        loading.keySet().removeIf(k -> k.equals(key) || k.startsWith(prefix));
+    }
+
+    @Nonnull
+    private List<AppServiceFile> load(@Nonnull IAppService<?> appService, @Nonnull AppServiceFile directory, @Nonnull String key) {
+        final CompletableFuture<List<AppServiceFile>> created = new CompletableFuture<>();
+        final CompletableFuture<List<AppServiceFile>> existing = loading.putIfAbsent(key, created);
+        if (existing != null) {
+            return join(existing);
+        }
+        final long requested = generation.get();
+        try {
+            final List<AppServiceFile> files = Collections.unmodifiableList(appService.getFilesInDirectory(directory.getPath()).stream()
+                    .sorted((first, second) -> first.getType() == second.getType() ?
+                            StringUtils.compare(first.getName(), second.getName()) :
+                            first.getType() == AppServiceFile.Type.DIRECTORY ? -1 : 1)
+                    .collect(Collectors.toList()));
+            synchronized (listings) {
+                if (generation.get() == requested) {
+                    listings.put(key, new Listing(files));
+                }
+            }
+            created.complete(files);
+            return files;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    private void prefetch(@Nonnull IAppService<?> appService, @Nonnull List<AppServiceFile> files) {
+        files.stream()
+                .filter(file -> file.getType() == AppServiceFile.Type.DIRECTORY)
+                .limit(MAX_PREFETCH)
+                .forEach(directory -> prefetcher.execute(() -> {
+                    final String key = getKey(appService, directory.getPath());
+                    synchronized (listings) {
+                        final Listing cached = listings.get(key);
+                        if (cached != null && cached.isValid()) {
+                            return;
+                        }
+                    }
+                    try {
+                        load(appService, directory, key);
+                    } catch (RuntimeException ignored) {
+                        // listed again on expand, where the failure is reported
+                    }
+                }));
+    }
+
+    private static List<AppServiceFile> join(CompletableFuture<List<AppServiceFile>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Nonnull
+    private static String getKey(@Nonnull IAppService<?> appService, String path) {
+        final String normalized = StringUtils.removeEnd(StringUtils.defaultString(path), "/");
+        return (appService.id() + ":" + normalized).toLowerCase(Locale.ROOT);
+    }
+
+    private static class Listing {
+        private final List<AppServiceFile> files;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Listing(List<AppServiceFile> files) {
+            this.files = files;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() - loadedAt < MAX_AGE_MILLIS;
+        }
+    }
+}
@@ -9,9 +9,6 @@ import com.microsoft.azure.toolkit.ide.common.component.Node;
 import com.microsoft.azure.toolkit.ide.common.component.NodeView;
 import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
-import com.microsoft.azure.toolkit.lib.common.event.AzureEvent;
-import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
-import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.io.FileUtils;
@@ -20,6 +17,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +26,7 @@ public class AppServiceFileNode extends Node<AppServiceFile> {
     public static final String FILE_EXTENSION_ICON_PREFIX = "file/";
     public static final String SITE_WWWROOT = "/site/wwwroot";
     public static final String LOG_FILES = "/LogFiles";
+    private static final int PAGE_SIZE = 2000;
 
     private final AppServiceFile file;
     private final IAppService<?> appService;
@@ -67,20 +66,28 @@ public class AppServiceFileNode extends Node<AppServiceFile> {
 
     @Override
     public List<Node<?>> getChildren() {
-        return file.getType() != AppServiceFile.Type.DIRECTORY ? Collections.emptyList() :
-                appService.getFilesInDirectory(file.getPath()).stream()
-                        .sorted((first, second) -> first.getType() == second.getType() ?
-                                StringUtils.compare(first.getName(), second.getName()) :
-                                first.getType() == AppServiceFile.Type.DIRECTORY ? -1 : 1)
-                        .map(AppServiceFileNode::new)
-                        .collect(Collectors.toList());
+        if (file.getType() != AppServiceFile.Type.DIRECTORY) {
+            return Collections.emptyList();
+        }
+        final List<AppServiceFile> files = AppServiceFileListingCache.getInstance().list(appService, file);
+        if (files.size() <= PAGE_SIZE) {
+            return files.stream().map(AppServiceFileNode::new).collect(Collectors.toList());
+        }
+        // the nodes of a large directory are grouped into pages, which are only built when expanded
+        final List<Node<?>> pages = new ArrayList<>();
+        for (int from = 0; from < files.size(); from += PAGE_SIZE) {
+            final List<AppServiceFile> page = files.subList(from, Math.min(from + PAGE_SIZE, files.size()));
+            final String label = String.format("[%d - %d]", from + 1, from + page.size());
+            pages.add(new Node<>(file, new NodeView.Static(label, FILE_EXTENSION_ICON_PREFIX + "folder"))
+                    .addChildren(ignore -> page, (child, parent) -> new AppServiceFileNode(child)));
+        }
+        return pages;
     }
 
     static class AppServiceFileLabelView implements NodeView {
         @Nonnull
         @Getter
         private final AppServiceFile file;
-        private final AzureEventBus.EventListener<Object, AzureEvent<Object>> listener;
 
         @Nullable
         @Setter
@@ -89,19 +96,10 @@ public class AppServiceFileNode extends Node<AppServiceFile> {
 
         public AppServiceFileLabelView(@Nonnull AppServiceFile file) {
             this.file = file;
-            this.listener = new AzureEventBus.EventListener<>(this::onEvent);
-            AzureEventBus.on("resource.refresh.resource", listener);
+            AppServiceFileRefreshRouter.getInstance().register(this);
             this.refreshView();
         }
 
-        private void onEvent(AzureEvent<Object> event) {
-            final String type = event.getType();
-            final Object source = event.getSource();
-            if (source instanceof AppServiceFile && StringUtils.equalsIgnoreCase(((AppServiceFile) source).getFullName(), this.file.getFullName())) {
-                AzureTaskManager.getInstance().runLater(this::refreshChildren);
-            }
-        }
-
         @Override
         public String getLabel() {
             return file.getName();
@@ -124,7 +122,7 @@ public class AppServiceFileNode extends Node<AppServiceFile> {
 
         @Override
         public void dispose() {
-            AzureEventBus.off("resource.refresh.resource", listener);
+            AppServiceFileRefreshRouter.getInstance().unregister(this);
             this.refresher = null;
         }
     }
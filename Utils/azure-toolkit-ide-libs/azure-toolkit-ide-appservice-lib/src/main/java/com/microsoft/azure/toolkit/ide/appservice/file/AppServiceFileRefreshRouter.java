@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.appservice.file;
+
+import com.microsoft.azure.toolkit.ide.appservice.file.AppServiceFileNode.AppServiceFileLabelView;
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.common.event.AzureEvent;
+import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Routes the refresh events of app service files to the views of the files, through a single listener of the event bus
+ * and an index of the views by file name. The views are weakly referenced, so the views of collapsed or closed trees
+ * are dropped once garbage collected, even if they are never disposed.
+ */
+class AppServiceFileRefreshRouter {
+    private static final String REFRESH_RESOURCE = "resource.refresh.resource";
+    private static final AppServiceFileRefreshRouter instance = new AppServiceFileRefreshRouter();
+
+    // several views may show the same file, e.g. in the trees of different windows
+    private final Map<String, Set<ViewReference>> views = new ConcurrentHashMap<>();
+    private final ReferenceQueue<AppServiceFileLabelView> collected = new ReferenceQueue<>();
+    private final AzureEventBus.EventListener<Object, AzureEvent<Object>> listener = new AzureEventBus.EventListener<>(this::onEvent);
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    static AppServiceFileRefreshRouter getInstance() {
+        return instance;
+    }
+
+    void register(@Nonnull AppServiceFileLabelView view) {
+        expunge();
+        final String key = normalize(view.getFile().getFullName());
+        // added inside the map operation, so the set can't be dropped as empty by a concurrent unregister in between
+        views.compute(key, (k, refs) -> {
+            final Set<ViewReference> result = refs == null ? ConcurrentHashMap.newKeySet() : refs;
+            result.add(new ViewReference(view, k, collected));
+            return result;
+        });
+        if (subscribed.compareAndSet(false, true)) {
+            AzureEventBus.on(REFRESH_RESOURCE, listener);
+        }
+    }
+
+    void unregister(@Nonnull AppServiceFileLabelView view) {
+        final String key = normalize(view.getFile().getFullName());
+        views.computeIfPresent(key, (k, refs) -> {
+            refs.removeIf(ref -> ref.get() == null || ref.get() == view);
+            return refs.isEmpty() ? null : refs;
+        });
+        expunge();
+    }
+
+    private void onEvent(AzureEvent<Object> event) {
+        expunge();
+        final Object source = event.getSource();
+        if (!(source instanceof AppServiceFile)) {
+            return;
+        }
+        AppServiceFileListingCache.getInstance().invalidate((AppServiceFile) source);
+        final Set<ViewReference> refs = views.get(normalize(((AppServiceFile) source).getFullName()));
+        if (refs == null) {
+            return;
+        }
+        for (final ViewReference ref : refs) {
+            final AppServiceFileLabelView view = ref.get();
+            if (view != null) {
+                AzureTaskManager.getInstance().runLater(view::refreshChildren);
+            }
+        }
+    }
+
+    private void expunge() {
+        Reference<? extends AppServiceFileLabelView> ref;
+        while ((ref = collected.poll()) != null) {
+            final ViewReference stale = (ViewReference) ref;
+            views.computeIfPresent(stale.key, (k, refs) -> {
+                refs.remove(stale);
+                return refs.isEmpty() ? null : refs;
+            });
+        }
+    }
+
+    // file names were compared ignoring case
+    @Nonnull
+    private static String normalize(@Nullable String fullName) {
+        return StringUtils.defaultString(fullName).toLowerCase(Locale.ROOT);
+    }
+
+    private static class ViewReference extends WeakReference<AppServiceFileLabelView> {
+        private final String key;
+
+        ViewReference(AppServiceFileLabelView view, String key, ReferenceQueue<AppServiceFileLabelView> queue) {
+            super(view, queue);
+            this.key = key;
+        }
+    }
+}
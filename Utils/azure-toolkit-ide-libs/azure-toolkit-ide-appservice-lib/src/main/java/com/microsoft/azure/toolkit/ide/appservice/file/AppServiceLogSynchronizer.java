@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.appservice.file;
+
+import com.microsoft.azure.toolkit.ide.appservice.util.KuduUtils;
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Syncs the log files of an app service to a local folder. The files are downloaded concurrently and streamed to disk.
+ * A file already synced is skipped if its size is unchanged, and only its appended tail is requested by a range request
+ * if it grew. The tail overlaps the local file a little, so a file rotated or rewritten remotely is downloaded again.
+ */
+public class AppServiceLogSynchronizer {
+    private static final int CONCURRENCY = 4;
+    private static final int OVERLAP_BYTES = 1024;
+    private static final int CONNECT_TIMEOUT_MILLIS = 30 * 1000;
+    private static final int READ_TIMEOUT_MILLIS = 5 * 60 * 1000;
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final IAppService<?> appService;
+    private final String scmUrl;
+    private final String authorization;
+
+    public AppServiceLogSynchronizer(@Nonnull IAppService<?> appService) {
+        this.appService = appService;
+        this.scmUrl = KuduUtils.getScmUrl(appService.hostName());
+        this.authorization = KuduUtils.getAuthorization(appService.getPublishingProfile());
+    }
+
+    /**
+     * Sync the files in a remote directory and its sub directories, like /LogFiles, into a local folder.
+     */
+    public Result sync(@Nonnull AppServiceFile directory, @Nonnull Path folder) {
+        final String root = StringUtils.appendIfMissing(directory.getPath(), "/");
+        final List<AppServiceFile> files = new ArrayList<>();
+        listFiles(directory.getPath(), files);
+        final Result result = new Result();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(CONCURRENCY, files.size())));
+        try {
+            final List<Future<?>> futures = files.stream()
+                    .map(file -> executor.submit(() -> {
+                        final Path local = folder.resolve(StringUtils.removeStart(file.getPath(), root)).normalize();
+                        if (!local.startsWith(folder.normalize())) {
+                            throw new IOException(String.format("invalid file path %s", file.getPath()));
+                        }
+                        sync(file, local, result);
+                        return null;
+                    }))
+                    .collect(Collectors.toList());
+            Throwable failure = null;
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    result.failed.incrementAndGet();
+                    failure = failure == null ? e.getCause() : failure;
+                }
+            }
+            if (failure != null) {
+                throw new AzureToolkitRuntimeException(String.format("failed to sync %d of %d files of %s",
+                        result.getFailed(), files.size(), directory.getPath()), failure);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureToolkitRuntimeException("syncing log files is interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void listFiles(@Nonnull String path, @Nonnull List<AppServiceFile> result) {
+        for (final AppServiceFile file : appService.getFilesInDirectory(path)) {
+            if (file.getType() == AppServiceFile.Type.DIRECTORY) {
+                listFiles(file.getPath(), result);
+            } else {
+                result.add(file);
+            }
+        }
+    }
+
+    private void sync(@Nonnull AppServiceFile file, @Nonnull Path local, @Nonnull Result result) throws IOException {
+        final long localSize = Files.exists(local) ? Files.size(local) : -1;
+        if (localSize == file.getSize()) {
+            result.skipped.incrementAndGet();
+            return;
+        }
+        Files.createDirectories(local.getParent());
+        if (localSize > 0 && localSize < file.getSize() && appendTail(file, local, localSize, result)) {
+            result.appended.incrementAndGet();
+            return;
+        }
+        download(file, local, result);
+        result.downloaded.incrementAndGet();
+    }
+
+    /**
+     * @return false if the remote file doesn't continue the local one, or the server doesn't support range requests
+     */
+    private boolean appendTail(@Nonnull AppServiceFile file, @Nonnull Path local, long localSize, @Nonnull Result result) throws IOException {
+        final int overlap = (int) Math.min(OVERLAP_BYTES, localSize);
+        final HttpURLConnection connection = open(file);
+        connection.setRequestProperty("Range", String.format("bytes=%d-", localSize - overlap));
+        try {
+            final int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK || code == HTTP_RANGE_NOT_SATISFIABLE) {
+                return false;
+            }
+            check(connection, code);
+            try (InputStream in = connection.getInputStream();
+                 FileChannel channel = FileChannel.open(local, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final byte[] expected = new byte[overlap];
+                channel.read(ByteBuffer.wrap(expected), localSize - overlap);
+                final byte[] actual = new byte[overlap];
+                if (IOUtils.read(in, actual) != overlap || !Arrays.equals(expected, actual)) {
+                    return false;
+                }
+                channel.position(localSize);
+                result.bytes.addAndGet(IOUtils.copyLarge(in, Channels.newOutputStream(channel)));
+                channel.force(false);
+            }
+            return true;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // download to a temp file then rename it, so a failed download never leaves a truncated file
+    private void download(@Nonnull AppServiceFile file, @Nonnull Path local, @Nonnull Result result) throws IOException {
+        final HttpURLConnection connection = open(file);
+        final Path temp = Files.createTempFile(local.getParent(), local.getFileName().toString(), ".tmp");
+        try {
+            check(connection, connection.getResponseCode());
+            try (InputStream in = connection.getInputStream();
+                 OutputStream out = Files.newOutputStream(temp)) {
+                result.bytes.addAndGet(IOUtils.copyLarge(in, out));
+            }
+            try {
+                Files.move(temp, local, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, local, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            connection.disconnect();
+        }
+    }
+
+    @Nonnull
+    private HttpURLConnection open(@Nonnull AppServiceFile file) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(scmUrl + "/api/vfs" + encodePath(file.getPath())).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestProperty("Authorization", authorization);
+        return connection;
+    }
+
+    private static void check(@Nonnull HttpURLConnection connection, int code) throws IOException {
+        if (code != HttpURLConnection.HTTP_OK && code != HTTP_PARTIAL_CONTENT) {
+            throw new IOException(String.format("GET %s failed: %d %s", connection.getURL().getPath(), code, connection.getResponseMessage()));
+        }
+    }
+
+    @Nonnull
+    private static String encodePath(@Nonnull String path) throws UnsupportedEncodingException {
+        final StringBuilder builder = new StringBuilder();
+        for (final String segment : StringUtils.split(path, '/')) {
+            builder.append('/').append(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+        }
+        return builder.toString();
+    }
+
+    public static class Result {
+        private final AtomicInteger downloaded = new AtomicInteger();
+        private final AtomicInteger appended = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+
+        public int getDownloaded() {
+            return downloaded.get();
+        }
+
+        public int getAppended() {
+            return appended.get();
+        }
+
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.appservice.util;
+
+import com.microsoft.azure.toolkit.lib.appservice.model.PublishingProfile;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Helpers to call the Kudu (scm) site of an app service directly.
+ */
+public class KuduUtils {
+    private KuduUtils() {
+    }
+
+    /**
+     * foo.azurewebsites.net -> https://foo.scm.azurewebsites.net
+     */
+    @Nonnull
+    public static String getScmUrl(@Nonnull String hostName) {
+        final String host = StringUtils.removeEnd(StringUtils.removeStartIgnoreCase(
+                StringUtils.removeStartIgnoreCase(hostName, "https://"), "http://"), "/");
+        final int index = host.indexOf('.');
+        return "https://" + (index < 0 ? host : host.substring(0, index) + ".scm" + host.substring(index));
+    }
+
+    /**
+     * @return the value of the Authorization header with the deployment credentials of the publishing profile
+     */
+    @Nonnull
+    public static String getAuthorization(@Nonnull PublishingProfile profile) {
+        return "Basic " + Base64.getEncoder().encodeToString(
+                (profile.getGitUsername() + ":" + profile.getGitPassword()).getBytes(StandardCharsets.UTF_8));
+    }
+}
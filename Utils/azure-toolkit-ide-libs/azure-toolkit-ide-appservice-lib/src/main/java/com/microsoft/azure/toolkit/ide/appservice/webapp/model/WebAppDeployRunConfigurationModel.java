@@ -24,5 +24,7 @@ public class WebAppDeployRunConfigurationModel {
     private boolean slotPanelVisible = false;
     private boolean deployToRoot = true;
     private boolean openBrowserAfterDeployment = true;
+    private boolean deployWithoutDowntime = false;
+    private String healthCheckPath = "/";
     // todo: add config for before run tasks
 }
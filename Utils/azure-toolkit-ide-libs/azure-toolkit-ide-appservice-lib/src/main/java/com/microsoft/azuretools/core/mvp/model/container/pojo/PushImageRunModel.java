@@ -12,6 +12,7 @@ public class PushImageRunModel {
     private String targetPath;
     private String targetName;
     private String dockerFilePath;
+    private boolean layeredImage;
 
     public PrivateRegistryImageSetting getPrivateRegistryImageSetting() {
         return privateRegistryImageSetting;
@@ -44,4 +45,12 @@ public class PushImageRunModel {
     public void setDockerFilePath(String dockerFilePath) {
         this.dockerFilePath = dockerFilePath;
     }
+
+    public boolean isLayeredImage() {
+        return layeredImage;
+    }
+
+    public void setLayeredImage(boolean layeredImage) {
+        this.layeredImage = layeredImage;
+    }
 }
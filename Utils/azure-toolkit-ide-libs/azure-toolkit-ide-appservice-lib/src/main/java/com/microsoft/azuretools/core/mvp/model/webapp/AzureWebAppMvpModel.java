@@ -28,7 +28,9 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
 
@@ -43,6 +45,7 @@ public class AzureWebAppMvpModel {
     private static final String STOP_DEPLOYMENT_SLOT = "Stopping deployment slot...";
     private static final String DEPLOY_SUCCESS_WEB_APP = "Deploy succeed, restarting web app...";
     private static final String DEPLOY_SUCCESS_DEPLOYMENT_SLOT = "Deploy succeed, restarting deployment slot...";
+    private static final String DEPLOY_SUCCESS_WITHOUT_RESTART = "Deploy succeed.";
 
     private AzureWebAppMvpModel() {
     }
@@ -230,8 +233,7 @@ public class AzureWebAppMvpModel {
                 Objects.equals(deployTarget.getRuntime().getWebContainer(), WebContainer.JAVA_SE)) {
             deployTarget.deploy(deployType, file);
         } else {
-            final String webappPath = String.format("webapps/%s", FilenameUtils.getBaseName(file.getName()).replaceAll("#", StringUtils.EMPTY));
-            deployTarget.deploy(deployType, file, webappPath);
+            deployTarget.deploy(deployType, file, getWebAppPath(file));
         }
 
         String successMessage = deployTarget instanceof WebApp ? DEPLOY_SUCCESS_WEB_APP : DEPLOY_SUCCESS_DEPLOYMENT_SLOT;
@@ -239,6 +241,50 @@ public class AzureWebAppMvpModel {
         deployTarget.start();
     }
 
+    /**
+     * Deploy the artifact without stopping the target. A war or jar file is uploaded through the asynchronous deploy APIs
+     * of Kudu, and other artifacts are deployed in place. The target is then warmed up by the health check path if any.
+     *
+     * @param healthCheckPath the path requested after deploying until the target answers, or null to skip warming up
+     */
+    @AzureOperation(
+            name = "webapp.upload_artifact.artifact|app",
+            params = {"file.getName()", "deployTarget.name()"},
+            type = AzureOperation.Type.SERVICE
+    )
+    public void deployArtifactsToWebAppWithoutDowntime(@Nonnull final IWebAppBase deployTarget, @Nonnull final File file, boolean isDeployToRoot,
+                                                       @Nullable final String healthCheckPath, @Nonnull final IProgressIndicator progressIndicator) {
+        final Action<Void> retry = Action.retryFromFailure(() ->
+                deployArtifactsToWebAppWithoutDowntime(deployTarget, file, isDeployToRoot, healthCheckPath, progressIndicator));
+        if (!(deployTarget instanceof WebApp || deployTarget instanceof WebAppDeploymentSlot)) {
+            final String error = "the deployment target is not a valid (deployment slot of) Web App";
+            final String action = "select a valid Web App or deployment slot to deploy the artifact";
+            throw new AzureToolkitRuntimeException(error, action, retry);
+        }
+        final DeployType deployType = getDeployTypeByWebContainer(deployTarget.getRuntime().getWebContainer());
+        final boolean toRoot = isDeployToRoot || Objects.equals(deployTarget.getRuntime().getWebContainer(), WebContainer.JAVA_SE);
+        final WebAppAsyncDeployer deployer = new WebAppAsyncDeployer(deployTarget, progressIndicator);
+        try {
+            if (deployType == DeployType.WAR || deployType == DeployType.JAR) {
+                deployer.deploy(file, deployType, toRoot ? null : FilenameUtils.getBaseName(file.getName()).replaceAll("#", StringUtils.EMPTY));
+            } else if (toRoot) {
+                deployTarget.deploy(deployType, file);
+            } else {
+                deployTarget.deploy(deployType, file, getWebAppPath(file));
+            }
+            if (StringUtils.isNotBlank(healthCheckPath)) {
+                deployer.warmUp(healthCheckPath);
+            }
+        } catch (IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to deploy %s", file.getName()), e);
+        }
+        progressIndicator.setText(DEPLOY_SUCCESS_WITHOUT_RESTART);
+    }
+
+    private static String getWebAppPath(@Nonnull File file) {
+        return String.format("webapps/%s", FilenameUtils.getBaseName(file.getName()).replaceAll("#", StringUtils.EMPTY));
+    }
+
     // todo: get deploy type with runtime&artifact
     private static DeployType getDeployTypeByWebContainer(WebContainer webContainer) {
         if (Objects.equals(webContainer, WebContainer.JAVA_SE)) {
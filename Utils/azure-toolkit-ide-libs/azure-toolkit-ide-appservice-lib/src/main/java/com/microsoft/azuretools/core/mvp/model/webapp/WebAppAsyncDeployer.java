@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.webapp;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.microsoft.azure.toolkit.ide.appservice.util.KuduUtils;
+import com.microsoft.azure.toolkit.ide.common.store.AzureStoreManager;
+import com.microsoft.azure.toolkit.ide.common.store.IIdeStore;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
+import com.microsoft.azure.toolkit.lib.appservice.service.IWebAppBase;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import com.microsoft.azuretools.utils.IProgressIndicator;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deploys a war or jar file through the asynchronous deploy APIs of Kudu, without stopping the app. The deployment
+ * status is polled with backoff, and the app can be warmed up by its health check url afterwards. The deployment is
+ * skipped if the artifact is the one deployed last time and no other deployment happened since.
+ */
+class WebAppAsyncDeployer {
+    private static final String STORE_SERVICE = "webapp_async_deploy";
+    private static final int STATUS_FAILED = 3;
+    private static final int STATUS_SUCCESS = 4;
+    private static final int CONNECT_TIMEOUT_MILLIS = 30 * 1000;
+    private static final int READ_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    private static final long MIN_POLL_MILLIS = 1000;
+    private static final long MAX_POLL_MILLIS = 10 * 1000;
+    private static final long DEPLOY_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long WARMUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final IWebAppBase<?> target;
+    private final IProgressIndicator progressIndicator;
+    private final String scmUrl;
+    private final String appUrl;
+    private final String authorization;
+
+    WebAppAsyncDeployer(@Nonnull IWebAppBase<?> target, @Nonnull IProgressIndicator progressIndicator) {
+        this.target = target;
+        this.progressIndicator = progressIndicator;
+        this.scmUrl = KuduUtils.getScmUrl(target.hostName());
+        this.appUrl = "https://" + StringUtils.removeEnd(target.hostName(), "/");
+        this.authorization = KuduUtils.getAuthorization(target.getPublishingProfile());
+    }
+
+    /**
+     * @param type    {@link DeployType#WAR} or {@link DeployType#JAR}
+     * @param context the context path of the war, or null to deploy to root. A jar is always deployed to root.
+     */
+    void deploy(@Nonnull File artifact, @Nonnull DeployType type, @Nullable String context) throws IOException {
+        final String storeKey = target.id() + "/" + StringUtils.defaultIfBlank(context, "ROOT");
+        final String hash = sha256(artifact);
+        final String latestId = getLatestDeploymentId();
+        if (latestId != null && StringUtils.equals(getStore().map(store -> store.getProperty(STORE_SERVICE, storeKey)).orElse(null),
+                hash + ":" + latestId)) {
+            progressIndicator.setText("The artifact is not changed since the last deployment, skip uploading.");
+        } else {
+            progressIndicator.setText(String.format("Uploading %s...", artifact.getName()));
+            final String statusUrl = upload(artifact, getDeployUrl(type, context));
+            final String deploymentId = waitForDeployment(statusUrl, latestId);
+            if (deploymentId != null) {
+                getStore().ifPresent(store -> store.setProperty(STORE_SERVICE, storeKey, hash + ":" + deploymentId));
+            }
+        }
+    }
+
+    @Nonnull
+    private String getDeployUrl(@Nonnull DeployType type, @Nullable String context) throws IOException {
+        if (type == DeployType.JAR) {
+            // one deploy, which replaces the app.jar of the app
+            return scmUrl + "/api/publish?type=jar&isAsync=true";
+        }
+        if (type == DeployType.WAR) {
+            final String query = StringUtils.isBlank(context) ? "" : "&name=" + URLEncoder.encode(context, "UTF-8");
+            return scmUrl + "/api/wardeploy?isAsync=true" + query;
+        }
+        throw new AzureToolkitRuntimeException(String.format("deploy type %s is not supported by async deployment", type));
+    }
+
+    @Nonnull
+    private String upload(@Nonnull File artifact, @Nonnull String url) throws IOException {
+        final HttpURLConnection connection = open("POST", url);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(artifact.length());
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        try {
+            try (OutputStream out = connection.getOutputStream()) {
+                Files.copy(artifact.toPath(), out);
+            }
+            final int code = connection.getResponseCode();
+            check(connection, code);
+            final String location = connection.getHeaderField("Location");
+            if (StringUtils.isBlank(location)) {
+                return scmUrl + "/api/deployments/latest";
+            }
+            return location.startsWith("/") ? scmUrl + location : location;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @param previousId the id of the latest deployment before uploading, which is ignored if returned by the status url
+     * @return the id of the deployment
+     */
+    @Nullable
+    private String waitForDeployment(@Nonnull String statusUrl, @Nullable String previousId) throws IOException {
+        final long deadline = System.currentTimeMillis() + DEPLOY_TIMEOUT_MILLIS;
+        long interval = MIN_POLL_MILLIS;
+        while (true) {
+            final JsonObject status = getJson(statusUrl);
+            if (status != null && (previousId == null || !previousId.equals(getString(status, "id")))) {
+                final int code = getInt(status, "status");
+                final boolean complete = Optional.ofNullable(status.get("complete")).map(JsonElement::getAsBoolean).orElse(false);
+                progressIndicator.setText(String.format("Deploying, status: %s",
+                        StringUtils.defaultIfBlank(getString(status, "status_text"), String.valueOf(code))));
+                if (code == STATUS_FAILED) {
+                    throw new AzureToolkitRuntimeException(String.format("deployment %s failed, see %s for details",
+                            getString(status, "id"), getString(status, "log_url")));
+                }
+                if (code == STATUS_SUCCESS && complete) {
+                    return getString(status, "id");
+                }
+            }
+            if (System.currentTimeMillis() + interval > deadline) {
+                throw new AzureToolkitRuntimeException(String.format("deployment is not completed in %d minutes, check %s for the status",
+                        TimeUnit.MILLISECONDS.toMinutes(DEPLOY_TIMEOUT_MILLIS), statusUrl));
+            }
+            sleep(interval);
+            interval = Math.min(interval * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Request the health check path until the app answers 2xx/3xx.
+     *
+     * @param healthCheckPath the path requested to warm up the app, like /health
+     */
+    void warmUp(@Nonnull String healthCheckPath) throws IOException {
+        final String url = appUrl + StringUtils.prependIfMissing(healthCheckPath, "/");
+        progressIndicator.setText(String.format("Warming up %s...", url));
+        final long deadline = System.currentTimeMillis() + WARMUP_TIMEOUT_MILLIS;
+        long interval = MIN_POLL_MILLIS;
+        int code = -1;
+        while (System.currentTimeMillis() < deadline) {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            try {
+                code = connection.getResponseCode();
+                // a starting app answers 502/503 from the front end
+                if (code >= 200 && code < 400) {
+                    return;
+                }
+            } catch (IOException e) {
+                code = -1;
+            } finally {
+                connection.disconnect();
+            }
+            sleep(interval);
+            interval = Math.min(interval * 2, MAX_POLL_MILLIS);
+        }
+        throw new AzureToolkitRuntimeException(String.format("the app is deployed but %s is not healthy (last status: %d) in %d minutes",
+                url, code, TimeUnit.MILLISECONDS.toMinutes(WARMUP_TIMEOUT_MILLIS)));
+    }
+
+    @Nullable
+    private String getLatestDeploymentId() {
+        try {
+            return Optional.ofNullable(getJson(scmUrl + "/api/deployments/latest")).map(status -> getString(status, "id")).orElse(null);
+        } catch (IOException e) {
+            // deploy anyway
+            return null;
+        }
+    }
+
+    @Nullable
+    private JsonObject getJson(@Nonnull String url) throws IOException {
+        final HttpURLConnection connection = open("GET", url);
+        try {
+            final int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_NO_CONTENT) {
+                return null;
+            }
+            check(connection, code);
+            try (InputStream in = connection.getInputStream()) {
+                final String body = IOUtils.toString(in, StandardCharsets.UTF_8);
+                return StringUtils.isBlank(body) ? null : JsonUtils.getGson().fromJson(body, JsonObject.class);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Nonnull
+    private HttpURLConnection open(@Nonnull String method, @Nonnull String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestProperty("Authorization", authorization);
+        return connection;
+    }
+
+    private static void check(@Nonnull HttpURLConnection connection, int code) throws IOException {
+        if (code < 200 || code >= 300) {
+            throw new IOException(String.format("%s %s failed: %d %s", connection.getRequestMethod(),
+                    connection.getURL().getPath(), code, connection.getResponseMessage()));
+        }
+    }
+
+    private static int getInt(@Nonnull JsonObject json, @Nonnull String name) {
+        final JsonElement element = json.get(name);
+        return element == null || element.isJsonNull() ? -1 : element.getAsInt();
+    }
+
+    @Nullable
+    private static String getString(@Nonnull JsonObject json, @Nonnull String name) {
+        final JsonElement element = json.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    @Nonnull
+    private static String sha256(@Nonnull File file) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+                IOUtils.skip(in, Long.MAX_VALUE);
+            }
+            return new BigInteger(1, digest.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static Optional<IIdeStore> getStore() {
+        return Optional.ofNullable(AzureStoreManager.getInstance().getIdeStore());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureToolkitRuntimeException("deployment is interrupted", e);
+        }
+    }
+}
@@ -22,6 +22,7 @@ public class WebAppOnLinuxDeployModel {
     private String targetPath;
     private String targetName;
     private String dockerFilePath;
+    private boolean layeredImage;
 
 
     public WebAppOnLinuxDeployModel() {
@@ -155,4 +156,12 @@ public class WebAppOnLinuxDeployModel {
     public void setDockerFilePath(String dockerFilePath) {
         this.dockerFilePath = dockerFilePath;
     }
+
+    public boolean isLayeredImage() {
+        return layeredImage;
+    }
+
+    public void setLayeredImage(boolean layeredImage) {
+        this.layeredImage = layeredImage;
+    }
 }
@@ -33,6 +33,9 @@ public class WebAppSettingModel {
     private String projectType = "";
     private boolean deployToRoot = true;
     private boolean deployToSlot = false;
+    // deploy through the async api of Kudu without stopping the app
+    private boolean deployWithoutDowntime = false;
+    private String healthCheckPath = "/";
     private String slotName;
     private String newSlotName;
     private String newSlotConfigurationSource;
@@ -7,28 +7,56 @@ package com.microsoft.azure.toolkit.ide.common.store;
 import com.google.gson.reflect.TypeToken;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.File;
 import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Property store backed by a JSON file. Writes are coalesced and saved in background after a short delay, by replacing
+ * the file atomically under a file lock. The changes of other processes sharing the file are merged on every save.
+ */
 public class DefaultMachineStore implements IMachineStore {
+    private static final long SAVE_DELAY_MILLIS = 200;
+    private static final Type MAP_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "AzureMachineStoreWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private String dataFile;
-    private Map<String, String> map = new HashMap<>();
+    private final Path dataFile;
+    private final Path lockFile;
+    private final Map<String, String> map = new ConcurrentHashMap<>();
+    // the changes not saved yet, an empty value for a removed property
+    private final Map<String, Optional<String>> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
 
     public DefaultMachineStore(String dataFile) {
-        this.dataFile = dataFile;
-        if (Files.exists(Paths.get(dataFile))) {
+        this.dataFile = Paths.get(dataFile);
+        this.lockFile = Paths.get(dataFile + ".lock");
+        if (Files.exists(this.dataFile)) {
             load();
         }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::save, "AzureMachineStoreFlush"));
     }
 
     @Nullable
@@ -45,10 +73,16 @@ public class DefaultMachineStore implements IMachineStore {
         String hashKey = combineKey(service, key);
         if (value == null) {
             map.remove(hashKey);
-            return;
+        } else {
+            map.put(hashKey, value);
+        }
+        pending.put(hashKey, Optional.ofNullable(value));
+        if (saveScheduled.compareAndSet(false, true)) {
+            writer.schedule(() -> {
+                saveScheduled.set(false);
+                save();
+            }, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
         }
-        map.put(hashKey, value);
-        save();
     }
 
     private static String combineKey(String service, String key) {
@@ -57,22 +91,78 @@ public class DefaultMachineStore implements IMachineStore {
 
     public void load() {
         try {
-            if (Files.exists(Paths.get(dataFile))) {
-                String json = FileUtils.readFileToString(new File(dataFile), "utf8");
-                Type type = new TypeToken<Map<String, String>>(){}.getType();
-                map = JsonUtils.getGson().fromJson(json, type);
-            }
+            map.putAll(read());
         } catch (Exception ex) {
             throw new AzureToolkitRuntimeException("Cannot load property.", ex);
         }
     }
 
-    public void save() {
+    /**
+     * Save the pending changes now, merged with the properties saved by other processes.
+     */
+    public synchronized void save() {
+        if (pending.isEmpty()) {
+            return;
+        }
         try {
-            FileUtils.writeStringToFile(new File(dataFile), JsonUtils.toJson(map), "utf8");
+            Files.createDirectories(dataFile.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                final Map<String, String> saved = read();
+                final Map<String, Optional<String>> changes = new ConcurrentHashMap<>(pending);
+                changes.forEach((key, value) -> {
+                    if (value.isPresent()) {
+                        saved.put(key, value.get());
+                    } else {
+                        saved.remove(key);
+                    }
+                });
+                write(JsonUtils.toJson(saved));
+                // keep the changes made while saving for the next save
+                changes.forEach(pending::remove);
+                saved.forEach((key, value) -> {
+                    if (!pending.containsKey(key)) {
+                        map.put(key, value);
+                    }
+                });
+            }
         } catch (Exception ex) {
             throw new AzureToolkitRuntimeException("Cannot save property", ex);
         }
     }
 
+    @Nonnull
+    private Map<String, String> read() throws Exception {
+        final Map<String, String> result = new ConcurrentHashMap<>();
+        if (Files.exists(dataFile)) {
+            final String json = new String(Files.readAllBytes(dataFile), StandardCharsets.UTF_8);
+            final Map<String, String> saved = JsonUtils.getGson().fromJson(json, MAP_TYPE);
+            if (saved != null) {
+                saved.forEach((key, value) -> {
+                    if (key != null && value != null) {
+                        result.put(key, value);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    // write a temp file then rename it, so the data file is either the old or the new one after a crash
+    private void write(@Nonnull String json) throws Exception {
+        final Path temp = Files.createTempFile(dataFile.toAbsolutePath().getParent(), dataFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(StandardCharsets.UTF_8.encode(json));
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 }
@@ -6,21 +6,36 @@
 package com.microsoft.azuretools.authmanage;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.microsoft.azuretools.adauth.StringUtils;
 
 /**
  * Created by shch on 10/5/2016.
+ *
+ * The file may be shared by several IDE processes, so every access is guarded by a lock of a sibling lock file besides
+ * the in-process lock. Writes replace the file atomically.
  */
 public class FileStorage {
     private static final String DefaultDir = ".msauth4j";
+    private static final String LOCK_SUFFIX = ".lock";
+    // file locks are held by the JVM, so the threads of a process sharing a file are serialized first
+    private static final Map<Path, ReentrantLock> processLocks = new ConcurrentHashMap<>();
+
     private Path filePath;
-    private ReentrantReadWriteLock rwlock = new ReentrantReadWriteLock();
+    private final Path lockPath;
 
     public FileStorage(String filename, String baseDirPath) throws IOException {
 
@@ -35,35 +50,36 @@ public class FileStorage {
 
         //Path dirPath = Paths.get(baseDir, WorkingDir);
         if (!Files.exists(baseDir)) {
-            Files.createDirectory(baseDir);
+            Files.createDirectories(baseDir);
         }
 
-        filePath = Paths.get(baseDir.toString(), filename);
+        filePath = Paths.get(baseDir.toString(), filename).toAbsolutePath();
+        lockPath = Paths.get(filePath + LOCK_SUFFIX);
         //log.info("filePath = '" + filePath + "'");
 
         if (!Files.exists(filePath)) {
-            Files.createFile(filePath);
+            try {
+                Files.createFile(filePath);
+            } catch (FileAlreadyExistsException ignore) {
+                // created by another process
+            }
         }
     }
 
     public byte[] read() throws IOException {
-        try {
-            rwlock.readLock().lock();
+        return locked(true, () -> {
+            if (!Files.exists(filePath)) {
+                return new byte[0];
+            }
             return Files.readAllBytes(filePath);
-
-        } finally {
-            rwlock.readLock().unlock();
-        }
+        });
     }
 
     public void write(byte[] data) throws IOException {
-        try {
-            rwlock.writeLock().lock();
-            Files.write(filePath, data);
-
-        } finally {
-            rwlock.writeLock().unlock();
-        }
+        locked(false, () -> {
+            replace(data);
+            return null;
+        });
     }
 
     public void cleanFile() throws IOException {
@@ -71,22 +87,25 @@ public class FileStorage {
     }
 
     public void removeFile() throws IOException {
-        try {
-            rwlock.writeLock().lock();
+        locked(false, () -> {
             Files.deleteIfExists(filePath);
-        } finally {
-            rwlock.writeLock().unlock();
-        }
+            return null;
+        });
     }
 
     public void append(byte[] data) throws IOException {
-        try {
-            rwlock.writeLock().lock();
-            Files.write(filePath, data, StandardOpenOption.APPEND);
-
-        } finally {
-            rwlock.writeLock().unlock();
-        }
+        locked(false, () -> {
+            // the appends of all processes are serialized by the file lock, so a record is never interleaved
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            return null;
+        });
     }
 
     public void append(String string) throws IOException {
@@ -96,4 +115,42 @@ public class FileStorage {
     public void appendln(String string) throws IOException {
         append(string + "\n");
     }
+
+    private void replace(byte[] data) throws IOException {
+        final Path temp = Files.createTempFile(filePath.getParent(), filePath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private <T> T locked(boolean shared, FileAction<T> action) throws IOException {
+        final ReentrantLock processLock = processLocks.computeIfAbsent(filePath, path -> new ReentrantLock());
+        processLock.lock();
+        try (FileChannel channel = shared
+                ? FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock(0, Long.MAX_VALUE, shared)) {
+            return action.run();
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileAction<T> {
+        T run() throws IOException;
+    }
 }
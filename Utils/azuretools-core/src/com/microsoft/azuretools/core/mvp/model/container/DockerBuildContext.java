@@ -0,0 +1,623 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.container;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The build context sent to the docker daemon for a Dockerfile.
+ *
+ * Instead of the whole directory of the Dockerfile, a minimal context is assembled in a temporary folder with only
+ * the Dockerfile and the sources of its COPY/ADD instructions, filtered by the .dockerignore rules of the original
+ * directory. In the layered mode, a Spring Boot jar or a war copied by the Dockerfile is exploded into a dependency
+ * layer and an application layer, so the dependency layer is reused by both the build cache and the registry when
+ * only the application classes are changed.
+ *
+ * If the Dockerfile can not be analyzed, e.g. its sources contain build arguments, the original directory is used
+ * as the context.
+ */
+public final class DockerBuildContext implements Closeable {
+    public static final String DOCKER_IGNORE_FILE = ".dockerignore";
+    static final String DEPENDENCIES_LAYER = "layers/dependencies/";
+    static final String APPLICATION_LAYER = "layers/application/";
+
+    private static final String BOOT_INF = "BOOT-INF/";
+    private static final String BOOT_INF_LIB = "BOOT-INF/lib/";
+    private static final String WEB_INF = "WEB-INF/";
+    private static final String WEB_INF_LIB = "WEB-INF/lib/";
+    private static final Pattern INSTRUCTION = Pattern.compile("^\\s*([A-Za-z]+)\\s+(.*)$", Pattern.DOTALL);
+    private static final Pattern JSON_ARGUMENT = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final Path directory;
+    private final String dockerfileName;
+    private final boolean minimal;
+    private final boolean layered;
+    private final int fileCount;
+    private final long size;
+
+    private DockerBuildContext(@NotNull Path directory, @NotNull String dockerfileName, boolean minimal,
+                               boolean layered, int fileCount, long size) {
+        this.directory = directory;
+        this.dockerfileName = dockerfileName;
+        this.minimal = minimal;
+        this.layered = layered;
+        this.fileCount = fileCount;
+        this.size = size;
+    }
+
+    /**
+     * Prepare the build context of the Dockerfile.
+     *
+     * @param dockerfile the Dockerfile, its directory is the original build context
+     * @param artifact the artifact copied by the Dockerfile, only used in the layered mode
+     * @param layered whether to split a Spring Boot jar or a war artifact into dependency and application layers
+     * @return the build context, which should be closed after the image is built
+     * @throws IOException if the Dockerfile or its sources can not be read
+     */
+    @NotNull
+    public static DockerBuildContext prepare(@NotNull Path dockerfile, @Nullable Path artifact, boolean layered)
+            throws IOException {
+        final Path root = dockerfile.toAbsolutePath().normalize().getParent();
+        final String dockerfileName = dockerfile.getFileName().toString();
+        final DockerIgnore dockerIgnore = DockerIgnore.load(root.resolve(DOCKER_IGNORE_FILE));
+        final List<String> instructions = readInstructions(dockerfile);
+
+        final List<Path> sources = new ArrayList<>();
+        for (final String instruction : instructions) {
+            final CopyInstruction copy = CopyInstruction.parse(instruction);
+            if (copy == null) {
+                continue;
+            }
+
+            for (final String source : copy.sources) {
+                final List<Path> resolved = resolveSource(root, source);
+                if (resolved == null) {
+                    return fullContext(root, dockerfileName, dockerIgnore);
+                }
+
+                sources.addAll(resolved);
+            }
+        }
+
+        final Path directory = Files.createTempDirectory("azure-docker-context");
+        try {
+            final Path normalizedArtifact = artifact == null ? null : artifact.toAbsolutePath().normalize();
+            final boolean isLayered = layered && normalizedArtifact != null
+                    && layer(directory, instructions, root, normalizedArtifact);
+            final ContextWriter writer = new ContextWriter(root, directory, dockerIgnore);
+            for (final Path source : sources) {
+                if (!(isLayered && source.equals(normalizedArtifact))) {
+                    writer.add(source);
+                }
+            }
+
+            final byte[] content = String.join("\n", instructions).getBytes(StandardCharsets.UTF_8);
+            Files.write(directory.resolve(dockerfileName), content);
+
+            final long[] stats = measure(directory, path -> true);
+            return new DockerBuildContext(directory, dockerfileName, true, isLayered, (int) stats[0], stats[1]);
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(directory.toFile());
+            throw e;
+        }
+    }
+
+    @NotNull
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @NotNull
+    public String getDockerfileName() {
+        return dockerfileName;
+    }
+
+    /**
+     * @return false if the original directory of the Dockerfile is used as the context
+     */
+    public boolean isMinimal() {
+        return minimal;
+    }
+
+    public boolean isLayered() {
+        return layered;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return the total size of the files in the context, in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @NotNull
+    public String describe() {
+        return String.format("%s build context with %d files, %s",
+                layered ? "Layered" : (minimal ? "Minimal" : "Full"),
+                fileCount,
+                FileUtils.byteCountToDisplaySize(size));
+    }
+
+    @Override
+    public void close() {
+        if (minimal) {
+            FileUtils.deleteQuietly(directory.toFile());
+        }
+    }
+
+    @NotNull
+    private static DockerBuildContext fullContext(@NotNull Path root, @NotNull String dockerfileName,
+                                                  @NotNull DockerIgnore dockerIgnore) throws IOException {
+        final long[] stats = measure(root, path -> !dockerIgnore.isIgnored(root.relativize(path)));
+        return new DockerBuildContext(root, dockerfileName, false, false, (int) stats[0], stats[1]);
+    }
+
+    private static long[] measure(@NotNull Path dir, @NotNull Predicate<Path> filter)
+            throws IOException {
+        final long[] stats = new long[2];
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (final Path file : files.filter(Files::isRegularFile).filter(filter).collect(Collectors.toList())) {
+                stats[0]++;
+                stats[1] += Files.size(file);
+            }
+        }
+
+        return stats;
+    }
+
+    /**
+     * Read the instructions of the Dockerfile, an instruction continued in multiple lines is read as one item, and
+     * the comments and blank lines are kept as they are.
+     */
+    @NotNull
+    static List<String> readInstructions(@NotNull Path dockerfile) throws IOException {
+        final List<String> instructions = new ArrayList<>();
+        StringBuilder current = null;
+        for (final String line : Files.readAllLines(dockerfile, StandardCharsets.UTF_8)) {
+            if (current == null) {
+                if (StringUtils.isBlank(line) || line.trim().startsWith("#")) {
+                    instructions.add(line);
+                    continue;
+                }
+
+                current = new StringBuilder(line);
+            } else {
+                current.append('\n').append(line);
+            }
+
+            if (!StringUtils.stripEnd(line, null).endsWith("\\")) {
+                instructions.add(current.toString());
+                current = null;
+            }
+        }
+
+        if (current != null) {
+            instructions.add(current.toString());
+        }
+
+        return instructions;
+    }
+
+    /**
+     * @return the existing paths of the source, or null if the source can not be resolved in the context
+     */
+    @Nullable
+    private static List<Path> resolveSource(@NotNull Path root, @NotNull String source) throws IOException {
+        if (source.contains("://")) {
+            // Remote URL of ADD, no need to be in the context
+            return Collections.emptyList();
+        }
+
+        if (source.contains("$")) {
+            // Build arguments and environment variables are only known by the daemon
+            return null;
+        }
+
+        final String relative = StringUtils.stripStart(source, "/");
+        if (StringUtils.containsAny(relative, '*', '?', '[')) {
+            final Pattern glob = DockerIgnore.toRegex(StringUtils.stripEnd(relative, "/"));
+            try (Stream<Path> paths = Files.walk(root)) {
+                return paths.filter(path -> !path.equals(root))
+                            .filter(path -> glob.matcher(toSlashPath(root.relativize(path))).matches())
+                            .collect(Collectors.toList());
+            }
+        }
+
+        final Path path = root.resolve(relative.isEmpty() ? "." : relative).normalize();
+        if (!path.startsWith(root) || !Files.exists(path)) {
+            // Leave the error to the daemon with the original context
+            return null;
+        }
+
+        return Collections.singletonList(path);
+    }
+
+    /**
+     * Explode the artifact copied by the Dockerfile into the dependency and application layers of the context, and
+     * rewrite the instruction copying it.
+     *
+     * @return false if the artifact is not a Spring Boot jar or a war copied alone into a file path
+     */
+    private static boolean layer(@NotNull Path contextDir, @NotNull List<String> instructions, @NotNull Path root,
+                                 @NotNull Path artifact) throws IOException {
+        for (int i = 0; i < instructions.size(); i++) {
+            final CopyInstruction copy = CopyInstruction.parse(instructions.get(i));
+            if (copy == null || copy.sources.size() != 1) {
+                continue;
+            }
+
+            final List<Path> resolved = resolveSource(root, copy.sources.get(0));
+            if (resolved == null || resolved.size() != 1 || !resolved.get(0).equals(artifact)) {
+                continue;
+            }
+
+            final String destination = copy.destination;
+            final String mainClass;
+            final String libPrefix;
+            final String targetDir;
+            try (JarFile jar = new JarFile(artifact.toFile())) {
+                if (jar.getEntry(BOOT_INF) != null || jar.getEntry(BOOT_INF_LIB) != null) {
+                    final Manifest manifest = jar.getManifest();
+                    mainClass = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+                    if (mainClass == null || !destination.endsWith(".jar")) {
+                        return false;
+                    }
+
+                    libPrefix = BOOT_INF_LIB;
+                    targetDir = StringUtils.removeEnd(destination, ".jar");
+                } else if (artifact.getFileName().toString().endsWith(".war") && jar.getEntry(WEB_INF) != null) {
+                    if (!destination.endsWith(".war")) {
+                        return false;
+                    }
+
+                    mainClass = null;
+                    libPrefix = WEB_INF_LIB;
+                    targetDir = StringUtils.removeEnd(destination, ".war");
+                } else {
+                    return false;
+                }
+
+                if (mainClass != null && !rewriteJarLaunch(instructions, destination, mainClass)) {
+                    return false;
+                }
+
+                explode(jar, libPrefix, contextDir);
+            }
+
+            final String flags = copy.flags.isEmpty() ? "" : String.join(" ", copy.flags) + " ";
+            instructions.set(i, "COPY " + flags + DEPENDENCIES_LAYER + " " + targetDir + "/\n"
+                    + "COPY " + flags + APPLICATION_LAYER + " " + targetDir + "/");
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Replace `-jar app.jar` in ENTRYPOINT and CMD with the class path of the exploded jar and its launcher class.
+     */
+    private static boolean rewriteJarLaunch(@NotNull List<String> instructions, @NotNull String jarDestination,
+                                            @NotNull String mainClass) {
+        final String jarName = Pattern.quote(StringUtils.stripStart(jarDestination, "/"));
+        final Pattern shellForm = Pattern.compile("-jar\\s+(/?)" + jarName + "(?=\\s|$)");
+        final Pattern execForm = Pattern.compile("\"-jar\"\\s*,\\s*\"(/?)" + jarName + "\"");
+
+        boolean rewritten = false;
+        for (int i = 0; i < instructions.size(); i++) {
+            final Matcher matcher = INSTRUCTION.matcher(instructions.get(i));
+            if (!matcher.matches() || !StringUtils.equalsAnyIgnoreCase(matcher.group(1), "ENTRYPOINT", "CMD")) {
+                continue;
+            }
+
+            final String dir = StringUtils.removeEnd(StringUtils.stripStart(jarDestination, "/"), ".jar");
+            final String instruction = instructions.get(i);
+            final Matcher exec = execForm.matcher(instruction);
+            final Matcher shell = shellForm.matcher(instruction);
+            if (exec.find()) {
+                instructions.set(i, exec.replaceFirst(Matcher.quoteReplacement(
+                        "\"-cp\", \"" + exec.group(1) + dir + "\", \"" + mainClass + "\"")));
+                rewritten = true;
+            } else if (shell.find()) {
+                instructions.set(i, shell.replaceFirst(Matcher.quoteReplacement(
+                        "-cp " + shell.group(1) + dir + " " + mainClass)));
+                rewritten = true;
+            }
+        }
+
+        return rewritten;
+    }
+
+    private static void explode(@NotNull JarFile jar, @NotNull String libPrefix, @NotNull Path contextDir)
+            throws IOException {
+        final Path dependencies = contextDir.resolve(DEPENDENCIES_LAYER).normalize();
+        final Path application = contextDir.resolve(APPLICATION_LAYER).normalize();
+        Files.createDirectories(dependencies);
+        Files.createDirectories(application);
+
+        final Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            final JarEntry entry = entries.nextElement();
+            final Path layer = entry.getName().startsWith(libPrefix) ? dependencies : application;
+            final Path target = layer.resolve(entry.getName()).normalize();
+            if (!target.startsWith(layer)) {
+                throw new IOException("Illegal entry in the artifact: " + entry.getName());
+            }
+
+            if (entry.isDirectory()) {
+                Files.createDirectories(target);
+                continue;
+            }
+
+            Files.createDirectories(target.getParent());
+            try (InputStream in = jar.getInputStream(entry)) {
+                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // Keep the modified time of the entry, so the layer is the same if the artifact content is unchanged
+            if (entry.getTime() > 0) {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(entry.getTime()));
+            }
+        }
+    }
+
+    @NotNull
+    static String toSlashPath(@NotNull Path path) {
+        return path.toString().replace('\\', '/');
+    }
+
+    private static final class ContextWriter {
+        private final Path root;
+        private final Path target;
+        private final DockerIgnore dockerIgnore;
+
+        ContextWriter(@NotNull Path root, @NotNull Path target, @NotNull DockerIgnore dockerIgnore) {
+            this.root = root;
+            this.target = target;
+            this.dockerIgnore = dockerIgnore;
+        }
+
+        void add(@NotNull Path source) throws IOException {
+            if (Files.isDirectory(source)) {
+                final List<Path> files;
+                try (Stream<Path> paths = Files.walk(source)) {
+                    files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+                }
+
+                for (final Path file : files) {
+                    addFile(file);
+                }
+            } else {
+                addFile(source);
+            }
+        }
+
+        private void addFile(@NotNull Path file) throws IOException {
+            final Path relative = root.relativize(file);
+            if (dockerIgnore.isIgnored(relative)) {
+                return;
+            }
+
+            final Path copy = target.resolve(relative.toString());
+            if (Files.exists(copy)) {
+                return;
+            }
+
+            Files.createDirectories(copy.getParent());
+            try {
+                // Avoid copying large artifacts when the temporary folder is on the same file system
+                Files.createLink(copy, file);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(file, copy, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+    }
+
+    /**
+     * The COPY and ADD instructions copying from the build context.
+     */
+    static final class CopyInstruction {
+        final List<String> flags;
+        final List<String> sources;
+        final String destination;
+
+        private CopyInstruction(@NotNull List<String> flags, @NotNull List<String> sources,
+                                @NotNull String destination) {
+            this.flags = flags;
+            this.sources = sources;
+            this.destination = destination;
+        }
+
+        /**
+         * @return the parsed instruction, or null if it's not a COPY/ADD from the build context
+         */
+        @Nullable
+        static CopyInstruction parse(@NotNull String instruction) {
+            final Matcher matcher = INSTRUCTION.matcher(instruction);
+            if (!matcher.matches() || !StringUtils.equalsAnyIgnoreCase(matcher.group(1), "COPY", "ADD")) {
+                return null;
+            }
+
+            String arguments = matcher.group(2).replaceAll("\\\\\\s*\\n", " ").trim();
+            final List<String> flags = new ArrayList<>();
+            while (arguments.startsWith("--")) {
+                final int end = StringUtils.indexOfAny(arguments, ' ', '\t');
+                if (end < 0) {
+                    return null;
+                }
+
+                flags.add(arguments.substring(0, end));
+                arguments = arguments.substring(end).trim();
+            }
+
+            if (flags.stream().anyMatch(flag -> flag.startsWith("--from="))) {
+                // Copied from another stage or image
+                return null;
+            }
+
+            final List<String> args = new ArrayList<>();
+            if (arguments.startsWith("[")) {
+                final Matcher json = JSON_ARGUMENT.matcher(arguments);
+                while (json.find()) {
+                    args.add(json.group(1).replace("\\\"", "\""));
+                }
+            } else {
+                args.addAll(Arrays.asList(arguments.split("\\s+")));
+            }
+
+            if (args.size() < 2) {
+                return null;
+            }
+
+            return new CopyInstruction(flags, args.subList(0, args.size() - 1), args.get(args.size() - 1));
+        }
+    }
+
+    /**
+     * The exclusion rules of .dockerignore, the last matched rule wins and a rule starting with '!' is an exception.
+     */
+    static final class DockerIgnore {
+        private final List<Pattern> patterns = new ArrayList<>();
+        private final List<Boolean> exclusions = new ArrayList<>();
+
+        @NotNull
+        static DockerIgnore load(@NotNull Path file) throws IOException {
+            final DockerIgnore dockerIgnore = new DockerIgnore();
+            if (Files.isRegularFile(file)) {
+                for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    dockerIgnore.addRule(line);
+                }
+            }
+
+            return dockerIgnore;
+        }
+
+        void addRule(@NotNull String line) {
+            String rule = line.trim();
+            if (rule.isEmpty() || rule.startsWith("#")) {
+                return;
+            }
+
+            final boolean isException = rule.startsWith("!");
+            if (isException) {
+                rule = rule.substring(1).trim();
+            }
+
+            rule = StringUtils.strip(rule.replace('\\', '/'), "/");
+            if (rule.startsWith("./")) {
+                rule = rule.substring(2);
+            }
+
+            if (!rule.isEmpty()) {
+                patterns.add(toRegex(rule));
+                exclusions.add(!isException);
+            }
+        }
+
+        /**
+         * A path is ignored if itself or any of its parent directories is matched.
+         */
+        boolean isIgnored(@NotNull Path relativePath) {
+            final String path = toSlashPath(relativePath);
+            boolean ignored = false;
+            for (int i = 0; i < patterns.size(); i++) {
+                if (matches(patterns.get(i), path)) {
+                    ignored = exclusions.get(i);
+                }
+            }
+
+            return ignored;
+        }
+
+        private static boolean matches(@NotNull Pattern pattern, @NotNull String path) {
+            String current = path;
+            while (true) {
+                if (pattern.matcher(current).matches()) {
+                    return true;
+                }
+
+                final int slash = current.lastIndexOf('/');
+                if (slash < 0) {
+                    return false;
+                }
+
+                current = current.substring(0, slash);
+            }
+        }
+
+        /**
+         * Convert a docker path pattern into a regular expression, '**' matches any number of directories.
+         */
+        @NotNull
+        static Pattern toRegex(@NotNull String glob) {
+            final StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                final char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    final int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        final String range = glob.substring(i + 1, end);
+                        regex.append('[').append(range.startsWith("^") ? range : range.replaceFirst("^!", "^"))
+                             .append(']');
+                        i = end;
+                    }
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -6,11 +6,15 @@
 package com.microsoft.azuretools.sdkmanage;
 
 import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
 import com.microsoft.azure.arm.resources.AzureConfigurable;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.applicationinsights.v2015_05_01.implementation.InsightsManager;
 import com.microsoft.azure.management.resources.Tenant;
+import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistrationInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.azure.toolkit.lib.AzureConfiguration;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
@@ -24,20 +28,26 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.telemetry.TelemetryInterceptor;
 import com.microsoft.azuretools.utils.AzureRegisterProviderNamespaces;
 import com.microsoft.azuretools.utils.Pair;
+import com.microsoft.rest.RestClient;
 import okhttp3.Authenticator;
+import okhttp3.ConnectionPool;
 import okhttp3.Credentials;
+import okhttp3.OkHttpClient;
 import okhttp3.internal.http2.Settings;
 import org.apache.commons.lang3.StringUtils;
+import retrofit2.Retrofit;
+import rx.Observable;
+import rx.schedulers.Schedulers;
 
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -60,9 +70,13 @@ public abstract class AzureManagerBase implements AzureManager {
 
     private static final Logger LOGGER = Logger.getLogger(AzureManagerBase.class.getName());
     private static final String MICROSOFT_INSIGHTS_NAMESPACE = "microsoft.insights";
+    private static final int TENANT_DISCOVERY_CONCURRENCY = 8;
+    private static final long TENANT_DISCOVERY_TIMEOUT_SECONDS = 60;
+    private static final ConnectionPool SHARED_CONNECTION_POOL = new ConnectionPool();
 
     protected Map<String, Azure> sidToAzureMap = new ConcurrentHashMap<>();
     protected Map<String, InsightsManager> sidToInsightsManagerMap = new ConcurrentHashMap<>();
+    protected Map<String, Azure.Authenticated> tidToAuthenticatedMap = new ConcurrentHashMap<>();
     protected final SubscriptionManager subscriptionManager;
     protected static final Settings settings = new Settings();
 
@@ -111,25 +125,26 @@ public abstract class AzureManagerBase implements AzureManager {
     @Override
     @AzureOperation(name = "account.list_tenant_subscriptions", type = AzureOperation.Type.SERVICE)
     public List<Pair<Subscription, Tenant>> getSubscriptionsWithTenant() {
-        final List<Pair<Subscription, Tenant>> subscriptions = new LinkedList<>();
         final Azure.Authenticated authentication = authTenant(getCurrentTenantId());
         // could be multi tenant - return all subscriptions for the current account
         final List<Tenant> tenants = getTenants(authentication);
-        final List<String> failedTenantIds = new ArrayList<>();
-        for (final Tenant tenant : tenants) {
-            try {
-                final Azure.Authenticated tenantAuthentication = authTenant(tenant.tenantId());
-                final List<Subscription> tenantSubscriptions = getSubscriptions(tenantAuthentication);
-                for (final Subscription subscription : tenantSubscriptions) {
-                    subscriptions.add(new Pair<>(subscription, tenant));
-                }
-            } catch (final Exception e) {
-                // just skip for cases user failing to get subscriptions of tenants he/she has no permission to get access token.
-                LOGGER.log(Level.WARNING, e.getMessage(), e);
-                failedTenantIds.add(tenant.tenantId());
-
-            }
-        }
+        final List<String> failedTenantIds = Collections.synchronizedList(new ArrayList<>());
+        // tenants are listed concurrently, but the subscriptions are still returned in the order of the tenants
+        final List<Pair<Subscription, Tenant>> subscriptions = Observable.from(tenants)
+            .concatMapEager(tenant -> Observable.fromCallable(() -> listTenantSubscriptions(tenant))
+                .subscribeOn(Schedulers.io())
+                .timeout(TENANT_DISCOVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .flatMapIterable(tenantSubscriptions -> tenantSubscriptions)
+                .map(subscription -> new Pair<>(subscription, tenant))
+                .onErrorResumeNext(e -> {
+                    // just skip for cases user failing to get subscriptions of tenants he/she has no permission to get access token.
+                    LOGGER.log(Level.WARNING, e.getMessage(), e);
+                    failedTenantIds.add(tenant.tenantId());
+                    return Observable.empty();
+                }), TENANT_DISCOVERY_CONCURRENCY, TENANT_DISCOVERY_CONCURRENCY)
+            .toList()
+            .toBlocking()
+            .singleOrDefault(Collections.emptyList());
         if (!failedTenantIds.isEmpty()) {
             final INotification nw = CommonSettings.getUiFactory().getNotificationWindow();
             nw.deliver("Lack permission for some tenants", "You don't have permission on the tenant(s): " + StringUtils.join(failedTenantIds, ","));
@@ -138,20 +153,23 @@ public abstract class AzureManagerBase implements AzureManager {
         return subscriptions;
     }
 
+    protected List<Subscription> listTenantSubscriptions(Tenant tenant) {
+        return getSubscriptions(authTenant(tenant.tenantId()));
+    }
+
     @Override
     public @Nullable Azure getAzure(String sid) {
         if (!isSignedIn()) {
             return null;
         }
-        if (sidToAzureMap.containsKey(sid)) {
-            return sidToAzureMap.get(sid);
-        }
-        final String tid = this.subscriptionManager.getSubscriptionTenant(sid);
-        final Azure azure = authTenant(tid).withSubscription(sid);
-        // TODO: remove this call after Azure SDK properly implements handling of unregistered provider namespaces
-        AzureRegisterProviderNamespaces.registerAzureNamespaces(azure);
-        sidToAzureMap.put(sid, azure);
-        return azure;
+        // concurrent callers of the same subscription wait for the single client being created
+        return sidToAzureMap.computeIfAbsent(sid, s -> {
+            final String tid = this.subscriptionManager.getSubscriptionTenant(s);
+            final Azure azure = authTenant(tid).withSubscription(s);
+            // TODO: remove this call after Azure SDK properly implements handling of unregistered provider namespaces
+            AzureRegisterProviderNamespaces.registerAzureNamespaces(azure);
+            return azure;
+        });
     }
 
     public @Nullable InsightsManager getInsightsManager(String sid) {
@@ -200,6 +218,7 @@ public abstract class AzureManagerBase implements AzureManager {
     @Override
     public void drop() {
         LOGGER.log(Level.INFO, "ServicePrincipalAzureManager.drop()");
+        this.tidToAuthenticatedMap.clear();
         this.subscriptionManager.cleanSubscriptions();
     }
 
@@ -234,17 +253,32 @@ public abstract class AzureManagerBase implements AzureManager {
             .singleOrDefault(Collections.emptyList());
     }
 
+    /**
+     * The authenticated client of a tenant is cached until sign out, since the credentials refresh the tokens themselves.
+     */
     @AzureOperation(name = "account.auth_tenant.tenant", params = {"tenantId"}, type = AzureOperation.Type.TASK)
     protected Azure.Authenticated authTenant(String tenantId) {
-        final AzureTokenCredentials credentials = getCredentials(tenantId);
-        final Azure.Configurable configurable = Azure.configure()
-            .withInterceptor(new TelemetryInterceptor())
-            .withUserAgent(CommonSettings.USER_AGENT);
-        Optional.ofNullable(createProxyFromConfig()).ifPresent(proxy -> {
-            configurable.withProxy(proxy);
-            Optional.ofNullable(createProxyAuthenticatorFromConfig()).ifPresent(configurable::withProxyAuthenticator);
+        return tidToAuthenticatedMap.computeIfAbsent(tenantId, tid -> {
+            final AzureTokenCredentials credentials = getCredentials(tid);
+            // a new http client builder for each tenant, since the interceptors are added to the builder, but all the
+            // clients share the connections to the resource manager. The client is built as Azure.configure() does, which
+            // has no option for the connection pool
+            final OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder().connectionPool(SHARED_CONNECTION_POOL);
+            final RestClient.Builder builder = new RestClient.Builder(httpClientBuilder, new Retrofit.Builder())
+                .withBaseUrl(credentials.environment(), AzureEnvironment.Endpoint.RESOURCE_MANAGER)
+                .withCredentials(credentials)
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(new TelemetryInterceptor())
+                .withInterceptor(new ProviderRegistrationInterceptor(credentials))
+                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withUserAgent(CommonSettings.USER_AGENT);
+            Optional.ofNullable(createProxyFromConfig()).ifPresent(proxy -> {
+                builder.withProxy(proxy);
+                Optional.ofNullable(createProxyAuthenticatorFromConfig()).ifPresent(builder::withProxyAuthenticator);
+            });
+            return Azure.authenticate(builder.build(), tid);
         });
-        return configurable.authenticate(credentials);
     }
 
     protected InsightsManager authApplicationInsights(String subscriptionId, String tenantId) {
@@ -13,9 +13,13 @@ import com.microsoft.azuretools.telemetrywrapper.TelemetryManager;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 public class AppInsightsClient {
     static AppInsightsConfiguration configuration;
+    private static final Pattern NAME_SANITIZER = Pattern.compile("[\\s+.]");
+    private static volatile TelemetryQueue queue;
 
     public enum EventType {
         Action,
@@ -69,8 +73,8 @@ public class AppInsightsClient {
         final StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append(configuration.eventNamePrefix()).append(eventType.name());
         if (!StringUtils.isNullOrEmpty(objectName))
-            stringBuilder.append(".").append(objectName.replaceAll("[\\s+.]", ""));
-        if (!StringUtils.isNullOrEmpty(action)) stringBuilder.append(".").append(action.replaceAll("[\\s+.]", ""));
+            stringBuilder.append(".").append(NAME_SANITIZER.matcher(objectName).replaceAll(""));
+        if (!StringUtils.isNullOrEmpty(action)) stringBuilder.append(".").append(NAME_SANITIZER.matcher(action).replaceAll(""));
         create(stringBuilder.toString(), null, properties, force);
     }
 
@@ -97,15 +101,43 @@ public class AppInsightsClient {
         if (isAppInsightsClientAvailable() && configuration.validated()) {
             String prefValue = configuration.preferenceVal();
             if (prefValue == null || prefValue.isEmpty() || prefValue.equalsIgnoreCase("true") || force) {
-                AzureTelemetryClient telemetry = TelemetryClientSingleton.getTelemetry();
-                Map<String, String> properties = buildProperties(version, myProperties);
-                synchronized (TelemetryClientSingleton.class) {
-                    telemetry.trackEvent(eventName, properties, metrics);
+                // The common properties are added by the sender, only the caller's properties are copied here
+                Map<String, String> properties = myProperties == null ? new HashMap<>() : new HashMap<>(myProperties);
+                if (version != null && !version.isEmpty()) {
+                    properties.put("Library Version", version);
                 }
+                getQueue().offer(eventName, properties, metrics);
             }
         }
     }
 
+    private static TelemetryQueue getQueue() {
+        if (queue == null) {
+            synchronized (AppInsightsClient.class) {
+                if (queue == null) {
+                    final TelemetryQueue created = new TelemetryQueue(AppInsightsClient::trackEvent,
+                            TelemetryQueue.DEFAULT_CAPACITY, TelemetryQueue.DEFAULT_BATCH_SIZE,
+                            TelemetryQueue.DEFAULT_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS).start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(created::close, "AzureTelemetryFlush"));
+                    queue = created;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * @return the count of events dropped since the telemetry queue was full
+     */
+    public static long getDroppedEventCount() {
+        return queue == null ? 0 : queue.getDroppedCount();
+    }
+
+    // Only called by the single sender of the telemetry queue
+    private static void trackEvent(String eventName, Map<String, String> properties, Map<String, Double> metrics) {
+        TelemetryClientSingleton.getTelemetry().trackEvent(eventName, buildProperties(null, properties), metrics);
+    }
+
     private static Map<String, String> buildProperties(String version, Map<String, String> myProperties) {
         Map<String, String> properties = myProperties == null ? new HashMap<>() : new HashMap<>(myProperties);
         properties.put("SessionId", configuration.sessionId());
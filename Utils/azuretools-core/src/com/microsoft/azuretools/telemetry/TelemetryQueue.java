@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetry;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue of telemetry events, which are sent in batches by a background sender thread, so the callers never
+ * wait for the telemetry client. Identical events of a batch are sent once, with the count of the others in the
+ * {@link #DUPLICATES} metric. Events are dropped and counted when the queue is full.
+ */
+public class TelemetryQueue {
+    public static final String DUPLICATES = "Duplicates";
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    public interface TelemetrySink {
+        void trackEvent(@NotNull String eventName, @NotNull Map<String, String> properties,
+                        @Nullable Map<String, Double> metrics);
+    }
+
+    private final TelemetrySink sink;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    @Nullable
+    private volatile Thread sender;
+    private volatile boolean closed;
+
+    public TelemetryQueue(@NotNull TelemetrySink sink, int capacity, int batchSize, long flushInterval, TimeUnit unit) {
+        this.sink = sink;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+    }
+
+    /**
+     * Start the background sender. Without it, events are only sent by {@link #flush()}.
+     */
+    public synchronized TelemetryQueue start() {
+        if (sender == null && !closed) {
+            final Thread thread = new Thread(this::run, "AzureTelemetrySender");
+            thread.setDaemon(true);
+            sender = thread;
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * @return false if the event is dropped since the queue is full or closed
+     */
+    public boolean offer(@NotNull String eventName, @NotNull Map<String, String> properties,
+                         @Nullable Map<String, Double> metrics) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        events.offer(new Event(eventName, properties, metrics));
+        final Thread thread = sender;
+        if (thread != null && size.get() >= batchSize) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private void run() {
+        while (!closed) {
+            if (size.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Send all the queued events in the current thread.
+     *
+     * @return the count of the events sent, before the duplicates are merged
+     */
+    public synchronized int flush() {
+        int sent = 0;
+        List<Event> batch;
+        while (!(batch = poll()).isEmpty()) {
+            send(batch);
+            sent += batch.size();
+        }
+        return sent;
+    }
+
+    /**
+     * Stop the background sender and send the queued events, events offered since are dropped.
+     */
+    public void close() {
+        closed = true;
+        final Thread thread = sender;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        flush();
+    }
+
+    @NotNull
+    private List<Event> poll() {
+        final List<Event> batch = new ArrayList<>();
+        Event event;
+        while (batch.size() < batchSize && (event = events.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private void send(@NotNull List<Event> batch) {
+        final Map<Event, Integer> counts = new LinkedHashMap<>();
+        batch.forEach(event -> counts.merge(event, 1, Integer::sum));
+        counts.forEach((event, count) -> {
+            Map<String, Double> metrics = event.metrics;
+            if (count > 1) {
+                metrics = metrics == null ? new HashMap<>() : new HashMap<>(metrics);
+                metrics.put(DUPLICATES, (double) (count - 1));
+            }
+            try {
+                sink.trackEvent(event.name, event.properties, metrics);
+            } catch (Exception ignore) {
+                // Telemetry never breaks the sender
+            }
+        });
+    }
+
+    private static class Event {
+        private final String name;
+        private final Map<String, String> properties;
+        @Nullable
+        private final Map<String, Double> metrics;
+
+        Event(String name, Map<String, String> properties, @Nullable Map<String, Double> metrics) {
+            this.name = name;
+            this.properties = properties;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Event)) {
+                return false;
+            }
+            final Event other = (Event) o;
+            return name.equals(other.name) && properties.equals(other.properties)
+                    && Objects.equals(metrics, other.metrics);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, properties, metrics);
+        }
+    }
+}
@@ -6,24 +6,80 @@
 package com.microsoft.azuretools.utils;
 
 import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.toolkit.ide.common.store.AzureStoreManager;
+import com.microsoft.azure.toolkit.ide.common.store.IIdeStore;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AzureRegisterProviderNamespaces {
     private static final String[] namespaces = new String[]{"Microsoft.Resources", "Microsoft.Network", "Microsoft.Compute", "Microsoft.KeyVault",
         "Microsoft.Storage", "Microsoft.Web", "Microsoft.Authorization", "Microsoft.HDInsight", "Microsoft.DBforMySQL"};
+    // the time of the last successful check is persisted per subscription
+    private static final String SERVICE_NAME = "provider_namespaces";
+    private static final long CHECK_TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final int MAX_THREADS = 2;
 
+    private static final Set<String> checking = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService executor = createExecutor();
+
+    /**
+     * Register the namespaces of the subscription in background, if they haven't been checked within the TTL.
+     */
     public static void registerAzureNamespaces(Azure azureInstance) {
+        final String subscriptionId = azureInstance.subscriptionId();
+        if (isCheckedRecently(subscriptionId) || !checking.add(subscriptionId)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                Arrays.stream(namespaces)
+                        .map(azureInstance.providers()::getByName)
+                        .filter(provider -> !StringUtils.equalsIgnoreCase("Registered", provider.registrationState()))
+                        .forEach(provider -> azureInstance.providers().register(provider.namespace()));
+                setCheckedTime(subscriptionId, System.currentTimeMillis());
+            } catch (Exception ignored) {
+                // No need to handle this for now since this functionality will be eventually removed once the Azure SDK
+                //  something similar
+            } finally {
+                checking.remove(subscriptionId);
+            }
+        });
+    }
+
+    private static boolean isCheckedRecently(String subscriptionId) {
+        final IIdeStore store = AzureStoreManager.getInstance().getIdeStore();
+        if (store == null) {
+            return false;
+        }
+        final long checkedTime = NumberUtils.toLong(store.getProperty(SERVICE_NAME, subscriptionId), 0);
+        return System.currentTimeMillis() - checkedTime < CHECK_TTL_MILLIS;
+    }
 
-        try {
-            Arrays.stream(namespaces).parallel()
-                    .map(azureInstance.providers()::getByName)
-                    .filter(provider -> !StringUtils.equalsIgnoreCase("Registered", provider.registrationState()))
-                    .forEach(provider -> azureInstance.providers().register(provider.namespace()));
-        } catch (Exception ignored) {
-            // No need to handle this for now since this functionality will be eventually removed once the Azure SDK
-            //  something similar
+    private static void setCheckedTime(String subscriptionId, long time) {
+        final IIdeStore store = AzureStoreManager.getInstance().getIdeStore();
+        if (store != null) {
+            store.setProperty(SERVICE_NAME, subscriptionId, String.valueOf(time));
         }
     }
+
+    private static ExecutorService createExecutor() {
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "AzureRegisterProviderNamespaces-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
 }
@@ -5,34 +5,68 @@
 
 package com.microsoft.azuretools.utils;
 
-import rx.Observable;
-import rx.schedulers.Schedulers;
-
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Events are dispatched to the listeners asynchronously. Every listener has its own queue, so a listener runs one event
+ * at a time and a slow listener only delays itself. An event equal to one already waiting in the queue of a listener is
+ * dropped, and a listener running longer than the timeout is interrupted, but its next event still waits for it to
+ * return. No lock is held while the listeners run, so they can fire events or add and remove listeners themselves.
+ */
 public class AzureUIRefreshCore {
   public static final boolean RUN_LISTENER_EVENT_OPS = false;
+  public static final long LISTENER_TIMEOUT_SECONDS = 60;
   public static Map<String, AzureUIRefreshListener> listeners;
 
+  private static final Logger LOGGER = Logger.getLogger(AzureUIRefreshCore.class.getName());
+  // created by addListener and dropped once the listener is removed and its running event returned
+  static final Map<AzureUIRefreshListener, Dispatcher> dispatchers = new ConcurrentHashMap<>();
+  private static final ExecutorService executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+  static long listenerTimeoutMillis = TimeUnit.SECONDS.toMillis(LISTENER_TIMEOUT_SECONDS);
+
   public static synchronized void addListener(String id, AzureUIRefreshListener listener) {
     if (listeners == null) {
-      listeners = new HashMap<>();
+      listeners = new ConcurrentHashMap<>();
     }
-    listeners.put(id, listener);
+    final AzureUIRefreshListener replaced = listeners.put(id, listener);
+    if (replaced != null && replaced != listener) {
+      retire(replaced);
+    }
+    // a listener removed and added again gets its dispatcher back if it's still running an event, so the events are
+    // still run one at a time
+    dispatchers.compute(listener, (key, dispatcher) -> {
+      final Dispatcher active = dispatcher == null ? new Dispatcher(key) : dispatcher;
+      active.activate();
+      return active;
+    });
     if (RUN_LISTENER_EVENT_OPS) execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.ADD, id));
   }
 
-  public static synchronized void execute(AzureUIRefreshEvent event) {
-    if (listeners != null && !listeners.isEmpty()) {
-      Observable.from(listeners.values()).flatMap((listener) ->
-          Observable.create( subscriber -> {
-              listener.setEvent(event);
-              listener.run();
-              subscriber.onNext(listener);
-              subscriber.onCompleted();
-          })
-      ).subscribeOn(Schedulers.io()).toBlocking().subscribe();
+  public static void execute(AzureUIRefreshEvent event) {
+    final Map<String, AzureUIRefreshListener> current = listeners;
+    if (current != null && !current.isEmpty()) {
+      for (AzureUIRefreshListener listener : current.values()) {
+        // the listener may be being removed, then its dispatcher is already gone or retired
+        final Dispatcher dispatcher = dispatchers.get(listener);
+        if (dispatcher != null) {
+          dispatcher.offer(event);
+        }
+      }
     }
   }
 
@@ -40,7 +74,10 @@ public class AzureUIRefreshCore {
     if (listeners != null) {
       try {
         if (RUN_LISTENER_EVENT_OPS) execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.REMOVE, id));
-        listeners.remove(id);
+        final AzureUIRefreshListener removed = listeners.remove(id);
+        if (removed != null) {
+          retire(removed);
+        }
       } catch (Exception ex) {
         ex.printStackTrace();
       }
@@ -54,4 +91,163 @@ public class AzureUIRefreshCore {
       }
     }
   }
+
+  /**
+   * Drop the events waiting for a removed listener. Its dispatcher is kept until the running event returns.
+   */
+  private static void retire(AzureUIRefreshListener listener) {
+    dispatchers.computeIfPresent(listener, (key, dispatcher) -> dispatcher.deactivate() ? null : dispatcher);
+  }
+
+  private static boolean isSame(AzureUIRefreshEvent a, AzureUIRefreshEvent b) {
+    return a == b || (a.opsType == b.opsType && Objects.equals(a.object, b.object));
+  }
+
+  // the dispatchers map is always locked before a dispatcher, never the other way round
+  private static class Dispatcher {
+    private final AzureUIRefreshListener listener;
+    private final Deque<AzureUIRefreshEvent> pending = new ArrayDeque<>();
+    private boolean draining = false;
+    private boolean active = true;
+
+    Dispatcher(AzureUIRefreshListener listener) {
+      this.listener = listener;
+    }
+
+    synchronized void activate() {
+      active = true;
+    }
+
+    /**
+     * @return true if no event is running, so the dispatcher can be dropped
+     */
+    synchronized boolean deactivate() {
+      active = false;
+      pending.clear();
+      return !draining;
+    }
+
+    synchronized boolean isRetired() {
+      return !active && !draining;
+    }
+
+    void offer(AzureUIRefreshEvent event) {
+      synchronized (this) {
+        if (!active || pending.stream().anyMatch(waiting -> isSame(waiting, event))) {
+          return;
+        }
+        pending.add(event);
+        if (draining) {
+          return;
+        }
+        draining = true;
+      }
+      executor.execute(this::drain);
+    }
+
+    private void drain() {
+      while (true) {
+        final AzureUIRefreshEvent event;
+        synchronized (this) {
+          event = active ? pending.poll() : null;
+          if (event == null) {
+            pending.clear();
+            draining = false;
+          }
+        }
+        final boolean stopped = event == null || !run(event);
+        if (stopped) {
+          if (event != null) {
+            synchronized (this) {
+              draining = false;
+            }
+          }
+          // drop the dispatcher if the listener is removed while running, and not added back since
+          dispatchers.computeIfPresent(listener, (key, dispatcher) -> dispatcher == this && isRetired() ? null : dispatcher);
+          return;
+        }
+      }
+    }
+
+    /**
+     * Run the event on a worker thread with the timeout. A timed out listener is interrupted, and the next event is
+     * not run until it returns, since a listener may ignore the interruption.
+     *
+     * @return false if the dispatching thread is interrupted
+     */
+    private boolean run(AzureUIRefreshEvent event) {
+      final CompletableFuture<Void> done = new CompletableFuture<>();
+      final AtomicReference<Thread> worker = new AtomicReference<>();
+      executor.execute(() -> {
+        worker.set(Thread.currentThread());
+        try {
+          listener.setEvent(event);
+          listener.run();
+          done.complete(null);
+        } catch (Throwable ex) {
+          done.completeExceptionally(ex);
+        } finally {
+          // don't leave the interruption to the next task of the pooled thread
+          synchronized (worker) {
+            worker.set(null);
+            Thread.interrupted();
+          }
+        }
+      });
+      try {
+        try {
+          done.get(listenerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+          interrupt(worker);
+          LOGGER.log(Level.WARNING, String.format("Refresh listener %s timed out on event %s, interrupted.", listener, event.opsType));
+          awaitInterrupted(done, worker, event);
+        }
+      } catch (ExecutionException ex) {
+        LOGGER.log(Level.WARNING, String.format("Refresh listener %s failed on event %s.", listener, event.opsType), ex.getCause());
+      } catch (InterruptedException ex) {
+        interrupt(worker);
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      return true;
+    }
+
+    private void awaitInterrupted(CompletableFuture<Void> done, AtomicReference<Thread> worker, AzureUIRefreshEvent event)
+        throws ExecutionException, InterruptedException {
+      while (true) {
+        try {
+          done.get(listenerTimeoutMillis, TimeUnit.MILLISECONDS);
+          LOGGER.log(Level.INFO, String.format("Refresh listener %s returned from event %s after interrupted.", listener, event.opsType));
+          return;
+        } catch (TimeoutException ex) {
+          final Thread thread = worker.get();
+          if (thread != null) {
+            final StackTraceElement[] stack = thread.getStackTrace();
+            LOGGER.log(Level.WARNING, String.format("Refresh listener %s is still running event %s after interrupted, thread %s is %s at %s.",
+                listener, event.opsType, thread.getName(), thread.getState(), stack.length > 0 ? stack[0] : "unknown"));
+          }
+        }
+      }
+    }
+
+    private static void interrupt(AtomicReference<Thread> worker) {
+      synchronized (worker) {
+        final Thread thread = worker.get();
+        if (thread != null) {
+          thread.interrupt();
+        }
+      }
+    }
+  }
+
+  private static class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      final Thread thread = new Thread(runnable, "AzureUIRefresh-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.authmanage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileStorageTest {
+    private static final String FILE_NAME = "storage.json";
+    private static final int PROCESSES = 4;
+    private static final int OPERATIONS = 200;
+    private static final int RECORD_LENGTH = 4096;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private String baseDir;
+
+    @Before
+    public void setUp() {
+        baseDir = temporaryFolder.getRoot().getAbsolutePath();
+    }
+
+    @Test
+    public void testConcurrentProcessesNeverTearWrites() throws Exception {
+        final List<Process> writers = startProcesses("write");
+        // every read sees a whole record of one writer
+        while (writers.stream().anyMatch(Process::isAlive)) {
+            final byte[] data = new FileStorage(FILE_NAME, baseDir).read();
+            if (data.length > 0) {
+                assertEquals(RECORD_LENGTH, data.length);
+                final String content = new String(data, StandardCharsets.UTF_8);
+                assertTrue(content, content.matches("p\\d+:\\d+\\|x+"));
+            }
+        }
+        assertExited(writers);
+    }
+
+    @Test
+    public void testConcurrentProcessesNeverInterleaveAppends() throws Exception {
+        assertExited(startProcesses("append"));
+        final String content = new String(new FileStorage(FILE_NAME, baseDir).read(), StandardCharsets.UTF_8);
+        final List<String> lines = Arrays.asList(content.split("\n"));
+        assertEquals(PROCESSES * OPERATIONS, lines.size());
+        for (final String line : lines) {
+            assertEquals(RECORD_LENGTH - 1, line.length());
+            assertTrue(line, line.matches("p\\d+:\\d+\\|x+"));
+        }
+    }
+
+    private List<Process> startProcesses(String mode) throws IOException {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < PROCESSES; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Worker.class.getName(), mode, baseDir, "p" + i)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(baseDir, "p" + i + ".log"))
+                    .start());
+        }
+        return processes;
+    }
+
+    private static void assertExited(List<Process> processes) throws InterruptedException {
+        for (final Process process : processes) {
+            assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+            assertEquals(0, process.exitValue());
+        }
+    }
+
+    private static byte[] record(String writer, int index) {
+        final StringBuilder builder = new StringBuilder(writer).append(':').append(index).append('|');
+        while (builder.length() < RECORD_LENGTH) {
+            builder.append('x');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static class Worker {
+        public static void main(String[] args) throws IOException {
+            final String mode = args[0];
+            final String writer = args[2];
+            for (int i = 0; i < OPERATIONS; i++) {
+                if ("write".equals(mode)) {
+                    new FileStorage(FILE_NAME, args[1]).write(record(writer, i));
+                } else {
+                    final byte[] line = record(writer, i);
+                    line[line.length - 1] = '\n';
+                    new FileStorage(FILE_NAME, args[1]).append(line);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DockerBuildContextTest {
+    private static final String SPRING_DOCKERFILE = "FROM azul/zulu-openjdk-alpine:8\n"
+            + "EXPOSE 8080\n"
+            + "COPY target/app.jar app.jar\n"
+            + "COPY config/ /config/\n"
+            + "ENTRYPOINT java -Djava.security.egd=file:/dev/./urandom -jar /app.jar";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path project;
+
+    @Before
+    public void setUp() throws Exception {
+        project = temporaryFolder.getRoot().toPath();
+        write("src/Main.java", "class Main {}");
+        write("node_modules/lib/index.js", "");
+        write("config/application.yml", "server.port: 8080");
+        write("config/local.key", "secret");
+        write(DockerBuildContext.DOCKER_IGNORE_FILE, "# local secrets\n**/*.key\nnode_modules\n");
+        createBootJar(project.resolve("target/app.jar"));
+    }
+
+    @Test
+    public void testMinimalContextOnlyContainsCopiedFiles() throws Exception {
+        write("Dockerfile", SPRING_DOCKERFILE);
+
+        try (DockerBuildContext context = DockerBuildContext.prepare(project.resolve("Dockerfile"),
+                project.resolve("target/app.jar"), false)) {
+            final Path dir = context.getDirectory();
+            assertTrue(context.isMinimal());
+            assertFalse(context.isLayered());
+            assertEquals(3, context.getFileCount());
+            assertTrue(Files.exists(dir.resolve("Dockerfile")));
+            assertTrue(Files.exists(dir.resolve("target/app.jar")));
+            assertTrue(Files.exists(dir.resolve("config/application.yml")));
+            assertFalse(Files.exists(dir.resolve("config/local.key")));
+            assertFalse(Files.exists(dir.resolve("src")));
+        }
+    }
+
+    @Test
+    public void testLayeredContextSplitsSpringBootJar() throws Exception {
+        write("Dockerfile", SPRING_DOCKERFILE);
+
+        final Path dir;
+        try (DockerBuildContext context = DockerBuildContext.prepare(project.resolve("Dockerfile"),
+                project.resolve("target/app.jar"), true)) {
+            dir = context.getDirectory();
+            assertTrue(context.isLayered());
+            assertTrue(Files.exists(dir.resolve(DockerBuildContext.DEPENDENCIES_LAYER + "BOOT-INF/lib/dep.jar")));
+            assertTrue(Files.exists(dir.resolve(DockerBuildContext.APPLICATION_LAYER + "BOOT-INF/classes/App.class")));
+            assertFalse(Files.exists(dir.resolve("target/app.jar")));
+
+            final String dockerfile = new String(Files.readAllBytes(dir.resolve("Dockerfile")), StandardCharsets.UTF_8);
+            assertTrue(dockerfile.contains("COPY layers/dependencies/ app/\nCOPY layers/application/ app/\n"));
+            assertTrue(dockerfile.endsWith("-cp /app org.springframework.boot.loader.JarLauncher"));
+        }
+
+        assertFalse(Files.exists(dir));
+    }
+
+    @Test
+    public void testLayeredContextKeepsPlainJar() throws Exception {
+        write("Dockerfile", "FROM openjdk:8\nCOPY [\"target/plain.jar\", \"/plain.jar\"]\nCMD [\"java\", \"-jar\", \"/plain.jar\"]");
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(project.resolve("target/plain.jar")))) {
+            jar.putNextEntry(new JarEntry("Plain.class"));
+        }
+
+        try (DockerBuildContext context = DockerBuildContext.prepare(project.resolve("Dockerfile"),
+                project.resolve("target/plain.jar"), true)) {
+            assertFalse(context.isLayered());
+            assertTrue(Files.exists(context.getDirectory().resolve("target/plain.jar")));
+        }
+    }
+
+    @Test
+    public void testFullContextForBuildArguments() throws Exception {
+        write("Dockerfile", "FROM openjdk:8\nARG JAR_FILE\nCOPY ${JAR_FILE} app.jar");
+
+        try (DockerBuildContext context = DockerBuildContext.prepare(project.resolve("Dockerfile"), null, false)) {
+            assertFalse(context.isMinimal());
+            assertEquals(project, context.getDirectory());
+        }
+
+        assertTrue(Files.exists(project.resolve("src/Main.java")));
+    }
+
+    @Test
+    public void testDockerIgnoreRules() {
+        final DockerBuildContext.DockerIgnore dockerIgnore = new DockerBuildContext.DockerIgnore();
+        dockerIgnore.addRule("target");
+        dockerIgnore.addRule("!target/*.jar");
+        dockerIgnore.addRule("**/*.log");
+
+        assertTrue(dockerIgnore.isIgnored(Paths.get("target/classes/App.class")));
+        assertFalse(dockerIgnore.isIgnored(Paths.get("target/app.jar")));
+        assertTrue(dockerIgnore.isIgnored(Paths.get("logs/a/b.log")));
+        assertTrue(dockerIgnore.isIgnored(Paths.get("b.log")));
+        assertFalse(dockerIgnore.isIgnored(Paths.get("src/Main.java")));
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        final Path file = project.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void createBootJar(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "org.springframework.boot.loader.JarLauncher");
+        try (OutputStream out = Files.newOutputStream(path); JarOutputStream jar = new JarOutputStream(out, manifest)) {
+            jar.putNextEntry(new JarEntry("BOOT-INF/"));
+            jar.putNextEntry(new JarEntry("BOOT-INF/lib/dep.jar"));
+            jar.write("dependency".getBytes(StandardCharsets.UTF_8));
+            jar.putNextEntry(new JarEntry("BOOT-INF/classes/App.class"));
+            jar.write("application".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.sdkmanage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.management.resources.Tenant;
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import com.microsoft.azuretools.adauth.PromptBehavior;
+import com.microsoft.azuretools.utils.Pair;
+
+public class AzureManagerBaseTest {
+    private static final int TENANTS = 50;
+    private static final long LATENCY_MILLIS = 100;
+
+    @Test
+    public void testTenantsAreListedConcurrentlyInOrder() {
+        final FakeAzureManager manager = new FakeAzureManager();
+        final long start = System.nanoTime();
+        final List<Pair<Subscription, Tenant>> subscriptions = manager.getSubscriptionsWithTenant();
+        final long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(TENANTS, subscriptions.size());
+        for (int i = 0; i < TENANTS; i++) {
+            assertSame(manager.tenants.get(i), subscriptions.get(i).second());
+        }
+        assertTrue("max concurrency " + manager.maxConcurrency.get(), manager.maxConcurrency.get() <= 8);
+        // serial listing takes TENANTS * LATENCY_MILLIS
+        assertTrue(String.format("listed in %d ms", millis), millis < TENANTS * LATENCY_MILLIS / 2);
+    }
+
+    private static class FakeAzureManager extends AzureManagerBase {
+        private final List<Tenant> tenants = IntStream.range(0, TENANTS).mapToObj(i -> {
+            final Tenant tenant = mock(Tenant.class);
+            when(tenant.tenantId()).thenReturn("tenant" + i);
+            return tenant;
+        }).collect(Collectors.toList());
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+
+        @Override
+        protected Azure.Authenticated authTenant(String tenantId) {
+            return null;
+        }
+
+        @Override
+        protected List<Tenant> getTenants(Azure.Authenticated authentication) {
+            return tenants;
+        }
+
+        @Override
+        protected List<Subscription> listTenantSubscriptions(Tenant tenant) {
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrency.decrementAndGet();
+            }
+            return Collections.singletonList(mock(Subscription.class));
+        }
+
+        @Override
+        protected String getCurrentTenantId() {
+            return "common";
+        }
+
+        @Override
+        public Subscription getSubscriptionById(String sid) {
+            return null;
+        }
+
+        @Override
+        public List<Subscription> getSelectedSubscriptions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getCurrentUserId() {
+            return null;
+        }
+
+        @Override
+        public String getAccessToken(String tid, String resource, PromptBehavior promptBehavior) {
+            return null;
+        }
+    }
+}
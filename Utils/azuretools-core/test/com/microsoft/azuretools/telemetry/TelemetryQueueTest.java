@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+
+public class TelemetryQueueTest {
+    private static final int CALLERS = 32;
+    private static final int EVENTS_PER_CALLER = 50;
+
+    @Test
+    public void testIdenticalEventsOfBatchAreMerged() {
+        final InMemorySink sink = new InMemorySink(0);
+        final TelemetryQueue queue = new TelemetryQueue(sink, 100, 10, 1, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            queue.offer("AzurePlugin.Azure.web.GET", properties("200"), null);
+        }
+        queue.offer("AzurePlugin.Azure.web.GET", properties("404"), null);
+
+        assertEquals(4, queue.flush());
+        assertEquals(2, sink.events.size());
+        assertEquals(2.0, sink.events.get(0).metrics.get(TelemetryQueue.DUPLICATES), 0);
+        assertNull(sink.events.get(1).metrics);
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenFull() {
+        final InMemorySink sink = new InMemorySink(0);
+        final TelemetryQueue queue = new TelemetryQueue(sink, 10, 5, 1, TimeUnit.SECONDS);
+        for (int i = 0; i < 15; i++) {
+            queue.offer("event" + i, properties("200"), null);
+        }
+
+        assertEquals(5, queue.getDroppedCount());
+        assertEquals(10, queue.flush());
+        assertEquals(10, sink.events.size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testCloseFlushesQueuedEvents() {
+        final InMemorySink sink = new InMemorySink(0);
+        final TelemetryQueue queue = new TelemetryQueue(sink, 100, 10, 1, TimeUnit.HOURS).start();
+        queue.offer("event", properties("200"), null);
+        queue.close();
+
+        assertEquals(1, sink.events.size());
+        assertFalse(queue.offer("event", properties("200"), null));
+    }
+
+    @Test
+    public void testCallersDoNotWaitForSlowSink() throws Exception {
+        // the telemetry client called under a global lock on the caller threads
+        final InMemorySink syncSink = new InMemorySink(1);
+        final long syncMillis = runCallers((name, properties) -> {
+            synchronized (syncSink) {
+                syncSink.trackEvent(name, properties, null);
+            }
+        });
+
+        final InMemorySink queuedSink = new InMemorySink(1);
+        final TelemetryQueue queue = new TelemetryQueue(queuedSink, TelemetryQueue.DEFAULT_CAPACITY,
+                TelemetryQueue.DEFAULT_BATCH_SIZE, 10, TimeUnit.MILLISECONDS).start();
+        final long queuedMillis = runCallers((name, properties) -> queue.offer(name, properties, null));
+        queue.close();
+
+        assertEquals(CALLERS * EVENTS_PER_CALLER, syncSink.events.size());
+        assertEquals(0, queue.getDroppedCount());
+        assertEquals(CALLERS * EVENTS_PER_CALLER, queuedSink.events.size());
+        assertTrue(String.format("sync %d ms, queued %d ms", syncMillis, queuedMillis), queuedMillis < syncMillis);
+    }
+
+    private static long runCallers(BiConsumer<String, Map<String, String>> track) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int caller = 0; caller < CALLERS; caller++) {
+            final int id = caller;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < EVENTS_PER_CALLER; i++) {
+                    // a distinct request id per event, as the interceptor sends
+                    final Map<String, String> properties = properties("200");
+                    properties.put(TelemetryInterceptor.MS_REQUEST_ID, id + "-" + i);
+                    track.accept("AzurePlugin.Azure.web.GET", properties);
+                }
+                return null;
+            }));
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        final long millis = (System.nanoTime() - begin) / 1_000_000;
+        executor.shutdown();
+        return millis;
+    }
+
+    private static Map<String, String> properties(String code) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(TelemetryInterceptor.RESPONSE_CODE, code);
+        return properties;
+    }
+
+    private static class InMemorySink implements TelemetryQueue.TelemetrySink {
+        private final List<TrackedEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final long latencyMillis;
+
+        InMemorySink(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public void trackEvent(String eventName, Map<String, String> properties, Map<String, Double> metrics) {
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(new TrackedEvent(eventName, properties, metrics));
+        }
+    }
+
+    private static class TrackedEvent {
+        private final String name;
+        private final Map<String, String> properties;
+        private final Map<String, Double> metrics;
+
+        TrackedEvent(String name, Map<String, String> properties, Map<String, Double> metrics) {
+            this.name = name;
+            this.properties = properties;
+            this.metrics = metrics;
+        }
+    }
+}
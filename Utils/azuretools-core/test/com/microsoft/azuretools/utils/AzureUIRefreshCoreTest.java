@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AzureUIRefreshCoreTest {
+    private final List<String> ids = new ArrayList<>();
+    private long defaultTimeoutMillis;
+
+    @Before
+    public void setUp() {
+        defaultTimeoutMillis = AzureUIRefreshCore.listenerTimeoutMillis;
+    }
+
+    @After
+    public void tearDown() {
+        ids.forEach(AzureUIRefreshCore::removeListener);
+        AzureUIRefreshCore.listenerTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockCallerOrOthers() throws Exception {
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch fastDone = new CountDownLatch(1);
+        add("slow", () -> {
+            slowStarted.countDown();
+            sleep(2000);
+        });
+        add("fast", fastDone::countDown);
+
+        final long start = System.nanoTime();
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(fastDone.await(1, TimeUnit.SECONDS));
+        assertTrue(slowStarted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReentrantListenerDoesNotDeadlock() throws Exception {
+        final CountDownLatch reentered = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        add("reentrant", () -> {
+            if (runs.incrementAndGet() == 1) {
+                AzureUIRefreshCore.addListener("added", new Listener(() -> { }));
+                AzureUIRefreshCore.removeListener("added");
+                AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.REFRESH, "again"));
+            } else {
+                reentered.countDown();
+            }
+        });
+
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.REFRESH, null));
+        assertTrue(reentered.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDuplicatePendingEventsAreCoalescedAndSerialized() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger concurrency = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+        add("blocked", () -> {
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runs.incrementAndGet();
+            concurrency.decrementAndGet();
+        });
+
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null));
+        }
+        release.countDown();
+
+        waitFor(() -> runs.get() >= 2);
+        sleep(200);
+        assertEquals(2, runs.get());
+        assertEquals(1, maxConcurrency.get());
+    }
+
+    @Test
+    public void testTimedOutListenerIsInterrupted() throws Exception {
+        AzureUIRefreshCore.listenerTimeoutMillis = 100;
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        add("stuck", () -> {
+            if (runs.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        });
+
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null));
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.SIGNOUT, null));
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        waitFor(() -> runs.get() == 2);
+    }
+
+    @Test
+    public void testNextEventWaitsForTimedOutListenerIgnoringInterrupt() throws Exception {
+        AzureUIRefreshCore.listenerTimeoutMillis = 100;
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger concurrency = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+        add("deaf", () -> {
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            if (runs.incrementAndGet() == 1) {
+                final long deadline = System.currentTimeMillis() + 500;
+                while (System.currentTimeMillis() < deadline) {
+                    // ignores the interruption
+                    sleep(10);
+                }
+            }
+            concurrency.decrementAndGet();
+        });
+
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null));
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.SIGNOUT, null));
+        waitFor(() -> runs.get() == 2);
+        assertEquals(1, maxConcurrency.get());
+    }
+
+    @Test
+    public void testListenerAddedBackWhileRunningIsNotRunConcurrently() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger concurrency = new AtomicInteger();
+        final AtomicInteger maxConcurrency = new AtomicInteger();
+        final Listener listener = new Listener(() -> {
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runs.incrementAndGet();
+            concurrency.decrementAndGet();
+        });
+        ids.add("readded");
+        AzureUIRefreshCore.addListener("readded", listener);
+
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        AzureUIRefreshCore.removeListener("readded");
+        AzureUIRefreshCore.addListener("readded", listener);
+        AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.REFRESH, null));
+        release.countDown();
+
+        waitFor(() -> runs.get() == 2);
+        assertEquals(1, maxConcurrency.get());
+    }
+
+    @Test
+    public void testExecuteRacingRemoveLeavesNoDispatcher() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        for (int round = 0; round < 2000; round++) {
+            AzureUIRefreshCore.addListener("racing", new Listener(runs::incrementAndGet));
+            final Thread executing = new Thread(() -> AzureUIRefreshCore.execute(
+                    new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, null)));
+            executing.start();
+            AzureUIRefreshCore.removeListener("racing");
+            executing.join();
+        }
+
+        waitFor(AzureUIRefreshCore.dispatchers::isEmpty);
+    }
+
+    private void add(String id, Runnable action) {
+        ids.add(id);
+        AzureUIRefreshCore.addListener(id, new Listener(action));
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.currentTimeMillis() < deadline);
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Listener extends AzureUIRefreshListener {
+        private final Runnable action;
+
+        Listener(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            action.run();
+        }
+    }
+}
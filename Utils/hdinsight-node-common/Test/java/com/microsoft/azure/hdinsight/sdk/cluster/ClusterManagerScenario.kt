@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.cluster
+
+import com.google.gson.Gson
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.mock
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ClusterManagerScenario {
+    private var subscriptions: List<SubscriptionDetail> = emptyList()
+    private var clustersPerSubscription = 0
+    private var latencyMillis = 0L
+    private val concurrentRequests = AtomicInteger()
+    private val maxConcurrentRequests = AtomicInteger()
+
+    // A local fake of the management endpoint, taking the latency for each request
+    private fun <T> request(response: () -> T): T {
+        maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max)
+        try {
+            Thread.sleep(latencyMillis)
+
+            return response()
+        } finally {
+            concurrentRequests.decrementAndGet()
+        }
+    }
+
+    private fun listCluster(subscription: SubscriptionDetail): List<ClusterRawInfo> = request {
+        (0 until clustersPerSubscription).map {
+            val name = "${subscription.subscriptionId}-cluster$it"
+            Gson().fromJson("""{
+                "id": "/subscriptions/${subscription.subscriptionId}/resourceGroups/rg/providers/Microsoft.HDInsight/clusters/$name",
+                "name": "$name",
+                "properties": { "osType": "Linux", "clusterDefinition": { "kind": "Spark" } }
+            }""", ClusterRawInfo::class.java)
+        }
+    }
+
+    private fun resolveClusterDetail(subscription: SubscriptionDetail, clusterRawInfo: ClusterRawInfo): ClusterDetail =
+            request {
+                val clusterMock = mock(ClusterDetail::class.java)
+                doReturn(clusterRawInfo.name).`when`(clusterMock).name
+                doReturn(subscription).`when`(clusterMock).subscription
+
+                clusterMock
+            }
+
+    @Given("^a fake management endpoint of (\\d+) subscriptions with (\\d+) Spark clusters each, responding in (\\d+) milliseconds$")
+    fun mockManagementEndpoint(subscriptionCount: Int, clusterCount: Int, latency: Long) {
+        subscriptions = (0 until subscriptionCount).map {
+            val subscriptionMock = mock(SubscriptionDetail::class.java)
+            doReturn("sub$it").`when`(subscriptionMock).subscriptionId
+            doReturn(true).`when`(subscriptionMock).isSelected
+
+            subscriptionMock
+        }
+        clustersPerSubscription = clusterCount
+        latencyMillis = latency
+    }
+
+    @Then("^list all HDInsight clusters, and (\\d+) clusters should be got in less than (\\d+) milliseconds$")
+    fun checkListClusters(clusterCountExpect: Int, millisExpect: Long) {
+        val start = System.nanoTime()
+        var firstClusterMillis = -1L
+        val clusters = ClusterManager.getInstance()
+                .getHDInsightClusterDetailsWithSpecificType(
+                        subscriptions, "linux", ::listCluster, ::resolveClusterDetail)
+                .doOnNext {
+                    if (firstClusterMillis < 0) {
+                        firstClusterMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    }
+                }
+                .toList()
+                .toBlocking()
+                .single()
+        val fullMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        println("The first cluster is resolved in $firstClusterMillis ms, all clusters in $fullMillis ms")
+
+        assertThat(clusters).hasSize(clusterCountExpect)
+        assertThat(clusters.map { it.name }).doesNotHaveDuplicates()
+        assertThat(fullMillis).isLessThan(millisExpect)
+        assertThat(firstClusterMillis).isLessThan(fullMillis)
+    }
+
+    @Then("^the concurrent requests to the fake management endpoint should be no more than (\\d+)$")
+    fun checkConcurrentRequests(maxExpect: Int) {
+        assertThat(maxConcurrentRequests.get()).isLessThanOrEqualTo(maxExpect)
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
+import com.github.tomakehurst.wiremock.stubbing.Scenario
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import cucumber.api.java.After
+import cucumber.api.java.Before
+import cucumber.api.java.en.And
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import rx.schedulers.TestScheduler
+import java.net.URI
+import java.util.concurrent.TimeUnit
+
+class SessionPoolScenario {
+    var httpServerMock: MockHttpService? = null
+    var scheduler: TestScheduler = TestScheduler()
+    var pool: SessionPool? = null
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+        scheduler = TestScheduler()
+    }
+
+    @After
+    fun tearDown() {
+        pool?.close()
+    }
+
+    private fun sessionResponse(id: Int, state: String): String =
+            "{\"id\":$id,\"appId\":null,\"owner\":null,\"proxyUser\":null,\"state\":\"$state\",\"kind\":\"spark\"," +
+                    "\"appInfo\":{\"driverLogUrl\":null,\"sparkUiUrl\":null},\"log\":[]}"
+
+    @Given("^mock the livy service to create the interactive sessions (.+) in order$")
+    fun mockCreateSessions(ids: String) {
+        WireMock.configureFor(httpServerMock!!.port)
+        ids.split(",").map { it.trim().toInt() }.forEachIndexed { index, id ->
+            WireMock.stubFor(WireMock.post(urlEqualTo("/sessions"))
+                    .inScenario("create")
+                    .whenScenarioStateIs(if (index == 0) Scenario.STARTED else "created$index")
+                    .willSetStateTo("created${index + 1}")
+                    .willReturn(WireMock.aResponse().withStatus(200).withBody(sessionResponse(id, "starting"))))
+        }
+
+        WireMock.stubFor(WireMock.delete(WireMock.urlMatching("/sessions/\\d+"))
+                .willReturn(WireMock.aResponse().withStatus(200).withBody("{\"msg\":\"deleted\"}")))
+    }
+
+    @And("^mock the livy interactive session (\\d+) to be (.+)$")
+    fun mockSessionState(id: Int, state: String) {
+        httpServerMock!!.stub("GET", "/sessions/$id", 200, sessionResponse(id, state))
+    }
+
+    @And("^create a livy session pool of size (\\d+) with idle timeout (\\d+) minutes$")
+    fun createSessionPool(size: Int, idleTimeoutMinutes: Long) {
+        // Heartbeats are triggered by steps, rather than by the interval
+        pool = SessionPool(size, idleTimeoutMinutes, TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES, scheduler)
+    }
+
+    private fun take(key: String): Session? {
+        val session = pool!!.take(key) { SparkSession("pool-test", URI.create(httpServerMock!!.completeUrl("/"))) }
+        scheduler.triggerActions()
+
+        return session
+    }
+
+    @Then("^take a session of key '(.+)' from the pool, and nothing should be got$")
+    fun checkTakeNothing(key: String) {
+        assertThat(take(key)).isNull()
+    }
+
+    @Then("^take a session of key '(.+)' from the pool, and the session (\\d+) should be got$")
+    fun checkTakeSession(key: String, idExpect: Int) {
+        assertThat(take(key)?.id).isEqualTo(idExpect)
+    }
+
+    @Then("^the warm sessions of key '(.+)' in the pool should be '(.*)'$")
+    fun checkWarmSessions(key: String, idsExpect: String) {
+        assertThat(pool!!.getSessions(key, SessionPool.State.WARM).joinToString(",") { it.id.toString() })
+                .isEqualTo(idsExpect)
+    }
+
+    @And("^send the pool heartbeat after (\\d+) minutes$")
+    fun heartbeat(minutes: Long) {
+        scheduler.advanceTimeBy(minutes, TimeUnit.MINUTES)
+        pool!!.heartbeat()
+        scheduler.triggerActions()
+    }
+
+    @Then("^check the livy interactive session (\\d+) is killed by the pool$")
+    fun checkSessionKilled(id: Int) {
+        WireMock.configureFor(httpServerMock!!.port)
+        WireMock.verify(WireMock.deleteRequestedFor(urlEqualTo("/sessions/$id")))
+    }
+}
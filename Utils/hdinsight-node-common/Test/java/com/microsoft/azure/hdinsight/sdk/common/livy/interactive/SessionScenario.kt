@@ -24,6 +24,7 @@ package com.microsoft.azure.hdinsight.sdk.common.livy.interactive
 
 import com.github.tomakehurst.wiremock.client.WireMock
 import com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
+import com.github.tomakehurst.wiremock.stubbing.Scenario
 import com.microsoft.azure.hdinsight.sdk.common.errorresponse.BadRequestHttpErrorStatus
 import com.microsoft.azure.hdinsight.spark.common.MockHttpService
 import cucumber.api.java.Before
@@ -33,6 +34,7 @@ import cucumber.api.java.en.Then
 import org.assertj.core.api.Assertions.assertThat
 import rx.subjects.PublishSubject
 import java.net.URI
+import java.util.concurrent.TimeUnit
 import kotlin.test.fail
 
 class SessionScenario {
@@ -122,6 +124,46 @@ class SessionScenario {
                 .containsExactlyElementsOf(outputExpect)
     }
 
+    @And("^setup a mock livy interactive statement '(.+)' to be running for (\\d+) polls and then return '(.+)'$")
+    fun mockRunningStatement(serviceUrl: String, runningPolls: Int, response: String) {
+        WireMock.configureFor(httpServerMock!!.port)
+        val runningResponse = "{\"id\":${serviceUrl.substringAfterLast('/')},\"state\":\"running\",\"output\":null}"
+        (0 until runningPolls).forEach {
+            WireMock.stubFor(WireMock.get(urlEqualTo(serviceUrl))
+                    .inScenario(serviceUrl)
+                    .whenScenarioStateIs(if (it == 0) Scenario.STARTED else "poll$it")
+                    .willSetStateTo("poll${it + 1}")
+                    .willReturn(WireMock.aResponse().withStatus(200).withBody(runningResponse)))
+        }
+
+        WireMock.stubFor(WireMock.get(urlEqualTo(serviceUrl))
+                .inScenario(serviceUrl)
+                .whenScenarioStateIs(if (runningPolls == 0) Scenario.STARTED else "poll$runningPolls")
+                .willReturn(WireMock.aResponse().withStatus(200).withBody(response)))
+    }
+
+    @Then("^check the median latency of running the code '(.+)' (\\d+) times should be less than (\\d+) milliseconds$")
+    fun checkMedianStatementLatency(code: String, times: Int, latencyExpect: Long) {
+        val latencies = (0 until times).map {
+            WireMock.resetAllScenarios()
+            val start = System.nanoTime()
+            sessionMock!!.runCodes(code)
+                    .toBlocking()
+                    .single()
+
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        }.sorted()
+
+        assertThat(latencies[times / 2]).isLessThan(latencyExpect)
+    }
+
+    @Then("^check the statement polling delays in milliseconds should be$")
+    fun checkStatementPollingDelays(expect: Map<String, String>) {
+        expect.forEach { (attempt, delay) ->
+            assertThat(Statement.getPollingDelayMillis(attempt.toInt())).isEqualTo(delay.toLong())
+        }
+    }
+
     @Then("^those request headers UA fields are different$")
     fun checkHeaderUaBeDifferent() {
         val uas = httpServerMock!!.livyServerMock.allServeEvents
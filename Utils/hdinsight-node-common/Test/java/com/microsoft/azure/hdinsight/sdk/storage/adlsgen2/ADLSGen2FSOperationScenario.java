@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
+
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ADLSGen2FSOperationScenario {
+    private MockHttpService httpServerMock;
+    private ADLSGen2FSOperation op;
+
+    @Before
+    public void setUp() {
+        httpServerMock = new MockHttpService();
+        op = new ADLSGen2FSOperation(new HttpObservable());
+        ADLSGen2ListingCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void tearDown() {
+        httpServerMock.getLivyServerMock().stop();
+    }
+
+    @Given("^mock ADLS Gen2 list request '(.+)' to return '(.+)' with continuation '(.*)'$")
+    public void mockListRequest(String serviceUrl, String response, String continuation) {
+        httpServerMock.stubWithHeader("GET", serviceUrl, 200, response,
+                continuation.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.singletonMap(ADLSGen2FSOperation.CONTINUATION_HEADER, continuation));
+    }
+
+    @Then("^listing directory '(.+)' of file system '(.+)' with page size (\\d+) should get paths:$")
+    public void checkListing(String directory, String fileSystem, int pageSize, List<String> expectedPaths) {
+        List<String> paths = op.listPages(httpServerMock.completeUrl(fileSystem), directory, pageSize)
+                .concatMap(page -> rx.Observable.from(page.getRemoteFiles()))
+                .map(RemoteFile::getName)
+                .toList()
+                .toBlocking()
+                .single();
+
+        assertTrue("There are unmatched requests.",
+                httpServerMock.getLivyServerMock().findAllUnmatchedRequests().isEmpty());
+        assertThat(paths).containsExactlyElementsOf(expectedPaths);
+    }
+
+    @Then("^the listing cache of directory '(.+)' in '(.+)' is invalidated by uploading '(.+)'$")
+    public void checkCacheInvalidation(String directory, String fileSystemRootPath, String uploadPath) {
+        ADLSGen2ListingCache cache = ADLSGen2ListingCache.getInstance();
+        cache.put(fileSystemRootPath, directory, Collections.emptyList());
+        assertNotNull(cache.get(fileSystemRootPath, directory));
+
+        cache.invalidateAncestors(uploadPath);
+        assertNull(cache.get(fileSystemRootPath, directory));
+    }
+
+    @Then("^the listing cache of directory '(.+)' in '(.+)' is kept after uploading '(.+)'$")
+    public void checkCacheKept(String directory, String fileSystemRootPath, String uploadPath) {
+        ADLSGen2ListingCache cache = ADLSGen2ListingCache.getInstance();
+        cache.put(fileSystemRootPath, directory, Collections.emptyList());
+
+        cache.invalidateAncestors(uploadPath);
+        assertNotNull(cache.get(fileSystemRootPath, directory));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.sun.net.httpserver.HttpServer;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.commons.io.IOUtils;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JobViewHttpResponseScenario {
+    private final Map<String, Object> sources = new HashMap<>();
+    private HttpServer server;
+    private IClusterDetail cluster;
+    private HttpURLConnection connection;
+    private String lastETag;
+
+    @Before
+    public void setUp() throws Throwable {
+        cluster = mock(IClusterDetail.class);
+        when(cluster.getConnectionUrl()).thenReturn("https://mock.azurehdinsight.net");
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/applications/stages_summary", httpExchange -> {
+            final String appId = httpExchange.getRequestURI().getQuery().replace("appId=", "");
+            JobViewHttpResponse.sendCachedJson(httpExchange, new ApplicationKey(cluster, appId), sources.get(appId));
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Given("^the job view response source of application '(.+)' is '(.+)'$")
+    public void setSource(String appId, String json) throws Throwable {
+        sources.put(appId, new ObjectMapper().readValue(json, Map.class));
+    }
+
+    @Then("^request the job view response of application '(.+)' with Accept-Encoding '(.*)'$")
+    public void request(String appId, String acceptEncoding) throws Throwable {
+        request(appId, acceptEncoding, null);
+    }
+
+    @Then("^request the job view response of application '(.+)' with the last ETag$")
+    public void requestWithLastETag(String appId) throws Throwable {
+        assertNotNull(lastETag);
+        request(appId, "", lastETag);
+    }
+
+    @Then("^invalidate the job view responses of application '(.+)'$")
+    public void invalidate(String appId) {
+        JobViewHttpResponse.invalidate(new ApplicationKey(cluster, appId));
+    }
+
+    @Then("^the response status should be (\\d+)$")
+    public void checkStatus(int expected) throws Throwable {
+        assertEquals(expected, connection.getResponseCode());
+    }
+
+    @Then("^the response header '(.+)' should be '(.*)'$")
+    public void checkHeader(String name, String expected) {
+        assertEquals(expected.isEmpty() ? null : expected, connection.getHeaderField(name));
+    }
+
+    @Then("^the response body should be '(.*)'$")
+    public void checkBody(String expected) throws Throwable {
+        final boolean isGzip = "gzip".equals(connection.getHeaderField("Content-Encoding"));
+        try (InputStream body = isGzip ? new GZIPInputStream(connection.getInputStream()) : connection.getInputStream()) {
+            assertEquals(expected, IOUtils.toString(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Then("^the response ETag should be (the same as|different from) the last one$")
+    public void checkETag(String comparison) {
+        final String eTag = connection.getHeaderField("ETag");
+        assertNotNull(eTag);
+        if (comparison.equals("the same as")) {
+            assertEquals(lastETag, eTag);
+        } else {
+            assertNotEquals(lastETag, eTag);
+        }
+    }
+
+    @Then("^remember the response ETag$")
+    public void rememberETag() {
+        lastETag = connection.getHeaderField("ETag");
+        assertNotNull(lastETag);
+    }
+
+    private void request(String appId, String acceptEncoding, String ifNoneMatch) throws Throwable {
+        final URL url = new URL(String.format("http://localhost:%d/applications/stages_summary?appId=%s",
+                                              server.getAddress().getPort(), appId));
+        connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+    }
+}
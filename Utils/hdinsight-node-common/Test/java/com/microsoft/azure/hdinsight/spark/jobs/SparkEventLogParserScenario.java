@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventLogs;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventType;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class SparkEventLogParserScenario {
+    private StringBuilder eventLog;
+    private List<Double> progresses;
+    private SparkEventLogs parsed;
+
+    @Before
+    public void setUp() {
+        eventLog = new StringBuilder();
+        progresses = new ArrayList<>();
+        parsed = null;
+    }
+
+    @Given("^Spark event log lines:$")
+    public void appendEventLogLines(List<String> lines) {
+        lines.forEach(line -> eventLog.append(line).append('\n'));
+    }
+
+    @Then("^scanning event name of '(.*)' should get '(.*)'$")
+    public void checkScanEventName(String line, String expected) {
+        assertEquals(expected.isEmpty() ? null : expected, SparkEventLogParser.scanEventName(line));
+    }
+
+    @Then("^parse the event log for types:$")
+    public void parseEventLog(List<String> types) throws Throwable {
+        final byte[] bytes = eventLog.toString().getBytes(StandardCharsets.UTF_8);
+        final EnumSet<SparkEventType> eventTypes = EnumSet.noneOf(SparkEventType.class);
+        eventTypes.addAll(types.stream().map(SparkEventType::valueOf).collect(Collectors.toList()));
+
+        parsed = new SparkEventLogParser(eventTypes).parse(new ByteArrayInputStream(bytes), bytes.length, progresses::add);
+    }
+
+    @Then("^the parsed event count of (.+) should be (\\d+)$")
+    public void checkParsedEventCount(String type, int expected) {
+        assertEquals(expected, parsed.size(SparkEventType.valueOf(type)));
+    }
+
+    @Then("^the parsed job start event IDs should be:$")
+    public void checkJobStartIds(List<Integer> expected) {
+        assertThat(parsed.getJobStartEvents().stream().map(event -> event.getJobId()).collect(Collectors.toList()))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Then("^the parsed executor added hosts should be:$")
+    public void checkExecutorAddedHosts(List<String> expected) {
+        assertThat(parsed.getExecutorAddedEvents().stream()
+                .map(event -> event.getExecutorInfo().getHost())
+                .collect(Collectors.toList()))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Then("^the last parsing progress should be (.+)$")
+    public void checkLastProgress(double expected) {
+        assertThat(progresses).isNotEmpty();
+        assertEquals(expected, progresses.get(progresses.size() - 1), 0.0001);
+    }
+}
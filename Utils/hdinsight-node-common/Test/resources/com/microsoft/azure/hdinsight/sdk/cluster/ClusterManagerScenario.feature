@@ -0,0 +1,6 @@
+Feature: ClusterManager tests
+  Scenario: getHDInsightClusterDetailsWithSpecificType resolves the clusters of all subscriptions concurrently
+    Given a fake management endpoint of 5 subscriptions with 20 Spark clusters each, responding in 100 milliseconds
+    # Listing and resolving 105 requests one by one takes 10.5 seconds
+    Then list all HDInsight clusters, and 100 clusters should be got in less than 5000 milliseconds
+    Then the concurrent requests to the fake management endpoint should be no more than 8
@@ -0,0 +1,18 @@
+Feature: Livy Interactive Session Pool Tests
+
+  Scenario: SessionPool keeps a warm session, recreates it after died and reclaims it after idle
+    Given mock the livy service to create the interactive sessions 7, 8, 9 in order
+    And mock the livy interactive session 7 to be idle
+    And mock the livy interactive session 8 to be idle
+    And mock the livy interactive session 9 to be idle
+    And create a livy session pool of size 1 with idle timeout 10 minutes
+    Then take a session of key 'cluster1' from the pool, and nothing should be got
+    Then the warm sessions of key 'cluster1' in the pool should be '7'
+    Then take a session of key 'cluster1' from the pool, and the session 7 should be got
+    Then the warm sessions of key 'cluster1' in the pool should be '8'
+    And mock the livy interactive session 8 to be dead
+    And send the pool heartbeat after 1 minutes
+    Then the warm sessions of key 'cluster1' in the pool should be '9'
+    And send the pool heartbeat after 10 minutes
+    Then the warm sessions of key 'cluster1' in the pool should be ''
+    Then check the livy interactive session 9 is killed by the pool
@@ -45,6 +45,22 @@ Feature: Livy Interactive Session Tests
     Then check Spark interactive session statement run result stdout should be
       | Hello World! |
 
+  Scenario: Session.runCodes() polls the running statement with adaptive delays
+    Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6' to return '{"id":6,"appId":"application_1517029729598_0086","owner":null,"proxyUser":null,"state":"idle","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And create a livy Spark interactive session instance with name 'testSparkREPL'
+    And create the Spark interactive session, and save the response
+    Given setup a mock livy interactive service for POST request '/sessions/6/statements' to return '{"id":0,"state":"waiting","output":null}' with status code 200
+    And setup a mock livy interactive statement '/sessions/6/statements/0' to be running for 2 polls and then return '{"id":0,"state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"2"}}}'
+    Then check the median latency of running the code '1 + 1' 10 times should be less than 500 milliseconds
+    Then check the statement polling delays in milliseconds should be
+      | 0  | 25   |
+      | 1  | 50   |
+      | 3  | 200  |
+      | 5  | 800  |
+      | 6  | 1000 |
+      | 64 | 1000 |
+
   Scenario: Session.create() UA with random UUID IT positive case with mocked http server
     Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
     And create a livy Spark interactive session instance with name 'testSparkREPL1'
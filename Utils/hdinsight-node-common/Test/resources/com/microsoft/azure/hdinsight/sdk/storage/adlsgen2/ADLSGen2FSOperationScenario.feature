@@ -0,0 +1,18 @@
+Feature: ADLSGen2FSOperation Testing
+
+  Scenario: list follows the continuation token to the last page
+    Given mock ADLS Gen2 list request '/fs?recursive=false&resource=filesystem&directory=sub&maxResults=2' to return '{"paths":[{"name":"sub/a","isDirectory":"true"},{"name":"sub/b"}]}' with continuation 'token1'
+    Given mock ADLS Gen2 list request '/fs?recursive=false&resource=filesystem&directory=sub&maxResults=2&continuation=token1' to return '{"paths":[{"name":"sub/c"},{"name":"sub/d"}]}' with continuation 'token2'
+    Given mock ADLS Gen2 list request '/fs?recursive=false&resource=filesystem&directory=sub&maxResults=2&continuation=token2' to return '{"paths":[{"name":"sub/e"}]}' with continuation ''
+    Then listing directory 'sub' of file system '/fs/' with page size 2 should get paths:
+      | sub/a |
+      | sub/b |
+      | sub/c |
+      | sub/d |
+      | sub/e |
+
+  Scenario: uploading invalidates the listing cache of the ancestor directories
+    Then the listing cache of directory 'SparkSubmission/2021' in 'https://account.dfs.core.windows.net/fs/' is invalidated by uploading 'https://account.dfs.core.windows.net/fs/SparkSubmission/2021/a.jar'
+    Then the listing cache of directory '/' in 'https://account.dfs.core.windows.net/fs/' is invalidated by uploading 'https://account.dfs.core.windows.net/fs/SparkSubmission/2021/a.jar'
+    Then the listing cache of directory 'my dir' in 'https://account.dfs.core.windows.net/fs/' is invalidated by uploading 'https://account.dfs.core.windows.net/fs/my%20dir/a.jar'
+    Then the listing cache of directory 'SparkSubmission/2020' in 'https://account.dfs.core.windows.net/fs/' is kept after uploading 'https://account.dfs.core.windows.net/fs/SparkSubmission/2021/a.jar'
@@ -0,0 +1,43 @@
+Feature: JobViewHttpResponse Testing
+
+  Scenario: send the cached JSON with or without gzip encoding
+    Given the job view response source of application 'application_01' is '{"stageId":1,"name":"count"}'
+    Then request the job view response of application 'application_01' with Accept-Encoding 'gzip, deflate'
+    Then the response status should be 200
+    Then the response header 'Content-Encoding' should be 'gzip'
+    Then the response header 'Content-Type' should be 'application/json; charset=utf-8'
+    Then the response header 'Cache-Control' should be 'no-cache'
+    Then the response body should be '{"stageId":1,"name":"count"}'
+    Then remember the response ETag
+    Then request the job view response of application 'application_01' with Accept-Encoding 'identity'
+    Then the response status should be 200
+    Then the response header 'Content-Encoding' should be ''
+    Then the response body should be '{"stageId":1,"name":"count"}'
+    Then the response ETag should be the same as the last one
+
+  Scenario: answer 304 if the ETag matches
+    Given the job view response source of application 'application_02' is '{"stageId":2}'
+    Then request the job view response of application 'application_02' with Accept-Encoding 'gzip'
+    Then the response status should be 200
+    Then remember the response ETag
+    Then request the job view response of application 'application_02' with the last ETag
+    Then the response status should be 304
+    Then the response ETag should be the same as the last one
+
+  Scenario: answer 200 with a new ETag if the source is changed
+    Given the job view response source of application 'application_03' is '{"stageId":3,"status":"ACTIVE"}'
+    Then request the job view response of application 'application_03' with Accept-Encoding ''
+    Then remember the response ETag
+    Given the job view response source of application 'application_03' is '{"stageId":3,"status":"COMPLETE"}'
+    Then request the job view response of application 'application_03' with the last ETag
+    Then the response status should be 200
+    Then the response ETag should be different from the last one
+    Then the response body should be '{"stageId":3,"status":"COMPLETE"}'
+
+  Scenario: the responses invalidated are serialized again with the same ETag for the same content
+    Given the job view response source of application 'application_04' is '{"stageId":4}'
+    Then request the job view response of application 'application_04' with Accept-Encoding ''
+    Then remember the response ETag
+    Then invalidate the job view responses of application 'application_04'
+    Then request the job view response of application 'application_04' with the last ETag
+    Then the response status should be 304
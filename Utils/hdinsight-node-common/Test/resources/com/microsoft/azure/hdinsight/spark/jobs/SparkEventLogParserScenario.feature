@@ -0,0 +1,52 @@
+Feature: SparkEventLogParser Testing
+
+  Scenario: scanEventName only reads the top level Event field
+    Then scanning event name of '{"Event":"SparkListenerJobStart","Job ID":0}' should get 'SparkListenerJobStart'
+    Then scanning event name of '{"Job ID":0,"Properties":{"Event":"nested"},"Event":"SparkListenerJobEnd"}' should get 'SparkListenerJobEnd'
+    Then scanning event name of '{"Job ID":0}' should get ''
+    Then scanning event name of '{"Event":1}' should get ''
+    Then scanning event name of '{"Event":"SparkListenerTaskEnd","Stage' should get 'SparkListenerTaskEnd'
+    Then scanning event name of '{"Stage ID":1,"Eve' should get ''
+    Then scanning event name of 'not a json' should get ''
+
+  Scenario: parse multiple event types in one pass
+    Given Spark event log lines:
+      | {"Event":"SparkListenerLogStart","Spark Version":"2.3.2"}                                                                                                |
+      | {"Event":"SparkListenerExecutorAdded","Timestamp":1,"Executor ID":"1","Executor Info":{"Host":"wn0","Total Cores":4,"Log Urls":{"stderr":"http://wn0"}}} |
+      | {"Event":"SparkListenerJobStart","Job ID":0,"Submission Time":2,"Stage Infos":[],"Stage IDs":[0],"Properties":{}}                                        |
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0,"Stage Attempt ID":0,"Task Type":"ResultTask","Task End Reason":{"Reason":"Success"},"Task Info":{"Task ID":0,"Host":"wn0"}} |
+      | {"Event":"SparkListenerStageCompleted","Stage Info":{"Stage ID":0,"Stage Attempt ID":0,"Stage Name":"count","Number of Tasks":1}}                        |
+      | {"Event":"SparkListenerJobEnd","Job ID":0,"Completion Time":3,"Job Result":{"Result":"JobSucceeded"}}                                                   |
+      | {"Event":"SparkListenerJobStart","Job ID":1,"Submission Time":4,"Stage Infos":[],"Stage IDs":[1],"Properties":{}}                                        |
+      | {"Event":"SparkListenerExecutorRemoved","Timestamp":5,"Executor ID":"1","Removed Reason":"Container released"}                                          |
+      | {"Event":"SparkListenerJobEnd","Job ID":1,"Compl                                                                                                         |
+    Then parse the event log for types:
+      | JobStart        |
+      | JobEnd          |
+      | StageCompleted  |
+      | TaskEnd         |
+      | ExecutorAdded   |
+      | ExecutorRemoved |
+    Then the parsed event count of JobStart should be 2
+    Then the parsed event count of JobEnd should be 1
+    Then the parsed event count of StageCompleted should be 1
+    Then the parsed event count of TaskEnd should be 1
+    Then the parsed event count of ExecutorAdded should be 1
+    Then the parsed event count of ExecutorRemoved should be 1
+    Then the parsed job start event IDs should be:
+      | 0 |
+      | 1 |
+    Then the parsed executor added hosts should be:
+      | wn0 |
+    Then the last parsing progress should be 1.0
+
+  Scenario: parse only the wanted event types
+    Given Spark event log lines:
+      | {"Event":"SparkListenerJobStart","Job ID":7,"Submission Time":2,"Stage Infos":[],"Stage IDs":[0],"Properties":{}} |
+      | {"Event":"SparkListenerJobEnd","Job ID":7,"Completion Time":3,"Job Result":{"Result":"JobSucceeded"}}            |
+    Then parse the event log for types:
+      | JobStart |
+    Then the parsed event count of JobStart should be 1
+    Then the parsed event count of JobEnd should be 0
+    Then the parsed job start event IDs should be:
+      | 7 |
@@ -29,6 +29,8 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,6 +40,8 @@ import static java.util.Collections.emptyList;
 public class ClusterManagerEx implements ILogger {
 
     private static final String OSTYPE = "linux";
+    // The clusters under subscriptions are got by the explorer and all the Spark job configurations
+    private static final long SUBSCRIPTION_CLUSTERS_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
     private static ClusterManagerEx instance = null;
 
@@ -55,6 +59,9 @@ public class ClusterManagerEx implements ILogger {
     private boolean isListEmulatorClusterSuccess = false;
     private boolean isSelectedSubscriptionExist = false;
 
+    @Nullable
+    private volatile SubscriptionClusters subscriptionClustersCache;
+
     private ClusterManagerEx() {
     }
 
@@ -66,6 +73,7 @@ public class ClusterManagerEx implements ILogger {
 
                     AuthMethodManager.getInstance().addSignOutEventListener(() -> {
                         // Clean cached clusters
+                        instance.invalidateSubscriptionClusters();
                         instance.setCachedClusters(instance.additionalClusterDetails);
                     });
                 }
@@ -166,9 +174,17 @@ public class ClusterManagerEx implements ILogger {
                 clusterDetail instanceof EmulatorClusterDetail;
     }
 
-    synchronized Observable<List<ClusterDetail>> getSubscriptionHDInsightClustersOfType(List<SubscriptionDetail> list) {
+    synchronized Observable<List<ClusterDetail>> getSubscriptionHDInsightClustersOfType(
+            List<SubscriptionDetail> list,
+            @Nullable Consumer<? super IClusterDetail> onResolved) {
         setSelectedSubscriptionExist(list.stream().anyMatch(SubscriptionDetail::isSelected));
-        return ClusterManager.getInstance().getHDInsightClustersWithSpecificType(list, OSTYPE)
+        return ClusterManager.getInstance().getHDInsightClusterDetailsWithSpecificType(list, OSTYPE)
+                .doOnNext(cluster -> {
+                    if (onResolved != null) {
+                        onResolved.accept(cluster);
+                    }
+                })
+                .toList()
                 .doOnNext(clusters -> isListClusterSuccess = true)
                 .doOnError(err -> {
                     log().warn("Error Refreshing HDInsight clusters. " + ExceptionUtils.getStackTrace(err));
@@ -201,19 +217,62 @@ public class ClusterManagerEx implements ILogger {
     }
 
     @NotNull
-    List<ClusterDetail> getSubscriptionHDInsightClusters(@Nullable AzureManager manager) {
+    List<ClusterDetail> getSubscriptionHDInsightClusters(@Nullable AzureManager manager,
+                                                         @Nullable Consumer<? super IClusterDetail> onResolved) {
         if (manager == null) {
             return new ArrayList<>();
         }
 
         return Observable.fromCallable(() -> manager.getSubscriptionManager().getSelectedSubscriptionDetails())
                 .doOnError(err -> log().warn("Failed to list HDInsight Clusters: {}", err.getMessage()))
-                .flatMap(this::getSubscriptionHDInsightClustersOfType)
+                .flatMap(subscriptions -> {
+                    final List<ClusterDetail> cachedClusters = getCachedSubscriptionClusters(subscriptions);
+                    if (cachedClusters != null) {
+                        setSelectedSubscriptionExist(subscriptions.stream().anyMatch(SubscriptionDetail::isSelected));
+                        if (onResolved != null) {
+                            cachedClusters.forEach(onResolved);
+                        }
+
+                        return Observable.just(cachedClusters);
+                    }
+
+                    return getSubscriptionHDInsightClustersOfType(subscriptions, onResolved)
+                            .doOnNext(clusters -> subscriptionClustersCache =
+                                    new SubscriptionClusters(getSelectedSubscriptionIds(subscriptions), clusters));
+                })
                 .onErrorResumeNext(Observable.just(new ArrayList<>()))
                 .toBlocking()
                 .singleOrDefault(new ArrayList<>());
     }
 
+    @Nullable
+    private List<ClusterDetail> getCachedSubscriptionClusters(@NotNull List<SubscriptionDetail> subscriptions) {
+        final SubscriptionClusters cache = subscriptionClustersCache;
+        if (cache == null
+                || System.currentTimeMillis() - cache.loadedTimeMillis >= SUBSCRIPTION_CLUSTERS_TTL_MILLIS
+                || !cache.subscriptionIds.equals(getSelectedSubscriptionIds(subscriptions))) {
+            return null;
+        }
+
+        return new ArrayList<>(cache.clusters);
+    }
+
+    @NotNull
+    private static Set<String> getSelectedSubscriptionIds(@NotNull List<SubscriptionDetail> subscriptions) {
+        return subscriptions.stream()
+                .filter(SubscriptionDetail::isSelected)
+                .map(SubscriptionDetail::getSubscriptionId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Drop the cached clusters under subscriptions, so that they're listed again by the next getClusterDetails().
+     * The resolved clusters are cached for a few minutes otherwise.
+     */
+    public void invalidateSubscriptionClusters() {
+        subscriptionClustersCache = null;
+    }
+
     /**
      * Load all kinds of cluster details and set these clusters to cache. These clusters includes:
      * 1. HDInsight clusters under user's azure subscription
@@ -223,6 +282,17 @@ public class ClusterManagerEx implements ILogger {
      * @return all kinds of cluster details
      */
     public ImmutableList<IClusterDetail> getClusterDetails() {
+        return getClusterDetails(null);
+    }
+
+    /**
+     * Load all kinds of cluster details and set these clusters to cache, see {@link #getClusterDetails()}.
+     *
+     * @param onResolved called with each cluster once it's resolved, before the others are, to render it
+     *                   progressively. It could be called concurrently in background threads
+     * @return all kinds of cluster details
+     */
+    public ImmutableList<IClusterDetail> getClusterDetails(@Nullable Consumer<? super IClusterDetail> onResolved) {
         List<IClusterDetail> linkedClusters;
         if (!isListAdditionalClusterSuccess()) {
             try {
@@ -245,8 +315,14 @@ public class ClusterManagerEx implements ILogger {
             emulatorClusters = getEmulatorClusterDetails();
         }
 
+        if (onResolved != null) {
+            linkedClusters.forEach(onResolved);
+            emulatorClusters.forEach(onResolved);
+        }
+
         // Get clusters from Subscription, an empty list for non-logged in user.
-        List<ClusterDetail> clusterDetailsFromSubscription = getSubscriptionHDInsightClusters(getAzureManager());
+        List<ClusterDetail> clusterDetailsFromSubscription =
+                getSubscriptionHDInsightClusters(getAzureManager(), onResolved);
 
         // Sort the merged clusters before set it to cache, sorting algorithm is based on cluster name
         ImmutableSortedSet<IClusterDetail> mergedClusters =
@@ -464,4 +540,15 @@ public class ClusterManagerEx implements ILogger {
     public boolean isHdiReaderCluster(@NotNull IClusterDetail clusterDetail) {
         return clusterDetail instanceof ClusterDetail && ((ClusterDetail) clusterDetail).isRoleTypeReader();
     }
+
+    private static class SubscriptionClusters {
+        private final Set<String> subscriptionIds;
+        private final List<ClusterDetail> clusters;
+        private final long loadedTimeMillis = System.currentTimeMillis();
+
+        SubscriptionClusters(Set<String> subscriptionIds, List<ClusterDetail> clusters) {
+            this.subscriptionIds = subscriptionIds;
+            this.clusters = clusters;
+        }
+    }
 }
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.cluster;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
@@ -16,6 +17,7 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.lang3.StringUtils;
 import rx.Observable;
+import rx.Scheduler;
 import rx.schedulers.Schedulers;
 
 import java.io.IOException;
@@ -24,11 +26,27 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 public class ClusterManager implements ILogger {
+    // Bound the concurrent requests to the management endpoint and the clusters, rather than a thread per cluster
+    private static final int MAX_CONCURRENT_REQUESTS = 8;
+
     // Singleton Instance
     private static ClusterManager instance = null;
 
+    private final Scheduler requestScheduler = Schedulers.from(Executors.newFixedThreadPool(
+            MAX_CONCURRENT_REQUESTS,
+            new ThreadFactoryBuilder().setNameFormat("HDInsightClusterLoader-%d").setDaemon(true).build()));
+
+    interface ClusterLister {
+        List<ClusterRawInfo> listCluster(SubscriptionDetail subscription) throws Exception;
+    }
+
+    interface ClusterDetailResolver {
+        ClusterDetail resolve(SubscriptionDetail subscription, ClusterRawInfo clusterRawInfo) throws Exception;
+    }
+
     public static ClusterManager getInstance() {
         if (instance == null) {
             synchronized (ClusterManager.class) {
@@ -65,12 +83,36 @@ public class ClusterManager implements ILogger {
     public synchronized Observable<List<ClusterDetail>> getHDInsightClustersWithSpecificType(
             List<SubscriptionDetail> subscriptions,
             String osType) {
+        return getHDInsightClusterDetailsWithSpecificType(subscriptions, osType).toList();
+    }
+
+    /**
+     * get hdinsight detailed clusters with specific cluster type: Spark and RServer, each cluster is emitted once it's
+     * resolved, so that it can be rendered before the others
+     *
+     * @param subscriptions
+     * @return detailed clusters with specific cluster type
+     */
+    public Observable<ClusterDetail> getHDInsightClusterDetailsWithSpecificType(
+            List<SubscriptionDetail> subscriptions,
+            String osType) {
+        return getHDInsightClusterDetailsWithSpecificType(
+                subscriptions,
+                osType,
+                subscriptionDetail -> new ClusterOperationImpl().listCluster(subscriptionDetail),
+                this::resolveClusterDetail);
+    }
+
+    Observable<ClusterDetail> getHDInsightClusterDetailsWithSpecificType(
+            @NotNull List<SubscriptionDetail> subscriptions,
+            String osType,
+            @NotNull ClusterLister clusterLister,
+            @NotNull ClusterDetailResolver clusterDetailResolver) {
         return Observable.from(subscriptions)
                 .flatMap(subscriptionDetail ->
-                        Observable.fromCallable(() ->
-                                new ClusterOperationImpl().listCluster(subscriptionDetail))
-                                // Run time-consuming list clusters job in IO thread
-                                .subscribeOn(Schedulers.io())
+                        Observable.fromCallable(() -> clusterLister.listCluster(subscriptionDetail))
+                                // Run time-consuming list clusters job in the request threads
+                                .subscribeOn(requestScheduler)
                                 // Remove duplicate clusters that share the same cluster name
                                 .map(this::deduplicateClusters)
                                 .flatMap(Observable::from)
@@ -82,21 +124,12 @@ public class ClusterManager implements ILogger {
                                             || rawClusterType.equals(ClusterType.spark))
                                                 && StringUtils.equalsIgnoreCase(rawOsType, osType);
                                 })
-                                .flatMap(clusterRawInfo -> {
-                                    ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
-                                    if (isHDInsightNewSDKEnabled()) {
-                                        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
-                                                // Run the time-consuming probe job concurrently in IO thread
-                                                .subscribeOn(Schedulers.io())
-                                                .map(isProbeSucceed -> isProbeSucceed
-                                                        ? (isMfaEspCluster(clusterRawInfo)
-                                                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
-                                                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
-                                                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    } else {
-                                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    }
-                                })
+                                .flatMap(clusterRawInfo ->
+                                        Observable.fromCallable(() ->
+                                                clusterDetailResolver.resolve(subscriptionDetail, clusterRawInfo))
+                                                // Run the time-consuming probe jobs of all subscriptions concurrently
+                                                // in the request threads
+                                                .subscribeOn(requestScheduler))
                 )
                 .doOnNext(clusterDetail -> {
                     String debugMsg = String.format("Thread: %s. Sub: %s. Cluster: %s",
@@ -104,8 +137,25 @@ public class ClusterManager implements ILogger {
                             clusterDetail.getSubscription().getSubscriptionName(),
                             clusterDetail.getName());
                     log().info(debugMsg);
-                })
-                .toList();
+                });
+    }
+
+    private ClusterDetail resolveClusterDetail(@NotNull SubscriptionDetail subscriptionDetail,
+                                               @NotNull ClusterRawInfo clusterRawInfo) {
+        if (!isHDInsightNewSDKEnabled()) {
+            return new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl());
+        }
+
+        ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
+        boolean isProbeSucceed = isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
+                .toBlocking()
+                .singleOrDefault(false);
+
+        return isProbeSucceed
+                ? (isMfaEspCluster(clusterRawInfo)
+                    ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
+                    : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
+                : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl());
     }
 
     public boolean isHDInsightNewSDKEnabled() {
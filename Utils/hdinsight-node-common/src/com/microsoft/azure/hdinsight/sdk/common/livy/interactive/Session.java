@@ -17,6 +17,7 @@ import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.Sess
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionState;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.PostSessions;
 import com.microsoft.azure.hdinsight.spark.common.Deployable;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
@@ -600,14 +601,16 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return awaitReady()
                 .flatMap(session -> statement
                         .run()
-                        .map(result -> {
-                            if (!"ok".equalsIgnoreCase(result.getStatus())) {
-                                throw propagate(new StatementExecutionError(
-                                        result.getEname(), result.getEvalue(), result.getTraceback()));
-                            }
+                        .map(Session::getStatementResult));
+    }
+
+    public static Map<String, String> getStatementResult(final StatementOutput result) {
+        if (!"ok".equalsIgnoreCase(result.getStatus())) {
+            throw propagate(new StatementExecutionError(
+                    result.getEname(), result.getEvalue(), result.getTraceback()));
+        }
 
-                            return result.getData();
-                        }));
+        return result.getData();
     }
 
     public Observable<Session> awaitReady(final @Nullable Scheduler scheduler) {
@@ -654,6 +657,16 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return runStatement(new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))));
     }
 
+    /**
+     * Submit the codes without waiting for them to be done, see {@link Statement#submit()}.
+     */
+    public Observable<Statement> submitCodes(final String codes) {
+        final Statement statement = new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8)));
+
+        return awaitReady()
+                .flatMap(session -> statement.submit());
+    }
+
     public Observable<String> getLog() {
         throw new UnsupportedOperationException();
     }
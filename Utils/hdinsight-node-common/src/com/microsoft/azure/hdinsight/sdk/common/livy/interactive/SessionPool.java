@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.microsoft.azure.hdinsight.common.CommonConst;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Pool of pre-started idle Livy sessions, to save the time of YARN allocating the driver and executors when a Spark
+ * interactive console is opened. Sessions are pooled by a key, which should identify the cluster and the session
+ * creating parameters.
+ *
+ * A key is activated when a session is taken for it, and then its pool is refilled in background. Warm sessions are
+ * checked by heartbeats: dead ones are recreated, and all of them are killed if no session has been taken for the key
+ * within the idle timeout.
+ */
+public class SessionPool implements ILogger {
+    // Disabled unless enabled by the pool size property, since warm sessions hold cluster resources
+    public static final int DEFAULT_SIZE = 0;
+    public static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_SECONDS = 30;
+    // Failed heartbeats in a row before a warm session is taken as dead
+    private static final int MAX_HEARTBEAT_FAILURES = 3;
+    private static final long KILL_TIMEOUT_SECONDS = 5;
+
+    public enum State {
+        STARTING,   // Being deployed and created, or recreated after died
+        WARM,       // Idle and ready to be taken
+        TAKEN,      // Taken by a console, not managed by the pool anymore
+        DEAD,       // Failed to start or died, removed from the pool
+        RECLAIMED   // Killed since the key is idle, removed from the pool
+    }
+
+    private static SessionPool instance;
+
+    private final int size;
+    private final long idleTimeoutMillis;
+    private final Scheduler scheduler;
+    private final Map<String, KeyPool> pools = new ConcurrentHashMap<>();
+    @Nullable
+    private Subscription heartbeat;
+
+    public SessionPool(int size, long idleTimeout, long heartbeatInterval, TimeUnit unit, Scheduler scheduler) {
+        this.size = size;
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.scheduler = scheduler;
+
+        if (size > 0) {
+            this.heartbeat = Observable.interval(heartbeatInterval, heartbeatInterval, unit, scheduler)
+                                       .subscribe(any -> heartbeat(),
+                                                  err -> log().warn("Livy warm session heartbeat stopped.", err));
+        }
+    }
+
+    public static synchronized SessionPool getInstance() {
+        if (instance == null) {
+            instance = new SessionPool(getIntProperty(CommonConst.LIVY_WARM_SESSION_POOL_SIZE, DEFAULT_SIZE),
+                                       TimeUnit.MINUTES.toSeconds(getIntProperty(
+                                               CommonConst.LIVY_WARM_SESSION_IDLE_TIMEOUT_MINUTES,
+                                               (int) DEFAULT_IDLE_TIMEOUT_MINUTES)),
+                                       DEFAULT_HEARTBEAT_INTERVAL_SECONDS,
+                                       TimeUnit.SECONDS,
+                                       Schedulers.io());
+            final SessionPool pool = instance;
+            // Don't keep the cluster resources after the IDE exits
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "LivySessionPoolShutdown"));
+        }
+
+        return instance;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        final String value = DefaultLoader.getIdeHelper() == null
+                             ? null
+                             : DefaultLoader.getIdeHelper().getApplicationProperty(name);
+
+        return StringUtils.isBlank(value) ? defaultValue : NumberUtils.toInt(value.trim(), defaultValue);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Take a warm session of the key, and refill the pool of the key in background.
+     *
+     * @param key     the key of the cluster and the session creating parameters
+     * @param factory to create the new sessions to start in background, which shouldn't be started yet
+     * @return a warm session, or null if there isn't any yet
+     */
+    @Nullable
+    public Session take(@NotNull String key, @NotNull Supplier<? extends Session> factory) {
+        if (size <= 0) {
+            return null;
+        }
+
+        final KeyPool pool = pools.computeIfAbsent(key, k -> new KeyPool());
+        final Entry taken;
+        synchronized (pool) {
+            pool.lastTakenMillis = scheduler.now();
+            taken = pool.entries.stream()
+                                .filter(entry -> entry.state == State.WARM)
+                                .findFirst()
+                                .orElse(null);
+
+            if (taken != null) {
+                taken.state = State.TAKEN;
+                pool.entries.remove(taken);
+            }
+        }
+
+        refill(pool, factory);
+
+        return taken == null ? null : taken.session;
+    }
+
+    /**
+     * @return the sessions of the key in the given state
+     */
+    @NotNull
+    public List<Session> getSessions(@NotNull String key, @NotNull State state) {
+        final KeyPool pool = pools.get(key);
+        if (pool == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (pool) {
+            return pool.entries.stream()
+                               .filter(entry -> entry.state == state)
+                               .map(entry -> entry.session)
+                               .collect(Collectors.toList());
+        }
+    }
+
+    private void refill(@NotNull KeyPool pool, @NotNull Supplier<? extends Session> factory) {
+        final List<Entry> added = new ArrayList<>();
+        try {
+            synchronized (pool) {
+                while (pool.entries.size() < size) {
+                    final Entry entry = new Entry(factory.get());
+                    pool.entries.add(entry);
+                    added.add(entry);
+                }
+            }
+        } catch (Exception err) {
+            // The console works without warm sessions
+            log().warn("Failed to prepare the Livy warm session.", err);
+        }
+
+        added.forEach(entry -> start(pool, entry, entry.session.deploy().flatMap(Session::create)));
+    }
+
+    private void start(@NotNull KeyPool pool, @NotNull Entry entry, @NotNull Observable<Session> creating) {
+        creating.flatMap(Session::awaitReady)
+                .subscribeOn(scheduler)
+                .subscribe(session -> {
+                    final boolean reclaimed;
+                    synchronized (pool) {
+                        reclaimed = entry.state != State.STARTING;
+                        if (!reclaimed) {
+                            entry.state = State.WARM;
+                        }
+                    }
+
+                    if (reclaimed) {
+                        kill(session);
+                    }
+                }, err -> {
+                    log().warn("Failed to start the Livy warm session " + entry.session.getName(), err);
+                    remove(pool, entry, State.DEAD);
+                });
+    }
+
+    /**
+     * Check the warm sessions. Dead ones are recreated, and the warm sessions of idle keys are killed.
+     */
+    public void heartbeat() {
+        pools.values().forEach(pool -> {
+            final List<Entry> warmEntries;
+            final boolean idle;
+            synchronized (pool) {
+                idle = scheduler.now() - pool.lastTakenMillis >= idleTimeoutMillis;
+                warmEntries = pool.entries.stream()
+                                          .filter(entry -> entry.state == State.WARM || idle)
+                                          .collect(Collectors.toList());
+            }
+
+            warmEntries.forEach(entry -> {
+                if (idle) {
+                    // The entry may be taken since selected, then it's the console's
+                    if (remove(pool, entry, State.RECLAIMED)) {
+                        kill(entry.session);
+                    }
+                } else {
+                    checkAlive(pool, entry);
+                }
+            });
+        });
+    }
+
+    private void checkAlive(@NotNull KeyPool pool, @NotNull Entry entry) {
+        try {
+            final Session session = entry.session.get().toBlocking().single();
+            entry.heartbeatFailures = 0;
+            if (session.isStop() && transit(pool, entry, State.WARM, State.STARTING)) {
+                log().info("Livy warm session " + session.getName() + " is " + session.getLastState() + ", recreate it.");
+                // The artifacts are uploaded already, so only the session is created again
+                start(pool, entry, session.create());
+            }
+        } catch (Exception err) {
+            if (++entry.heartbeatFailures >= MAX_HEARTBEAT_FAILURES) {
+                log().warn("Livy warm session " + entry.session.getName() + " isn't reachable, drop it.", err);
+                if (remove(pool, entry, State.DEAD)) {
+                    kill(entry.session);
+                }
+            }
+        }
+    }
+
+    /**
+     * Change the state of an entry in the pool, if it's still in the expected state.
+     *
+     * @return whether the state is changed
+     */
+    private boolean transit(@NotNull KeyPool pool, @NotNull Entry entry, @NotNull State expected, @NotNull State state) {
+        synchronized (pool) {
+            if (entry.state != expected || !pool.entries.contains(entry)) {
+                return false;
+            }
+
+            entry.state = state;
+            entry.heartbeatFailures = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Remove an entry from the pool, unless it's taken or removed already.
+     *
+     * @return whether the entry is removed, only then the caller owns the session to kill it
+     */
+    private boolean remove(@NotNull KeyPool pool, @NotNull Entry entry, @NotNull State state) {
+        synchronized (pool) {
+            if (entry.state == State.TAKEN || !pool.entries.remove(entry)) {
+                return false;
+            }
+
+            entry.state = state;
+            return true;
+        }
+    }
+
+    private void kill(@NotNull Session session) {
+        try {
+            session.kill().timeout(KILL_TIMEOUT_SECONDS, TimeUnit.SECONDS).toBlocking().subscribe();
+        } catch (Exception err) {
+            log().warn("Failed to kill the Livy warm session " + session.getName(), err);
+        }
+    }
+
+    /**
+     * Kill all the sessions not taken.
+     */
+    public void close() {
+        if (heartbeat != null) {
+            heartbeat.unsubscribe();
+        }
+
+        pools.values().forEach(pool -> {
+            final List<Entry> entries;
+            synchronized (pool) {
+                entries = new ArrayList<>(pool.entries);
+            }
+
+            entries.forEach(entry -> {
+                if (remove(pool, entry, State.RECLAIMED)) {
+                    kill(entry.session);
+                }
+            });
+        });
+    }
+
+    private static class KeyPool {
+        private final List<Entry> entries = new ArrayList<>();
+        private long lastTakenMillis;
+    }
+
+    private static class Entry {
+        private final Session session;
+        private volatile State state = State.STARTING;
+        private int heartbeatFailures = 0;
+
+        Entry(Session session) {
+            this.session = session;
+        }
+    }
+}
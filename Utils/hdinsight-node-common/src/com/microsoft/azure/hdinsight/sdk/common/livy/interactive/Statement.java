@@ -26,6 +26,8 @@ import java.util.concurrent.TimeUnit;
 
 public class Statement implements ILogger {
     public static final String REST_SEGMENT_STATEMENTS = "statements";
+    public static final long INITIAL_POLLING_DELAY_MILLIS = 25;
+    public static final long MAX_POLLING_DELAY_MILLIS = 1000;
 
     @NotNull
     private Session session;            // Statement owner session
@@ -116,17 +118,39 @@ public class Statement implements ILogger {
      */
 
     public Observable<StatementOutput> run() {
-        return runStatementRequest()
-                .map(this::updateWithResponse)
-                .flatMap(statement -> statement.get()                    // Get statement result
-                        .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS)) // The unmet state won't trigger retries,
-                                                                         // which is handled by repeatWhen()
-                        .takeUntil(Statement::isDone)
-                        .filter(Statement::isDone)
-                )
+        return submit()
+                .flatMap(statement -> statement.isDone() ? Observable.just(statement) : statement.awaitDone())
                 .map(Statement::getOutput);
     }
 
+    /**
+     * Post the codes to Livy without waiting for the statement to be done. Livy runs the statements of a session one by
+     * one, so the next statement can be submitted while this one is still running.
+     */
+    public Observable<Statement> submit() {
+        return runStatementRequest()
+                .map(this::updateWithResponse);
+    }
+
+    public Observable<Statement> awaitDone() {
+        return get()
+                // The unmet state won't trigger retries, which is handled by repeatWhen()
+                .repeatWhen(ob -> ob.zipWith(Observable.range(0, Integer.MAX_VALUE), (any, attempt) -> attempt)
+                                    .flatMap(attempt -> Observable.timer(getPollingDelayMillis(attempt), TimeUnit.MILLISECONDS)))
+                .takeUntil(Statement::isDone)
+                .filter(Statement::isDone);
+    }
+
+    /**
+     * Get the delay before the next poll of the statement state. It starts from tens of milliseconds so trivial
+     * statements are got soon, and is doubled up to one second for long running ones.
+     *
+     * @param attempt the count of polls done, from 0
+     */
+    public static long getPollingDelayMillis(int attempt) {
+        return Math.min(INITIAL_POLLING_DELAY_MILLIS << Math.min(Math.max(attempt, 0), 16), MAX_POLLING_DELAY_MILLIS);
+    }
+
     public boolean isDoneWithError()
     {
         return getLastState() == StatementState.ERROR || getLastState() == StatementState.CANCELLED;
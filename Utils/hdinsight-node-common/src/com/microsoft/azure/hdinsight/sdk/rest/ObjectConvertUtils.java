@@ -16,6 +16,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -102,6 +103,19 @@ public final class ObjectConvertUtils {
         return Optional.empty();
     }
 
+    public static <T> Optional<byte[]> convertObjectToJsonBytes(@NotNull T obj) {
+        try {
+            return Optional.ofNullable(objectMapper.writeValueAsBytes(obj));
+        } catch (JsonProcessingException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
+    public static <T> void writeObjectAsJson(@NotNull OutputStream outputStream, @NotNull T obj) throws IOException {
+        objectMapper.writeValue(outputStream, obj);
+    }
+
     public static <T> Optional<String> convertObjectToXmlString(@NotNull T obj) {
         try {
             return Optional.ofNullable(xmlMapper.writeValueAsString(obj));
@@ -5,10 +5,12 @@
 
 package com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 
+import java.util.Collections;
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -16,7 +18,19 @@ public class GetRemoteFilesResponse {
     @JsonProperty(value = "paths")
     private List<RemoteFile> remoteFiles;
 
+    // The continuation token from the response header x-ms-continuation, absent for the last page
+    @JsonIgnore
+    private String continuation;
+
     public List<RemoteFile> getRemoteFiles(){
-        return remoteFiles;
+        return remoteFiles == null ? Collections.emptyList() : remoteFiles;
+    }
+
+    public String getContinuation() {
+        return continuation;
+    }
+
+    public void setContinuation(String continuation) {
+        this.continuation = continuation;
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExecutorAddedEventLog {
+    @JsonProperty("Event")
+    private String event;
+
+    @JsonProperty("Timestamp")
+    private long timestamp;
+
+    @JsonProperty("Executor ID")
+    private String executorId;
+
+    @JsonProperty("Executor Info")
+    private ExecutorInfo executorInfo;
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getExecutorId() {
+        return executorId;
+    }
+
+    public void setExecutorId(String executorId) {
+        this.executorId = executorId;
+    }
+
+    public ExecutorInfo getExecutorInfo() {
+        return executorInfo;
+    }
+
+    public void setExecutorInfo(ExecutorInfo executorInfo) {
+        this.executorInfo = executorInfo;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ExecutorInfo {
+    @JsonProperty("Host")
+    private String host;
+
+    @JsonProperty("Total Cores")
+    private int totalCores;
+
+    @JsonProperty("Log Urls")
+    private Map<String, String> logUrls;
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getTotalCores() {
+        return totalCores;
+    }
+
+    public void setTotalCores(int totalCores) {
+        this.totalCores = totalCores;
+    }
+
+    public Map<String, String> getLogUrls() {
+        return logUrls;
+    }
+
+    public void setLogUrls(Map<String, String> logUrls) {
+        this.logUrls = logUrls;
+    }
+}
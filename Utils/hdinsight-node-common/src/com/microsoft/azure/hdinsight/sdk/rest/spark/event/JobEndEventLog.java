@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JobEndEventLog {
+    @JsonProperty("Event")
+    private String event;
+
+    @JsonProperty("Job ID")
+    private int jobId;
+
+    @JsonProperty("Completion Time")
+    private long completionTime;
+
+    @JsonProperty("Job Result")
+    private Map<String, Object> jobResult;
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(int jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getCompletionTime() {
+        return completionTime;
+    }
+
+    public void setCompletionTime(long completionTime) {
+        this.completionTime = completionTime;
+    }
+
+    public Map<String, Object> getJobResult() {
+        return jobResult;
+    }
+
+    public void setJobResult(Map<String, Object> jobResult) {
+        this.jobResult = jobResult;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Spark listener events of one application attempt, grouped by event type.
+ */
+public class SparkEventLogs {
+    private final Map<SparkEventType, List<Object>> events = new EnumMap<>(SparkEventType.class);
+
+    public void add(@NotNull SparkEventType type, @NotNull Object event) {
+        events.computeIfAbsent(type, t -> new ArrayList<>()).add(type.getEventClass().cast(event));
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public <T> List<T> get(@NotNull SparkEventType type, @NotNull Class<T> clazz) {
+        if (!type.getEventClass().equals(clazz)) {
+            throw new IllegalArgumentException(String.format("Event %s can't be read as %s", type, clazz.getName()));
+        }
+
+        return Collections.unmodifiableList((List<T>) events.getOrDefault(type, Collections.emptyList()));
+    }
+
+    public int size(@NotNull SparkEventType type) {
+        return events.getOrDefault(type, Collections.emptyList()).size();
+    }
+
+    @NotNull
+    public List<JobStartEventLog> getJobStartEvents() {
+        return get(SparkEventType.JobStart, JobStartEventLog.class);
+    }
+
+    @NotNull
+    public List<JobEndEventLog> getJobEndEvents() {
+        return get(SparkEventType.JobEnd, JobEndEventLog.class);
+    }
+
+    @NotNull
+    public List<StageCompletedEventLog> getStageCompletedEvents() {
+        return get(SparkEventType.StageCompleted, StageCompletedEventLog.class);
+    }
+
+    @NotNull
+    public List<TaskEndEventLog> getTaskEndEvents() {
+        return get(SparkEventType.TaskEnd, TaskEndEventLog.class);
+    }
+
+    @NotNull
+    public List<ExecutorAddedEventLog> getExecutorAddedEvents() {
+        return get(SparkEventType.ExecutorAdded, ExecutorAddedEventLog.class);
+    }
+
+    @NotNull
+    public List<ExecutorRemovedEventLog> getExecutorRemovedEvents() {
+        return get(SparkEventType.ExecutorRemoved, ExecutorRemovedEventLog.class);
+    }
+}
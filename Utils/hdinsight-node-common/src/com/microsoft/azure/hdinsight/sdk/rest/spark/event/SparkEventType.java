@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The Spark listener events which can be picked out of an application event log.
+ */
+public enum SparkEventType {
+    JobStart("SparkListenerJobStart", JobStartEventLog.class),
+    JobEnd("SparkListenerJobEnd", JobEndEventLog.class),
+    StageCompleted("SparkListenerStageCompleted", StageCompletedEventLog.class),
+    TaskEnd("SparkListenerTaskEnd", TaskEndEventLog.class),
+    ExecutorAdded("SparkListenerExecutorAdded", ExecutorAddedEventLog.class),
+    ExecutorRemoved("SparkListenerExecutorRemoved", ExecutorRemovedEventLog.class);
+
+    private final String eventName;
+    private final Class<?> eventClass;
+
+    SparkEventType(@NotNull String eventName, @NotNull Class<?> eventClass) {
+        this.eventName = eventName;
+        this.eventClass = eventClass;
+    }
+
+    @NotNull
+    public String getEventName() {
+        return eventName;
+    }
+
+    @NotNull
+    public Class<?> getEventClass() {
+        return eventClass;
+    }
+
+    @Nullable
+    public static SparkEventType fromEventName(@Nullable String eventName) {
+        return Arrays.stream(SparkEventType.values())
+                .filter(type -> type.eventName.equals(eventName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public String toString() {
+        return eventName;
+    }
+}
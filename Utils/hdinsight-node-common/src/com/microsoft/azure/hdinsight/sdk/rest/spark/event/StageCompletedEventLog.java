@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StageCompletedEventLog {
+    @JsonProperty("Event")
+    private String event;
+
+    @JsonProperty("Stage Info")
+    private StageInfo stageInfo;
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public StageInfo getStageInfo() {
+        return stageInfo;
+    }
+
+    public void setStageInfo(StageInfo stageInfo) {
+        this.stageInfo = stageInfo;
+    }
+}
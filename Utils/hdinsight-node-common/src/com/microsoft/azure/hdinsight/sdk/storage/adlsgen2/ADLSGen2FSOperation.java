@@ -14,6 +14,7 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.BufferedHttpEntity;
@@ -33,6 +34,8 @@ public class ADLSGen2FSOperation {
     public static final String DEFAULT_UMASK = "0000";
     public static final String PERMISSIONS_HEADER = "x-ms-permissions";
     public static final String UMASK_HEADER = "x-ms-umask";
+    public static final String CONTINUATION_HEADER = "x-ms-continuation";
+    public static final int DEFAULT_LIST_MAX_RESULTS = 5000;
 
     private HttpObservable http;
 
@@ -45,9 +48,6 @@ public class ADLSGen2FSOperation {
     @NotNull
     private List<NameValuePair> appendReqParams;
 
-    @NotNull
-    private ADLSGen2ParamsBuilder listReqBuilder;
-
     @NotNull
     private ADLSGen2ParamsBuilder flushReqParamsBuilder;
 
@@ -87,6 +87,7 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createDirReqParams, headers, 201)
+                   .doOnNext(ignore -> ADLSGen2ListingCache.getInstance().invalidateAncestors(dirPath))
                    .map(ignore -> true);
     }
 
@@ -107,25 +108,68 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createFileReqParams, headers, 201)
+                .doOnNext(ignore -> ADLSGen2ListingCache.getInstance().invalidateAncestors(filePath))
                 .map(ignore -> true);
     }
 
     public Observable<Boolean> uploadData(String destFilePath, File src) {
         return appendData(destFilePath, src)
-                .flatMap(len -> flushData(destFilePath, len));
+                .flatMap(len -> flushData(destFilePath, len))
+                .doOnNext(ignore -> ADLSGen2ListingCache.getInstance().invalidateAncestors(destFilePath));
     }
 
     public Observable<RemoteFile> list(String rootPath, String relativePath) {
-        this.listReqBuilder = new ADLSGen2ParamsBuilder()
+        return listPages(rootPath, relativePath, DEFAULT_LIST_MAX_RESULTS)
+                .concatMap(page -> Observable.from(page.getRemoteFiles()));
+    }
+
+    /**
+     * List the directory page by page, following the continuation token until the last page.
+     *
+     * @param rootPath the file system root URL
+     * @param relativePath the directory path relative to the file system root
+     * @param maxResults the max path count of a page
+     * @return the pages in order, the next page is only requested when the previous one is consumed
+     */
+    public Observable<GetRemoteFilesResponse> listPages(String rootPath, String relativePath, int maxResults) {
+        return listPagesFrom(rootPath, relativePath, null, maxResults);
+    }
+
+    private Observable<GetRemoteFilesResponse> listPagesFrom(String rootPath,
+                                                             String relativePath,
+                                                             @Nullable String continuation,
+                                                             int maxResults) {
+        return listPage(rootPath, relativePath, continuation, maxResults)
+                .concatMap(page -> StringUtils.isEmpty(page.getContinuation())
+                                   ? Observable.just(page)
+                                   : Observable.just(page).concatWith(Observable.defer(() -> listPagesFrom(
+                                           rootPath, relativePath, page.getContinuation(), maxResults))));
+    }
+
+    private Observable<GetRemoteFilesResponse> listPage(String rootPath,
+                                                        String relativePath,
+                                                        @Nullable String continuation,
+                                                        int maxResults) {
+        final ADLSGen2ParamsBuilder listReqBuilder = new ADLSGen2ParamsBuilder()
                 .enableRecursive(false)
-                .setResource("filesystem");
+                .setResource("filesystem")
+                .setDirectory(relativePath)
+                .setMaxResults(maxResults);
+
+        if (continuation != null) {
+            listReqBuilder.setContinuation(continuation);
+        }
 
-        return http.get(
-                StringUtils.stripEnd(rootPath, "/"),
-                listReqBuilder.setDirectory(relativePath).build(),
+        return http.requestWithHttpResponse(
+                new HttpGet(StringUtils.stripEnd(rootPath, "/")),
                 null,
-                GetRemoteFilesResponse.class)
-                .flatMap(pathList -> Observable.from(pathList.getRemoteFiles()));
+                listReqBuilder.build(),
+                null)
+                .map(resp -> {
+                    final GetRemoteFilesResponse page = http.convertJsonResponseToObject(resp, GetRemoteFilesResponse.class);
+                    page.setContinuation(resp.findHeader(CONTINUATION_HEADER));
+                    return page;
+                });
     }
 
     private Observable<Long> appendData(String filePath, File src) {
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The directory listing cache of ADLS Gen2 file systems, keyed by the directory and expired by TTL.
+ *
+ * The entries of a directory and its ancestors are invalidated when a path is created or uploaded under it.
+ */
+public final class ADLSGen2ListingCache {
+    public static final long DEFAULT_TTL_SECONDS = 300;
+    private static final int MAX_DIRECTORIES = 500;
+
+    private static final ADLSGen2ListingCache instance =
+            new ADLSGen2ListingCache(DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+
+    private final Cache<String, List<RemoteFile>> listings;
+
+    public ADLSGen2ListingCache(long ttl, @NotNull TimeUnit unit) {
+        this.listings = CacheBuilder.newBuilder()
+                .maximumSize(MAX_DIRECTORIES)
+                .expireAfterWrite(ttl, unit)
+                .build();
+    }
+
+    @NotNull
+    public static ADLSGen2ListingCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param fileSystemRootPath the file system root URL, like https://accountName.dfs.core.windows.net/fileSystem/
+     * @param directory the decoded directory path relative to the file system root, like sub/path/to
+     * @return the cached children, or null if absent or expired
+     */
+    @Nullable
+    public List<RemoteFile> get(@NotNull String fileSystemRootPath, @NotNull String directory) {
+        return listings.getIfPresent(getKey(fileSystemRootPath, directory));
+    }
+
+    public void put(@NotNull String fileSystemRootPath, @NotNull String directory, @NotNull List<RemoteFile> children) {
+        listings.put(getKey(fileSystemRootPath, directory), Collections.unmodifiableList(children));
+    }
+
+    public void invalidate(@NotNull String fileSystemRootPath, @NotNull String directory) {
+        listings.invalidate(getKey(fileSystemRootPath, directory));
+    }
+
+    /**
+     * Invalidate the listings of all directories containing the path.
+     *
+     * @param pathUrl the encoded URL of the created or uploaded path
+     */
+    public void invalidateAncestors(@NotNull String pathUrl) {
+        final String pathKey = normalizeUrl(pathUrl);
+        listings.asMap().keySet().removeIf(key -> pathKey.equals(key) || pathKey.startsWith(key + "/"));
+    }
+
+    public void invalidateAll() {
+        listings.invalidateAll();
+    }
+
+    @NotNull
+    private static String getKey(@NotNull String fileSystemRootPath, @NotNull String directory) {
+        final String relativePath = StringUtils.strip(directory, "/");
+        return relativePath.isEmpty()
+               ? normalizeUrl(fileSystemRootPath)
+               : normalizeUrl(fileSystemRootPath) + "/" + relativePath;
+    }
+
+    // Use the lower case host and the decoded path as the key, so encoded and decoded paths are matched
+    @NotNull
+    private static String normalizeUrl(@NotNull String url) {
+        try {
+            final URI uri = URI.create(url);
+            if (uri.getHost() != null) {
+                return uri.getHost().toLowerCase() + StringUtils.stripEnd(uri.getPath(), "/");
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Fall back to the raw URL
+        }
+
+        return StringUtils.stripEnd(url, "/");
+    }
+}
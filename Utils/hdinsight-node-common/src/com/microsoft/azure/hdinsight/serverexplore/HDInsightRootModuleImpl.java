@@ -8,6 +8,7 @@ package com.microsoft.azure.hdinsight.serverexplore;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.IconPathBuilder;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.serverexplore.hdinsightnode.ClusterNode;
 import com.microsoft.azure.hdinsight.serverexplore.hdinsightnode.HDInsightRootModule;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
@@ -21,6 +22,10 @@ import com.microsoft.tooling.msservices.serviceexplorer.AzureIconSymbol;
 import com.microsoft.tooling.msservices.serviceexplorer.Node;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
 public class HDInsightRootModuleImpl extends HDInsightRootModule {
     private static final String HDINSIGHT_NODE_EXPAND = "HDInsightExplorer.HDInsightNodeExpand";
 
@@ -58,7 +63,21 @@ public class HDInsightRootModuleImpl extends HDInsightRootModule {
     @Override
     protected void refreshFromAzure() throws Exception {
         synchronized (this) {
-            ClusterManagerEx.getInstance().getClusterDetails();
+            final Predicate<IClusterDetail> hdinsightClusterPredicate =
+                    ClusterManagerEx.getInstance().getHDInsightClusterFilterPredicate();
+            final Set<String> renderedClusterNames = new HashSet<>();
+
+            ClusterManagerEx.getInstance().invalidateSubscriptionClusters();
+            // Render each cluster once it's resolved, the clusters are re-added in order by refreshItems() at last
+            ClusterManagerEx.getInstance().getClusterDetails(cluster -> {
+                synchronized (renderedClusterNames) {
+                    if (hdinsightClusterPredicate.test(cluster) && renderedClusterNames.add(cluster.getName())) {
+                        addChildNode(new ClusterNode(this, cluster));
+                    }
+                }
+            });
+
+            removeAllChildNodes();
         }
     }
 
@@ -5,13 +5,17 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventLogs;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventType;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
@@ -19,12 +23,27 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+import rx.functions.Action1;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Caches of the Spark and YARN REST API data for the job view. The data of a finished application is kept, while the
+ * data of an unfinished one is only shared by the concurrent requests and loaded again for the next request. The
+ * application list and the YARN application states are refreshed periodically, and the data kept of an application
+ * is dropped once its state is seen changed.
+ */
 public class JobViewCacheManager {
+    private static final long REFRESH_SECONDS = 10;
+
     private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
@@ -58,6 +77,7 @@ public class JobViewCacheManager {
     private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(REFRESH_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<String, List<Application>>() {
                 @Override
                 public List<Application> load(String key) throws Exception {
@@ -93,32 +113,85 @@ public class JobViewCacheManager {
                 }
             });
 
+    // the last seen states of the applications, to find out the state changes
+    private static final Cache<ApplicationKey, String> yarnApplicationStates = CacheBuilder.newBuilder()
+            .maximumSize(200)
+            .build();
+
     private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(REFRESH_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, App>() {
                 @Override
                 public App load(ApplicationKey key) throws Exception {
-                    return YarnRestUtil.getApp(key);
+                    final App app = YarnRestUtil.getApp(key);
+                    final String lastState = yarnApplicationStates.asMap().put(key, String.valueOf(app.getState()));
+                    if (lastState != null && !lastState.equals(String.valueOf(app.getState()))) {
+                        invalidateApplicationData(key);
+                    }
+
+                    return app;
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
+    private static final LoadingCache<ApplicationKey, SparkEventLogs> sparkEventLogCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
+            .build(new CacheLoader<ApplicationKey, SparkEventLogs>() {
                 @Override
-                public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
-                    return SparkRestUtil.getSparkEventLogs(key);
+                public SparkEventLogs load(ApplicationKey key) throws Exception {
+                    // join the prefetching download if any, rather than downloading the event logs again
+                    try {
+                        return prefetchSparkEventLogs(key, null).toBlocking().single();
+                    } catch (RuntimeException e) {
+                        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
                 }
             });
 
+    // the event logs being downloaded and parsed, shared by all requests of the application
+    private static final ConcurrentMap<ApplicationKey, Observable<SparkEventLogs>> sparkEventLogLoading =
+            new ConcurrentHashMap<>();
+
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkJobStartEventLogCache.get(key);
+        return getApplicationData(sparkEventLogCache, key).getJobStartEvents();
+    }
+
+    public static SparkEventLogs getSparkEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
+        return getApplicationData(sparkEventLogCache, key);
+    }
+
+    /**
+     * Start loading the Spark event logs on the IO scheduler in advance, the subsequent requests will join the loading
+     * or be served from cache. The loading is started at once, whether the returned observable is subscribed or not.
+     *
+     * @param key the application key
+     * @param onProgress the optional parsing progress callback, receives the parsed fraction between 0 and 1, which is
+     *                   ignored if the event logs are being loaded already
+     * @return the observable emitting the event logs
+     */
+    public static Observable<SparkEventLogs> prefetchSparkEventLogs(@NotNull ApplicationKey key,
+                                                                    @Nullable Action1<Double> onProgress) {
+        final SparkEventLogs cached = sparkEventLogCache.getIfPresent(key);
+        if (cached != null) {
+            return Observable.just(cached);
+        }
+
+        return sparkEventLogLoading.computeIfAbsent(key, k -> {
+            final Observable<SparkEventLogs> loading =
+                    SparkRestUtil.getSparkEventLogsAsync(k, EnumSet.allOf(SparkEventType.class), onProgress)
+                            .doOnNext(eventLogs -> sparkEventLogCache.put(k, eventLogs))
+                            .doOnTerminate(() -> sparkEventLogLoading.remove(k))
+                            .cache();
+            // the failure is delivered to the subscribers
+            loading.subscribe(eventLogs -> { }, err -> { });
+            return loading;
+        });
     }
 
     public static ApplicationMasterLogs getYarnLogs(@NotNull ApplicationKey key) throws ExecutionException {
-            return yarnAppLogLocalCache.get(key);
+        return getApplicationData(yarnAppLogLocalCache, key);
     }
 
     public static App getYarnApp(@NotNull ApplicationKey key) throws ExecutionException {
@@ -140,18 +213,50 @@ public class JobViewCacheManager {
     }
 
     public static List<Executor> getExecutors(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkExecutorLocalCache.get(key);
+        return getApplicationData(sparkExecutorLocalCache, key);
     }
 
     public static List<Job> getJob(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkJobLocalCache.get(key);
+        return getApplicationData(sparkJobLocalCache, key);
     }
 
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkTasksSummaryLocalCache.get(key);
+        return getApplicationData(sparkTasksSummaryLocalCache, key);
     }
 
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkStageLocalCache.get(key);
+        return getApplicationData(sparkStageLocalCache, key);
+    }
+
+    /**
+     * Drop the data kept of an application, and the responses serialized from the data.
+     */
+    public static void invalidateApplicationData(@NotNull ApplicationKey key) {
+        sparkJobLocalCache.invalidate(key);
+        sparkStageLocalCache.invalidate(key);
+        sparkExecutorLocalCache.invalidate(key);
+        sparkTasksSummaryLocalCache.invalidate(key);
+        yarnAppLogLocalCache.invalidate(key);
+        sparkEventLogCache.invalidate(key);
+        JobViewHttpResponse.invalidate(key);
+    }
+
+    private static <V> V getApplicationData(@NotNull LoadingCache<ApplicationKey, V> cache,
+                                            @NotNull ApplicationKey key) throws ExecutionException {
+        final V data = cache.get(key);
+        if (!isFinished(key)) {
+            // the data of an unfinished application is changing
+            cache.invalidate(key);
+        }
+
+        return data;
+    }
+
+    private static boolean isFinished(@NotNull ApplicationKey key) {
+        try {
+            return yarnApplicationLocalCache.get(key).isFinished();
+        } catch (ExecutionException | UncheckedExecutionException ignored) {
+            return false;
+        }
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency metrics of the job view HTTP server, per request path.
+ */
+public final class JobViewHttpMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobViewHttpMetrics.class);
+    private static final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+
+    private JobViewHttpMetrics() {
+    }
+
+    @NotNull
+    public static HttpHandler timed(@NotNull HttpHandler handler) {
+        return httpExchange -> {
+            final long start = System.nanoTime();
+            try {
+                handler.handle(httpExchange);
+            } finally {
+                record(httpExchange.getRequestURI().getPath(), System.nanoTime() - start);
+            }
+        };
+    }
+
+    public static void record(@NotNull String endpoint, long elapsedNanos) {
+        endpointStats.computeIfAbsent(endpoint, path -> new EndpointStats()).add(elapsedNanos);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Job view request " + endpoint + " took " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+        }
+    }
+
+    @NotNull
+    public static Map<String, EndpointStats> getSnapshot() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpointStats));
+    }
+
+    public static void logSummary() {
+        getSnapshot().forEach((endpoint, stats) -> LOGGER.info("Job view endpoint " + endpoint + ": " + stats));
+    }
+
+    public static void reset() {
+        endpointStats.clear();
+    }
+
+    public static final class EndpointStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        public double getAverageMillis() {
+            final long requests = getCount();
+            return requests == 0 ? 0 : (double) getTotalMillis() / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, avg=%.1f ms, max=%d ms", getCount(), getAverageMillis(), getMaxMillis());
+        }
+    }
+}
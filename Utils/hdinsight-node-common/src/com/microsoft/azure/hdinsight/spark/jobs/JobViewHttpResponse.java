@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON responses of the job view HTTP server, with gzip encoding and ETag based conditional requests.
+ */
+public final class JobViewHttpResponse {
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+    private static final String GZIP = "gzip";
+
+    // The serialized responses of one application, keyed by the application and the request path
+    private static final Cache<ResponseKey, SerializedResponse> serializedResponseCache = CacheBuilder.newBuilder()
+            .maximumSize(200)
+            .initialCapacity(20)
+            .build();
+
+    private JobViewHttpResponse() {
+    }
+
+    /**
+     * Stream the object as JSON into the response body directly, for the responses not bound to an application.
+     */
+    public static void sendJson(@NotNull HttpExchange httpExchange, @NotNull Object obj) throws IOException {
+        final boolean isGzip = acceptsGzip(httpExchange);
+        final Headers headers = httpExchange.getResponseHeaders();
+        headers.set("Content-Type", CONTENT_TYPE_JSON);
+        headers.set("Vary", "Accept-Encoding");
+        if (isGzip) {
+            headers.set("Content-Encoding", GZIP);
+        }
+
+        // Zero length for the chunked transfer encoding
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        try (OutputStream body = isGzip ? new GZIPOutputStream(httpExchange.getResponseBody())
+                                        : httpExchange.getResponseBody()) {
+            ObjectConvertUtils.writeObjectAsJson(body, obj);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * Send the object of an application as JSON. The serialized bytes are kept until the object of the application
+     * is changed, so a repeated request is served without serializing and answered with 304 if its ETag matches.
+     */
+    public static void sendCachedJson(@NotNull HttpExchange httpExchange,
+                                      @NotNull ApplicationKey key,
+                                      @NotNull Object obj) throws IOException {
+        sendCachedJson(httpExchange, key, Collections.singletonList(obj), () -> obj);
+    }
+
+    /**
+     * Send the JSON of a response built from the application objects, the response is only built and serialized
+     * again when any of the source objects is changed.
+     *
+     * @param sources the objects the response is built from, compared by identity
+     * @param responseBuilder the response builder
+     */
+    public static void sendCachedJson(@NotNull HttpExchange httpExchange,
+                                      @NotNull ApplicationKey key,
+                                      @NotNull List<?> sources,
+                                      @NotNull Supplier<?> responseBuilder) throws IOException {
+        final ResponseKey responseKey = new ResponseKey(key, httpExchange.getRequestURI().getPath());
+        SerializedResponse response = serializedResponseCache.getIfPresent(responseKey);
+        if (response == null || !response.isBuiltFrom(sources)) {
+            response = SerializedResponse.serialize(sources, responseBuilder.get());
+            serializedResponseCache.put(responseKey, response);
+        }
+
+        final Headers headers = httpExchange.getResponseHeaders();
+        headers.set("ETag", response.getETag());
+        headers.set("Cache-Control", "no-cache");
+        headers.set("Vary", "Accept-Encoding");
+
+        if (isETagMatched(httpExchange.getRequestHeaders().getFirst("If-None-Match"), response.getETag())) {
+            httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+            httpExchange.close();
+            return;
+        }
+
+        final boolean isGzip = acceptsGzip(httpExchange);
+        final byte[] content = isGzip ? response.getGzipped() : response.getJson();
+        headers.set("Content-Type", CONTENT_TYPE_JSON);
+        if (isGzip) {
+            headers.set("Content-Encoding", GZIP);
+        }
+
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, content.length);
+        try (OutputStream body = httpExchange.getResponseBody()) {
+            body.write(content);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    public static void invalidate(@NotNull ApplicationKey key) {
+        serializedResponseCache.asMap().keySet().removeIf(responseKey -> responseKey.getApplicationKey().equals(key));
+    }
+
+    private static boolean acceptsGzip(@NotNull HttpExchange httpExchange) {
+        final String acceptEncoding = httpExchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return acceptEncoding != null && Arrays.stream(acceptEncoding.split(","))
+                .map(encoding -> encoding.split(";")[0].trim())
+                .anyMatch(encoding -> encoding.equalsIgnoreCase(GZIP) || encoding.equals("*"));
+    }
+
+    private static boolean isETagMatched(@Nullable String ifNoneMatch, @NotNull String eTag) {
+        return ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals(eTag) || tag.equals("*"));
+    }
+
+    private static final class ResponseKey {
+        private final ApplicationKey applicationKey;
+        private final String path;
+
+        ResponseKey(@NotNull ApplicationKey applicationKey, @NotNull String path) {
+            this.applicationKey = applicationKey;
+            this.path = path;
+        }
+
+        ApplicationKey getApplicationKey() {
+            return applicationKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(applicationKey, path);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ResponseKey)) {
+                return false;
+            }
+
+            final ResponseKey that = (ResponseKey) obj;
+            return applicationKey.equals(that.applicationKey) && path.equals(that.path);
+        }
+    }
+
+    private static final class SerializedResponse {
+        private final List<?> sources;
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final String eTag;
+
+        private SerializedResponse(@NotNull List<?> sources, @NotNull byte[] json, @NotNull byte[] gzipped) {
+            this.sources = new ArrayList<>(sources);
+            this.json = json;
+            this.gzipped = gzipped;
+            this.eTag = "\"" + DigestUtils.sha1Hex(json) + "\"";
+        }
+
+        static SerializedResponse serialize(@NotNull List<?> sources, @NotNull Object response) throws IOException {
+            final byte[] json = ObjectConvertUtils.convertObjectToJsonBytes(response).orElseThrow(IOException::new);
+            final ByteArrayOutputStream gzipBuffer = new ByteArrayOutputStream(Math.max(json.length / 4, 64));
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzipBuffer)) {
+                gzipStream.write(json);
+            }
+
+            return new SerializedResponse(sources, json, gzipBuffer.toByteArray());
+        }
+
+        boolean isBuiltFrom(@NotNull List<?> currentSources) {
+            if (currentSources.size() != sources.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i) != currentSources.get(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        byte[] getJson() {
+            return json;
+        }
+
+        byte[] getGzipped() {
+            return gzipped;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+    }
+}
@@ -15,12 +15,14 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class JobViewHttpServer {
     private static HttpServer server;
     private static final int NUMBER_OF_THREADS = 50;
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
     private static ExecutorService executorService;
     private static boolean isEnabled = false;
     private static int port = -1;
@@ -40,6 +42,9 @@ public class JobViewHttpServer {
             } catch (InterruptedException e) {
             }
         }
+        if (isEnabled) {
+            JobViewHttpMetrics.logSummary();
+        }
         isEnabled = false;
     }
 
@@ -66,11 +71,16 @@ public class JobViewHttpServer {
                     httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
                     JobUtils.setResponse(httpExchange, "Connect Successfully");
             });
-            server.createContext("/applications", new SparkJobHttpHandler());
-            server.createContext("/apps", new YarnJobHttpHandler());
-            server.createContext("/actions", new ActionHttpHandler());
+            server.createContext("/applications", JobViewHttpMetrics.timed(new SparkJobHttpHandler()));
+            server.createContext("/apps", JobViewHttpMetrics.timed(new YarnJobHttpHandler()));
+            server.createContext("/actions", JobViewHttpMetrics.timed(new ActionHttpHandler()));
 
-            executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+            // The job view is idle most of the time, don't keep the worker threads alive then
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                    NUMBER_OF_THREADS, NUMBER_OF_THREADS, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>());
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            executorService = threadPoolExecutor;
             server.setExecutor(executorService);
             server.start();
             isEnabled = true;
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventLogs;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventType;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.input.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.functions.Action1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming parser for Spark application event logs, which are files of one JSON listener event per line.
+ *
+ * Every line is scanned token by token for its "Event" field first, so only the events of the wanted types are
+ * fully deserialized, and the log is never held in memory as a whole.
+ */
+public class SparkEventLogParser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SparkEventLogParser.class);
+    private static final String EVENT_FIELD = "Event";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_STEP_BYTES = 4 * 1024 * 1024;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
+
+    private final Map<String, SparkEventType> wantedEvents = new HashMap<>();
+
+    public SparkEventLogParser(@NotNull Collection<SparkEventType> eventTypes) {
+        eventTypes.forEach(type -> wantedEvents.put(type.getEventName(), type));
+    }
+
+    public SparkEventLogParser() {
+        this(EnumSet.allOf(SparkEventType.class));
+    }
+
+    /**
+     * Parse the event log in one pass.
+     *
+     * @param eventLog the event log stream, which is not closed by the parser
+     * @param totalBytes the uncompressed event log size for progress reporting, or a negative value if unknown
+     * @param onProgress the optional progress callback, receives the parsed fraction between 0 and 1
+     * @return the wanted events grouped by type
+     * @throws IOException for event log reading failures
+     */
+    @NotNull
+    public SparkEventLogs parse(@NotNull InputStream eventLog,
+                                long totalBytes,
+                                @Nullable Action1<Double> onProgress) throws IOException {
+        final SparkEventLogs events = new SparkEventLogs();
+        final CountingInputStream countingStream = new CountingInputStream(eventLog);
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(countingStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+
+        long nextProgressBytes = PROGRESS_STEP_BYTES;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final SparkEventType type = wantedEvents.get(scanEventName(line));
+            if (type != null) {
+                try {
+                    events.add(type, objectMapper.readValue(line, type.getEventClass()));
+                } catch (IOException ex) {
+                    LOGGER.warn("Skip the unparsable Spark event " + type, ex);
+                }
+            }
+
+            if (onProgress != null && totalBytes > 0 && countingStream.getByteCount() >= nextProgressBytes) {
+                nextProgressBytes = countingStream.getByteCount() + PROGRESS_STEP_BYTES;
+                onProgress.call(Math.min(1.0, (double) countingStream.getByteCount() / totalBytes));
+            }
+        }
+
+        if (onProgress != null) {
+            onProgress.call(1.0);
+        }
+
+        return events;
+    }
+
+    /**
+     * Scan the top level fields of a JSON event line for the event name without building the object tree.
+     *
+     * @param line the event line
+     * @return the event name, or null if the line is not a valid event
+     */
+    @Nullable
+    static String scanEventName(@NotNull String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken valueToken = parser.nextToken();
+
+                if (EVENT_FIELD.equals(fieldName)) {
+                    return valueToken == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+
+                parser.skipChildren();
+            }
+        } catch (IOException ignored) {
+            // The last line of an in-progress application could be truncated
+        }
+
+        return null;
+    }
+}
@@ -7,6 +7,7 @@ package com.microsoft.azure.hdinsight.spark.mock;
 
 import org.apache.hadoop.fs.*;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -25,4 +26,15 @@ class MockDfs extends LocalFileSystem {
     public String getScheme() {
         return "mockDfs";
     }
+
+    @Override
+    public FileStatus[] globStatus(Path pathPattern) throws IOException {
+        return globStatus(pathPattern, path -> true);
+    }
+
+    @Override
+    public FileStatus[] globStatus(Path pathPattern, PathFilter filter) throws IOException {
+        // Glob with the raw file system directly, hiding the checksum files as the listing does
+        return getRawFileSystem().globStatus(pathPattern, path -> !isChecksumFile(path) && filter.accept(path));
+    }
 }
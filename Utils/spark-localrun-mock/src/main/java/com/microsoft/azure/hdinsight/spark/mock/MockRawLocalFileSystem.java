@@ -9,73 +9,345 @@ package com.microsoft.azure.hdinsight.spark.mock;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
 import org.apache.hadoop.util.Shell;
 import org.apache.hadoop.util.StringUtils;
 
 import java.io.DataOutput;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * The local file system mocking the cluster DFS. Since the file metadata of large partitioned datasets dominates the
+ * time of a Spark local run, directories are listed with one attributes read per entry, and both the path
+ * resolutions and the file attributes are cached in bounded LRU caches.
+ *
+ * The attributes cache is shared by all instances, since different schemes can map to the same local files, and is
+ * invalidated by the writes, renames and deletes through any instance. Changes made outside of the file systems are not
+ * seen until the entries are evicted.
+ */
 class MockRawLocalFileSystem extends RawLocalFileSystem {
+    private static final int PATH_CACHE_SIZE = 10_000;
+    private static final int STATUS_CACHE_SIZE = 100_000;
+
+    // Local file path -> attributes snapshot
+    private static final LruCache<BasicFileAttributes> STATUS_CACHE = new LruCache<>(STATUS_CACHE_SIZE);
+
     private String authority;
     private String scheme = "wasb";
     private URI uri;
+    // Working directory and DFS path -> local file, the mapping doesn't depend on the files, so it's never invalidated
+    private final LruCache<File> pathCache = new LruCache<>(PATH_CACHE_SIZE);
 
     @Override
     public FileStatus getFileStatus(Path f) throws IOException {
         File path = pathToFile(f);
-        if (path.exists()) {
-            return new RawLocalFileStatus(pathToFile(f), getDefaultBlockSize(f), makeQualified(f));
-        } else {
-            throw new FileNotFoundException("File " + f + " does not exist");
-        }
+
+        return new RawLocalFileStatus(path, getAttributes(path, f), getDefaultBlockSize(f), makeQualified(f));
     }
 
     @Override
     public FileStatus[] listStatus(Path f) throws IOException {
         File localf = pathToFile(f);
-        FileStatus[] results;
+        Path qualified = makeQualified(f);
+        long blockSize = getDefaultBlockSize(f);
+        BasicFileAttributes attributes = getAttributes(localf, f);
+
+        if (!attributes.isDirectory()) {
+            return new FileStatus[] { new RawLocalFileStatus(localf, attributes, blockSize, qualified) };
+        }
 
-        if (!localf.exists()) {
+        List<FileStatus> results = new ArrayList<>();
+        try (DirectoryStream<java.nio.file.Path> children = Files.newDirectoryStream(localf.toPath())) {
+            for (java.nio.file.Path child : children) {
+                File childFile = child.toFile();
+                BasicFileAttributes childAttributes = readAttributes(childFile);
+                if (childAttributes == null) {
+                    // ignore the files not found since the dir may have changed since listed
+                    continue;
+                }
+
+                // Assemble the path using the Path 3 arg constructor to make sure
+                // paths with colon are properly resolved on Linux
+                Path childPath = new Path(qualified, new Path(null, null, child.getFileName().toString()));
+                results.add(new RawLocalFileStatus(childFile, childAttributes, blockSize, childPath));
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            // The cached attributes are out of date
+            invalidate(localf, true);
             throw new FileNotFoundException("File " + f + " does not exist");
         }
-        if (localf.isFile()) {
-            return new FileStatus[] {
-                    new RawLocalFileStatus(localf, getDefaultBlockSize(f), makeQualified(f)) };
+
+        return results.toArray(new FileStatus[0]);
+    }
+
+    @Override
+    public FileStatus[] globStatus(Path pathPattern) throws IOException {
+        return globStatus(pathPattern, path -> true);
+    }
+
+    /**
+     * Match the pattern component by component, only listing the directories of the components with wildcards,
+     * rather than getting the status of every parent with Hadoop globber. The patterns with braces across path
+     * separators, like {@code /data/{a/b,c}}, are left to Hadoop globber to expand.
+     */
+    @Override
+    public FileStatus[] globStatus(Path pathPattern, PathFilter filter) throws IOException {
+        Path pattern = makeQualified(pathPattern);
+        String patternPath = pattern.toUri().getPath();
+
+        if (hasBraceAcrossSeparator(patternPath)) {
+            return super.globStatus(pathPattern, filter);
         }
 
-        String[] names = localf.list();
-        if (names == null) {
-            return null;
+        List<Path> candidates = Collections.singletonList(
+                new Path(pattern.toUri().getScheme(), pattern.toUri().getAuthority(), Path.SEPARATOR));
+        boolean sawWildcard = false;
+
+        for (String component : patternPath.split(Path.SEPARATOR)) {
+            if (component.isEmpty()) {
+                continue;
+            }
+
+            GlobFilter glob = new GlobFilter(component);
+            List<Path> matched = new ArrayList<>();
+
+            if (!glob.hasPattern()) {
+                Path literal = new Path(null, null, unescapePathComponent(component));
+                candidates.forEach(parent -> matched.add(new Path(parent, literal)));
+            } else {
+                sawWildcard = true;
+
+                for (Path parent : candidates) {
+                    try (DirectoryStream<java.nio.file.Path> children =
+                                 Files.newDirectoryStream(pathToFile(parent).toPath())) {
+                        for (java.nio.file.Path child : children) {
+                            Path childPath = new Path(parent, new Path(null, null, child.getFileName().toString()));
+                            if (glob.accept(childPath)) {
+                                matched.add(childPath);
+                            }
+                        }
+                    } catch (NoSuchFileException | NotDirectoryException e) {
+                        // nothing matches under a file or a missing parent
+                    }
+                }
+            }
+
+            candidates = matched;
         }
-        results = new FileStatus[names.length];
-        int j = 0;
-        for (int i = 0; i < names.length; i++) {
+
+        List<FileStatus> results = new ArrayList<>();
+        for (Path candidate : candidates) {
             try {
-                // Assemble the path using the Path 3 arg constructor to make sure
-                // paths with colon are properly resolved on Linux
-                results[j] = getFileStatus(new Path(f, new Path(null, null, names[i])));
-                j++;
+                FileStatus status = getFileStatus(candidate);
+                if (filter.accept(status.getPath())) {
+                    results.add(status);
+                }
             } catch (FileNotFoundException e) {
-                // ignore the files not found since the dir list may have have changed
-                // since the names[] list was generated.
+                // a literal component which doesn't exist
+            }
+        }
+
+        // Same as Hadoop globber, null for a path without wildcards which doesn't exist
+        if (!sawWildcard && results.isEmpty()) {
+            return null;
+        }
+
+        return results.toArray(new FileStatus[0]);
+    }
+
+    private static boolean hasBraceAcrossSeparator(String pattern) {
+        int depth = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (c == '/' && depth > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String unescapePathComponent(String name) {
+        return name.replaceAll("\\\\(.)", "$1");
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, boolean overwrite, int bufferSize, short replication, long blockSize,
+                                     Progressable progress) throws IOException {
+        return invalidateOnClose(f, super.create(f, overwrite, bufferSize, replication, blockSize, progress));
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                     short replication, long blockSize, Progressable progress) throws IOException {
+        return invalidateOnClose(f,
+                super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress));
+    }
+
+    @Override
+    public FSDataOutputStream createNonRecursive(Path f, FsPermission permission, EnumSet<CreateFlag> flags,
+                                                 int bufferSize, short replication, long blockSize,
+                                                 Progressable progress) throws IOException {
+        return invalidateOnClose(f,
+                super.createNonRecursive(f, permission, flags, bufferSize, replication, blockSize, progress));
+    }
+
+    @Override
+    public FSDataOutputStream append(Path f, int bufferSize, Progressable progress) throws IOException {
+        return invalidateOnClose(f, super.append(f, bufferSize, progress));
+    }
+
+    @Override
+    public boolean truncate(Path f, long newLength) throws IOException {
+        try {
+            return super.truncate(f, newLength);
+        } finally {
+            invalidate(pathToFile(f), false);
+        }
+    }
+
+    @Override
+    public boolean mkdirs(Path f) throws IOException {
+        try {
+            return super.mkdirs(f);
+        } finally {
+            invalidate(pathToFile(f), false);
+        }
+    }
+
+    @Override
+    public boolean mkdirs(Path f, FsPermission permission) throws IOException {
+        try {
+            return super.mkdirs(f, permission);
+        } finally {
+            invalidate(pathToFile(f), false);
+        }
+    }
+
+    @Override
+    public boolean rename(Path src, Path dst) throws IOException {
+        try {
+            return super.rename(src, dst);
+        } finally {
+            invalidate(pathToFile(src), true);
+            invalidate(pathToFile(dst), true);
+        }
+    }
+
+    @Override
+    public boolean delete(Path p, boolean recursive) throws IOException {
+        try {
+            return super.delete(p, recursive);
+        } finally {
+            invalidate(pathToFile(p), true);
+        }
+    }
+
+    @Override
+    public void setTimes(Path p, long mtime, long atime) throws IOException {
+        try {
+            super.setTimes(p, mtime, atime);
+        } finally {
+            invalidate(pathToFile(p), false);
+        }
+    }
+
+    private FSDataOutputStream invalidateOnClose(Path f, FSDataOutputStream out) throws IOException {
+        File file = pathToFile(f);
+        invalidate(file, false);
+
+        // The size and modification time keep changing until the stream is closed
+        return new FSDataOutputStream(new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    invalidate(file, false);
+                }
             }
+        }, null, out.getPos());
+    }
+
+    /**
+     * Get the attributes of the local file from the cache, or read them.
+     *
+     * @throws FileNotFoundException if the file doesn't exist
+     */
+    private static BasicFileAttributes getAttributes(File file, Path f) throws IOException {
+        BasicFileAttributes attributes = STATUS_CACHE.get(file.getPath());
+
+        if (attributes == null) {
+            attributes = readAttributes(file);
         }
-        if (j == names.length) {
-            return results;
+
+        if (attributes == null) {
+            throw new FileNotFoundException("File " + f + " does not exist");
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Read the attributes of the local file in one call, and cache them.
+     *
+     * @return the attributes, or null if the file doesn't exist
+     */
+    private static BasicFileAttributes readAttributes(File file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            STATUS_CACHE.put(file.getPath(), attributes);
+
+            return attributes;
+        } catch (NoSuchFileException e) {
+            STATUS_CACHE.remove(file.getPath());
+
+            return null;
+        }
+    }
+
+    /**
+     * Invalidate the cached attributes of the file and its parents, whose modification time changed with it, and of
+     * all the files under it if recursive.
+     */
+    static void invalidate(File file, boolean recursive) {
+        if (recursive) {
+            STATUS_CACHE.removeByPrefix(file.getPath() + File.separator);
+        }
+
+        for (File current = file; current != null; current = current.getParentFile()) {
+            STATUS_CACHE.remove(current.getPath());
         }
-        return Arrays.copyOf(results, j);
     }
 
     @Override
     public void initialize(URI uri, Configuration conf) throws IOException {
         super.initialize(uri, conf);
 
+        this.pathCache.clear();
         this.authority = uri.getAuthority();
         this.scheme = uri.getScheme();
 
@@ -114,8 +386,13 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             return !super.getOwner().isEmpty();
         }
 
-        RawLocalFileStatus(File f, long defaultBlockSize, Path p) {
-            super(f.length(), f.isDirectory(), 1, defaultBlockSize, f.lastModified(), p);
+        RawLocalFileStatus(File f, BasicFileAttributes attributes, long defaultBlockSize, Path p) {
+            super(attributes.size(),
+                  attributes.isDirectory(),
+                  1,
+                  defaultBlockSize,
+                  attributes.lastModifiedTime().toMillis(),
+                  p);
             this.file = f;
         }
 
@@ -201,6 +478,19 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
 
     @Override
     public File pathToFile(Path path) {
+        // The DFS root is resolved from the working directory
+        String key = System.getProperty("user.dir") + File.pathSeparator + path;
+        File file = pathCache.get(key);
+
+        if (file == null) {
+            file = resolvePathToFile(path);
+            pathCache.put(key, file);
+        }
+
+        return file;
+    }
+
+    private File resolvePathToFile(Path path) {
         Path realPath;
 
         URI originUri = path.toUri();
@@ -236,4 +526,39 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         return new File(realPath.toUri().getPath());
     }
 
+    /**
+     * A bounded map evicting the least recently used entries, shared by the threads of a Spark job.
+     */
+    static class LruCache<V> {
+        private final Map<String, V> entries;
+
+        LruCache(int capacity) {
+            this.entries = new LinkedHashMap<String, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized V get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, V value) {
+            entries.put(key, value);
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        synchronized void removeByPrefix(String prefix) {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
 }
@@ -22,16 +22,31 @@
 
 package com.microsoft.azure.hdinsight.spark.mock
 
+import cucumber.api.java.After
+import cucumber.api.java.en.And
 import cucumber.api.java.en.Given
 import cucumber.api.java.en.Then
 import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.FileStatus
 import org.apache.hadoop.fs.Path
 import org.assertj.core.api.Assertions.assertThat
 import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
 import kotlin.test.assertNotNull
 
 class MockRawLocalFileSystemScenario {
     private var workDir = ""
+    private var treeRoot: File? = null
+
+    @After
+    fun tearDown() {
+        treeRoot?.deleteRecursively()
+    }
+
+    private fun newFileSystem(): MockRawLocalFileSystem = MockRawLocalFileSystem().apply { conf = Configuration() }
+
+    private fun treePath(child: String = ""): Path = Path(File(treeRoot!!, child).toURI())
 
     @Given("^set mocked file system local working directory to '(.*)'")
     fun setWorkingDirectory(workDir: String) {
@@ -51,4 +66,64 @@ class MockRawLocalFileSystemScenario {
         fs.conf = Configuration()
         assertNotNull(fs.getFileStatus(Path(path)))
     }
-}
\ No newline at end of file
+
+    @Given("^create a partitioned tree of (\\d+) days with (\\d+) files each in a temporary folder$")
+    fun createPartitionedTree(days: Int, filesPerDay: Int) {
+        treeRoot = Files.createTempDirectory("mockfs").toFile()
+        (0 until days).forEach { day ->
+            val partition = File(treeRoot, "month=%02d/day=%02d".format(day / 30 + 1, day % 30 + 1))
+            partition.mkdirs()
+            (0 until filesPerDay).forEach { File(partition, "part-%05d".format(it)).createNewFile() }
+        }
+    }
+
+    @Then("^list the partitioned tree recursively (\\d+) times, and (\\d+) files should be got each time in less than (\\d+) seconds$")
+    fun checkListPartitionedTree(times: Int, filesExpect: Int, secondsExpect: Long) {
+        val fs = newFileSystem()
+
+        fun listFiles(path: Path): List<FileStatus> = fs.listStatus(path).flatMap {
+            if (it.isDirectory) listFiles(it.path) else listOf(it)
+        }
+
+        (1..times).forEach {
+            val start = System.nanoTime()
+            val files = listFiles(treePath())
+            val millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            println("Listing #$it of ${files.size} files took $millis ms")
+
+            assertThat(files).hasSize(filesExpect)
+            assertThat(millis).isLessThan(TimeUnit.SECONDS.toMillis(secondsExpect))
+        }
+    }
+
+    @Then("^glob '(.*)' in the partitioned tree, and (\\d+) files should be got$")
+    fun checkGlobPartitionedTree(pattern: String, filesExpect: Int) {
+        val start = System.nanoTime()
+        val files = newFileSystem().globStatus(treePath(pattern))
+        println("Globbing $pattern of ${files?.size} files took " +
+                "${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)} ms")
+
+        assertThat(files).hasSize(filesExpect)
+    }
+
+    @Then("^glob '(.*)' in the partitioned tree, and nothing should be got$")
+    fun checkGlobNothing(pattern: String) {
+        assertThat(newFileSystem().globStatus(treePath(pattern))).isNull()
+    }
+
+    @And("^write (\\d+) bytes to '(.*)' in the partitioned tree, and its length should be (\\d+)$")
+    fun checkWriteInvalidation(bytes: Int, child: String, lengthExpect: Long) {
+        val fs = newFileSystem()
+        // The length is cached before written
+        fs.getFileStatus(treePath(child))
+
+        fs.append(treePath(child)).use { it.write(ByteArray(bytes)) }
+
+        assertThat(fs.getFileStatus(treePath(child)).len).isEqualTo(lengthExpect)
+    }
+
+    @And("^delete '(.*)' in the partitioned tree$")
+    fun deleteInTree(child: String) {
+        assertThat(newFileSystem().delete(treePath(child), true)).isTrue()
+    }
+}
@@ -26,3 +26,19 @@ Feature: Mock File System Unit Test
   Scenario: Resources file exists
     Given set mocked file system local working directory to 'src/test/resources/data/__default__/user/current'
     Then mocked file 'my_words.txt' should exists
+
+  Scenario: Benchmark listing and globbing a partitioned tree of 50000 files
+    Given create a partitioned tree of 100 days with 500 files each in a temporary folder
+    Then list the partitioned tree recursively 3 times, and 50000 files should be got each time in less than 30 seconds
+    Then glob 'month=*/day=*/part-*' in the partitioned tree, and 50000 files should be got
+    Then glob 'month=0[2-3]/day={01,15}/part-0000?' in the partitioned tree, and 40 files should be got
+    Then glob 'month=04/day=10' in the partitioned tree, and 1 files should be got
+    Then glob 'month=04/day=11' in the partitioned tree, and nothing should be got
+    Then glob 'month=09/*' in the partitioned tree, and 0 files should be got
+
+  Scenario: Cached file status is invalidated by writes and deletes
+    Given create a partitioned tree of 2 days with 10 files each in a temporary folder
+    And write 10 bytes to 'month=01/day=01/part-00000' in the partitioned tree, and its length should be 10
+    Then glob 'month=01/day=*/part-*' in the partitioned tree, and 20 files should be got
+    And delete 'month=01/day=02' in the partitioned tree
+    Then glob 'month=01/day=*/part-*' in the partitioned tree, and 10 files should be got